@@ -92,6 +92,7 @@ import net.minecraft.server.commands.ParticleCommand;
 import net.minecraft.server.commands.PerfCommand;
 import net.minecraft.server.commands.PlaceCommand;
 import net.minecraft.server.commands.PlaySoundCommand;
+import net.minecraft.server.commands.PregenCommand;
 import net.minecraft.server.commands.PublishCommand;
 import net.minecraft.server.commands.RaidCommand;
 import net.minecraft.server.commands.RandomCommand;
@@ -236,6 +237,7 @@ public class Commands {
             PardonCommand.register(this.dispatcher);
             PardonIpCommand.register(this.dispatcher);
             PerfCommand.register(this.dispatcher);
+            PregenCommand.register(this.dispatcher);
             SaveAllCommand.register(this.dispatcher);
             SaveOffCommand.register(this.dispatcher);
             SaveOnCommand.register(this.dispatcher);
@@ -0,0 +1,113 @@
+package net.minecraft.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+import it.unimi.dsi.fastutil.longs.Long2ObjectArrayMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import javax.annotation.Nullable;
+import net.minecraft.network.protocol.BundlePacket;
+import net.minecraft.network.protocol.Packet;
+
+public final class BroadcastPacket extends AbstractReferenceCounted {
+    private static volatile boolean enabled = true;
+    private final Packet<?> packet;
+    private final boolean shared;
+    @Nullable
+    private ConnectionProtocol protocol;
+    @Nullable
+    private ByteBuf encoded;
+    private final Long2ObjectMap<ByteBuf> compressed = new Long2ObjectArrayMap<>();
+
+    private BroadcastPacket(Packet<?> packet, boolean shared) {
+        this.packet = packet;
+        this.shared = shared;
+    }
+
+    public static void configure(boolean encodeOnce) {
+        enabled = encodeOnce;
+    }
+
+    public static BroadcastPacket of(Packet<?> packet, int recipients) {
+        return new BroadcastPacket(packet, enabled && recipients > 1 && !(packet instanceof BundlePacket) && !packet.isTerminal());
+    }
+
+    public Packet<?> packet() {
+        return this.packet;
+    }
+
+    public boolean isShared() {
+        return this.shared;
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <T extends PacketListener> boolean encode(ProtocolInfo<T> protocolInfo, ByteBufAllocator allocator) {
+        if (this.encoded == null) {
+            ByteBuf bytebuf = allocator.directBuffer();
+
+            try {
+                protocolInfo.codec().encode(bytebuf, (Packet<? super T>)this.packet);
+            } catch (Throwable throwable) {
+                bytebuf.release();
+                throw throwable;
+            }
+
+            this.encoded = bytebuf;
+            this.protocol = protocolInfo.id();
+            return true;
+        } else {
+            return this.protocol == protocolInfo.id();
+        }
+    }
+
+    synchronized ByteBuf encoded() {
+        if (this.encoded == null) {
+            throw new IllegalStateException("Broadcast packet " + this.packet + " was not encoded");
+        } else {
+            return this.encoded.retainedDuplicate();
+        }
+    }
+
+    synchronized int encodedSize() {
+        return this.encoded != null ? this.encoded.readableBytes() : 0;
+    }
+
+    synchronized ByteBuf compressed(CompressionEncoder encoder, ByteBufAllocator allocator) {
+        long i = (long)encoder.getThreshold() << 32 | (long)encoder.getLevel() & 4294967295L;
+        ByteBuf bytebuf = this.compressed.get(i);
+        if (bytebuf == null) {
+            bytebuf = allocator.directBuffer();
+
+            try {
+                encoder.compress(this.encoded.duplicate(), bytebuf);
+            } catch (Throwable throwable) {
+                bytebuf.release();
+                throw throwable;
+            }
+
+            this.compressed.put(i, bytebuf);
+        }
+
+        return bytebuf.retainedDuplicate();
+    }
+
+    @Override
+    protected synchronized void deallocate() {
+        if (this.encoded != null) {
+            this.encoded.release();
+            this.encoded = null;
+        }
+
+        for (ByteBuf bytebuf : this.compressed.values()) {
+            bytebuf.release();
+        }
+
+        this.compressed.clear();
+    }
+
+    @Override
+    public ReferenceCounted touch(Object hint) {
+        return this;
+    }
+}
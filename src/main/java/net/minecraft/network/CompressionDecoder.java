@@ -19,7 +19,12 @@ public class CompressionDecoder extends ByteToMessageDecoder {
     public CompressionDecoder(int p_182675_, boolean p_182676_) {
         this.threshold = p_182675_;
         this.validateDecompressed = p_182676_;
-        this.inflater = new Inflater();
+        this.inflater = CompressorPool.acquireInflater();
+    }
+
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext context) throws Exception {
+        CompressorPool.releaseInflater(this.inflater);
     }
 
     @Override
@@ -2,20 +2,60 @@ package net.minecraft.network;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 import java.util.zip.Deflater;
 
 public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
+    private static final int MIN_WRITABLE_BYTES = 8192;
     private final byte[] encodeBuf = new byte[8192];
     private final Deflater deflater;
     private int threshold;
+    private int level;
 
     public CompressionEncoder(int p_129448_) {
-        this.threshold = p_129448_;
-        this.deflater = new Deflater();
+        this(p_129448_, -1);
+    }
+
+    public CompressionEncoder(int threshold, int level) {
+        this.threshold = threshold;
+        this.level = level;
+        this.deflater = CompressorPool.acquireDeflater(level);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext context) throws Exception {
+        super.handlerRemoved(context);
+        CompressorPool.releaseDeflater(this.deflater);
+    }
+
+    protected ByteBuf allocateBuffer(ChannelHandlerContext context, ByteBuf msg, boolean preferDirect) {
+        int i = msg.readableBytes();
+        int j = 5 + (i < this.threshold ? i : Math.min(i, 8192));
+        return preferDirect ? context.alloc().ioBuffer(j) : context.alloc().heapBuffer(j);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) throws Exception {
+        if (message instanceof BroadcastPacket broadcastpacket) {
+            ByteBuf bytebuf;
+            try {
+                bytebuf = broadcastpacket.compressed(this, context.alloc());
+            } finally {
+                broadcastpacket.release();
+            }
+
+            context.write(bytebuf, promise);
+        } else {
+            super.write(context, message, promise);
+        }
     }
 
     protected void encode(ChannelHandlerContext p_129452_, ByteBuf p_129453_, ByteBuf p_129454_) {
+        this.compress(p_129453_, p_129454_);
+    }
+
+    void compress(ByteBuf p_129453_, ByteBuf p_129454_) {
         int i = p_129453_.readableBytes();
         if (i > 8388608) {
             throw new IllegalArgumentException("Packet too big (is " + i + ", should be less than 8388608)");
@@ -24,18 +64,31 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
                 VarInt.write(p_129454_, 0);
                 p_129454_.writeBytes(p_129453_);
             } else {
-                byte[] abyte = new byte[i];
-                p_129453_.readBytes(abyte);
-                VarInt.write(p_129454_, abyte.length);
-                this.deflater.setInput(abyte, 0, i);
+                VarInt.write(p_129454_, i);
+                if (p_129453_.nioBufferCount() == 1) {
+                    this.deflater.setInput(p_129453_.nioBuffer());
+                } else {
+                    byte[] abyte = new byte[i];
+                    p_129453_.getBytes(p_129453_.readerIndex(), abyte);
+                    this.deflater.setInput(abyte, 0, i);
+                }
+
                 this.deflater.finish();
 
                 while (!this.deflater.finished()) {
-                    int j = this.deflater.deflate(this.encodeBuf);
-                    p_129454_.writeBytes(this.encodeBuf, 0, j);
+                    p_129454_.ensureWritable(8192);
+                    if (p_129454_.nioBufferCount() == 1) {
+                        int j = p_129454_.writerIndex();
+                        int k = this.deflater.deflate(p_129454_.internalNioBuffer(j, p_129454_.writableBytes()));
+                        p_129454_.writerIndex(j + k);
+                    } else {
+                        int l = this.deflater.deflate(this.encodeBuf);
+                        p_129454_.writeBytes(this.encodeBuf, 0, l);
+                    }
                 }
 
                 this.deflater.reset();
+                p_129453_.skipBytes(i);
             }
         }
     }
@@ -47,4 +100,13 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
     public void setThreshold(int p_129450_) {
         this.threshold = p_129450_;
     }
+
+    public int getLevel() {
+        return this.level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+        this.deflater.setLevel(level);
+    }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelOutboundHandler;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPipeline;
@@ -32,6 +33,7 @@ import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.flow.FlowControlHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.TimeoutException;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.Future;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
@@ -39,6 +41,7 @@ import java.nio.channels.ClosedChannelException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
@@ -70,6 +73,8 @@ import org.slf4j.MarkerFactory;
 public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
     private static final float AVERAGE_PACKETS_SMOOTHING = 0.75F;
     private static final Logger LOGGER = LogUtils.getLogger();
+    private static volatile int defaultCompressionLevel = -1;
+    private static volatile boolean batchPackets;
     public static final Marker ROOT_MARKER = MarkerFactory.getMarker("NETWORK");
     public static final Marker PACKET_MARKER = Util.make(MarkerFactory.getMarker("NETWORK_PACKETS"), p_202569_ -> p_202569_.add(ROOT_MARKER));
     public static final Marker PACKET_RECEIVED_MARKER = Util.make(MarkerFactory.getMarker("PACKET_RECEIVED"), p_202562_ -> p_202562_.add(PACKET_MARKER));
@@ -103,6 +108,9 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
     private float averageSentPackets;
     private int tickCount;
     private boolean handlingFault;
+    private volatile int compressionLevel = defaultCompressionLevel;
+    private final Queue<Connection.PendingPacket> batchedPackets = Queues.newConcurrentLinkedQueue();
+    private final AtomicBoolean batchWriteScheduled = new AtomicBoolean();
     @Nullable
     private volatile DisconnectionDetails delayedDisconnect;
     @Nullable
@@ -221,6 +229,20 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    private ChannelFuture writeConfigurationTask(Object task) {
+        if (this.channel.eventLoop().inEventLoop()) {
+            this.writeBatchedPackets();
+            return this.channel.writeAndFlush(task);
+        } else {
+            ChannelPromise channelpromise = this.channel.newPromise();
+            this.channel.eventLoop().execute(() -> {
+                this.writeBatchedPackets();
+                this.channel.writeAndFlush(task, channelpromise);
+            });
+            return channelpromise;
+        }
+    }
+
     public <T extends PacketListener> void setupInboundProtocol(ProtocolInfo<T> p_333271_, T p_330962_) {
         this.validateListener(p_333271_, p_330962_);
         if (p_333271_.flow() != this.getReceiving()) {
@@ -239,7 +261,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
                 );
             }
 
-            syncAfterConfigurationChange(this.channel.writeAndFlush(unconfiguredpipelinehandler$inboundconfigurationtask));
+            syncAfterConfigurationChange(this.writeConfigurationTask(unconfiguredpipelinehandler$inboundconfigurationtask));
         }
     }
 
@@ -259,7 +281,9 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
             }
 
             boolean flag = p_329145_.id() == ConnectionProtocol.LOGIN;
-            syncAfterConfigurationChange(this.channel.writeAndFlush(unconfiguredpipelinehandler$outboundconfigurationtask.andThen(p_326048_ -> this.sendLoginDisconnect = flag)));
+            syncAfterConfigurationChange(
+                this.writeConfigurationTask(unconfiguredpipelinehandler$outboundconfigurationtask.andThen(p_326048_ -> this.sendLoginDisconnect = flag))
+            );
         }
     }
 
@@ -321,6 +345,15 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    public void send(BroadcastPacket broadcast, boolean flush) {
+        if (broadcast.isShared() && this.isConnected() && !this.isMemoryConnection()) {
+            this.flushQueue();
+            this.sendPacket(broadcast.retain(), null, flush);
+        } else {
+            this.send(broadcast.packet(), null, flush);
+        }
+    }
+
     public void runOnceConnected(Consumer<Connection> p_297681_) {
         if (this.isConnected()) {
             this.flushQueue();
@@ -330,16 +363,19 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
-    private void sendPacket(Packet<?> p_129521_, @Nullable PacketSendListener p_243246_, boolean p_299777_) {
+    private void sendPacket(Object p_129521_, @Nullable PacketSendListener p_243246_, boolean p_299777_) {
         this.sentPackets++;
         if (this.channel.eventLoop().inEventLoop()) {
+            this.writeBatchedPackets();
             this.doSendPacket(p_129521_, p_243246_, p_299777_);
+        } else if (batchPackets) {
+            this.batchedPackets.add(new Connection.PendingPacket(p_129521_, p_243246_, p_299777_));
         } else {
             this.channel.eventLoop().execute(() -> this.doSendPacket(p_129521_, p_243246_, p_299777_));
         }
     }
 
-    private void doSendPacket(Packet<?> p_243260_, @Nullable PacketSendListener p_243290_, boolean p_299937_) {
+    private void doSendPacket(Object p_243260_, @Nullable PacketSendListener p_243290_, boolean p_299937_) {
         ChannelFuture channelfuture = p_299937_ ? this.channel.writeAndFlush(p_243260_) : this.channel.write(p_243260_);
         if (p_243290_ != null) {
             channelfuture.addListener(p_243167_ -> {
@@ -366,14 +402,45 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    public static void configurePacketBatching(boolean batch) {
+        batchPackets = batch;
+    }
+
     private void flush() {
         if (this.channel.eventLoop().inEventLoop()) {
+            this.writeBatchedPackets();
             this.channel.flush();
+        } else if (!this.batchedPackets.isEmpty()) {
+            this.scheduleBatchWrite();
         } else {
             this.channel.eventLoop().execute(() -> this.channel.flush());
         }
     }
 
+    private void scheduleBatchWrite() {
+        if (this.batchWriteScheduled.compareAndSet(false, true)) {
+            this.channel.eventLoop().execute(() -> {
+                this.batchWriteScheduled.set(false);
+                this.writeBatchedPackets();
+                this.channel.flush();
+            });
+        }
+    }
+
+    private void writeBatchedPackets() {
+        Connection.PendingPacket connection$pendingpacket;
+        while ((connection$pendingpacket = this.batchedPackets.poll()) != null) {
+            this.doSendPacket(connection$pendingpacket.packet(), connection$pendingpacket.listener(), connection$pendingpacket.flush());
+        }
+    }
+
+    private void releaseBatchedPackets() {
+        Connection.PendingPacket connection$pendingpacket;
+        while ((connection$pendingpacket = this.batchedPackets.poll()) != null) {
+            ReferenceCountUtil.release(connection$pendingpacket.packet());
+        }
+    }
+
     private void flushQueue() {
         if (this.channel != null && this.channel.isOpen()) {
             synchronized (this.pendingActions) {
@@ -396,7 +463,11 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
 
         if (this.channel != null) {
-            this.channel.flush();
+            if (this.batchedPackets.isEmpty()) {
+                this.channel.flush();
+            } else {
+                this.scheduleBatchWrite();
+            }
         }
 
         if (this.tickCount++ % 20 == 0) {
@@ -437,6 +508,10 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
 
         if (this.isConnected()) {
+            if (!this.batchedPackets.isEmpty()) {
+                this.flush();
+            }
+
             this.channel.close().awaitUninterruptibly();
             this.disconnectionDetails = p_343980_;
         }
@@ -582,6 +657,27 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
     }
 
+    public static void configureDefaultCompressionLevel(int level) {
+        defaultCompressionLevel = level;
+    }
+
+    public void setCompressionLevel(int level) {
+        this.compressionLevel = level;
+        if (this.channel != null) {
+            if (this.channel.eventLoop().inEventLoop()) {
+                this.applyCompressionLevel(level);
+            } else {
+                this.channel.eventLoop().execute(() -> this.applyCompressionLevel(level));
+            }
+        }
+    }
+
+    private void applyCompressionLevel(int level) {
+        if (this.channel.pipeline().get("compress") instanceof CompressionEncoder compressionencoder) {
+            compressionencoder.setLevel(level);
+        }
+    }
+
     public void setupCompression(int p_129485_, boolean p_182682_) {
         if (p_129485_ >= 0) {
             if (this.channel.pipeline().get("decompress") instanceof CompressionDecoder compressiondecoder) {
@@ -593,7 +689,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
             if (this.channel.pipeline().get("compress") instanceof CompressionEncoder compressionencoder) {
                 compressionencoder.setThreshold(p_129485_);
             } else {
-                this.channel.pipeline().addAfter("prepender", "compress", new CompressionEncoder(p_129485_));
+                this.channel.pipeline().addAfter("prepender", "compress", new CompressionEncoder(p_129485_, this.compressionLevel));
             }
         } else {
             if (this.channel.pipeline().get("decompress") instanceof CompressionDecoder) {
@@ -612,6 +708,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
                 LOGGER.warn("handleDisconnection() called twice");
             } else {
                 this.disconnectionHandled = true;
+                this.releaseBatchedPackets();
                 PacketListener packetlistener = this.getPacketListener();
                 PacketListener packetlistener1 = packetlistener != null ? packetlistener : this.disconnectListener;
                 if (packetlistener1 != null) {
@@ -632,7 +729,27 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         return this.averageSentPackets;
     }
 
+    public boolean isChannelWritable() {
+        return this.channel != null && this.channel.isWritable();
+    }
+
+    public long getBytesBeforeUnwritable() {
+        return this.channel != null ? this.channel.bytesBeforeUnwritable() : 0L;
+    }
+
+    public long getPendingWriteBytes() {
+        if (this.channel != null) {
+            ChannelOutboundBuffer channeloutboundbuffer = this.channel.unsafe().outboundBuffer();
+            return channeloutboundbuffer != null ? channeloutboundbuffer.totalPendingWriteBytes() : 0L;
+        } else {
+            return 0L;
+        }
+    }
+
     public void setBandwidthLogger(LocalSampleLogger p_333554_) {
         this.bandwidthDebugMonitor = new BandwidthDebugMonitor(p_333554_);
     }
-}
\ No newline at end of file
+
+    static record PendingPacket(Object packet, @Nullable PacketSendListener listener, boolean flush) {
+    }
+}
@@ -3,6 +3,7 @@ package net.minecraft.network;
 import com.mojang.logging.LogUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.PacketType;
@@ -17,6 +18,42 @@ public class PacketEncoder<T extends PacketListener> extends MessageToByteEncode
         this.protocolInfo = p_327768_;
     }
 
+    @Override
+    public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) throws Exception {
+        if (message instanceof BroadcastPacket broadcastpacket) {
+            boolean flag;
+            try {
+                flag = broadcastpacket.encode(this.protocolInfo, context.alloc());
+            } catch (Throwable throwable) {
+                LOGGER.debug("Failed to encode broadcast packet {} once, encoding it per connection", broadcastpacket.packet().type(), throwable);
+                flag = false;
+            }
+
+            if (flag) {
+                int i = broadcastpacket.encodedSize();
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(
+                        Connection.PACKET_SENT_MARKER,
+                        "OUT: [{}:{}] {} -> {} bytes (shared)",
+                        this.protocolInfo.id().id(),
+                        broadcastpacket.packet().type(),
+                        broadcastpacket.packet().getClass().getName(),
+                        i
+                    );
+                }
+
+                JvmProfiler.INSTANCE.onPacketSent(this.protocolInfo.id(), broadcastpacket.packet().type(), context.channel().remoteAddress(), i);
+                context.write(broadcastpacket, promise);
+            } else {
+                Packet<?> packet = broadcastpacket.packet();
+                broadcastpacket.release();
+                super.write(context, packet, promise);
+            }
+        } else {
+            super.write(context, message, promise);
+        }
+    }
+
     protected void encode(ChannelHandlerContext p_130545_, Packet<T> p_130546_, ByteBuf p_130547_) throws Exception {
         PacketType<? extends Packet<? super T>> packettype = p_130546_.type();
 
@@ -74,7 +74,7 @@ public class UnconfiguredPipelineHandler {
     public static class Outbound extends ChannelOutboundHandlerAdapter {
         @Override
         public void write(ChannelHandlerContext p_331750_, Object p_329073_, ChannelPromise p_329104_) throws Exception {
-            if (p_329073_ instanceof Packet) {
+            if (p_329073_ instanceof Packet || p_329073_ instanceof BroadcastPacket) {
                 ReferenceCountUtil.release(p_329073_);
                 throw new EncoderException("Pipeline has no outbound protocol configured, can't process packet " + p_329073_);
             } else {
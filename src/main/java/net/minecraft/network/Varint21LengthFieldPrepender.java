@@ -2,6 +2,7 @@ package net.minecraft.network;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.handler.codec.EncoderException;
 import io.netty.handler.codec.MessageToByteEncoder;
@@ -10,6 +11,22 @@ import io.netty.handler.codec.MessageToByteEncoder;
 public class Varint21LengthFieldPrepender extends MessageToByteEncoder<ByteBuf> {
     public static final int MAX_VARINT21_BYTES = 3;
 
+    @Override
+    public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) throws Exception {
+        if (message instanceof BroadcastPacket broadcastpacket) {
+            ByteBuf bytebuf;
+            try {
+                bytebuf = broadcastpacket.encoded();
+            } finally {
+                broadcastpacket.release();
+            }
+
+            super.write(context, bytebuf, promise);
+        } else {
+            super.write(context, message, promise);
+        }
+    }
+
     protected void encode(ChannelHandlerContext p_130571_, ByteBuf p_130572_, ByteBuf p_130573_) {
         int i = p_130572_.readableBytes();
         int j = VarInt.getByteSize(i);
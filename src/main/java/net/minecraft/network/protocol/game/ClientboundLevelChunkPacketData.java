@@ -1,7 +1,6 @@
 package net.minecraft.network.protocol.game;
 
 import com.google.common.collect.Lists;
-import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.util.List;
 import java.util.Map.Entry;
@@ -25,7 +24,11 @@ import net.minecraft.world.level.levelgen.Heightmap;
 public class ClientboundLevelChunkPacketData {
     private static final int TWO_MEGABYTES = 2097152;
     private final CompoundTag heightmaps;
-    private final byte[] buffer;
+    @Nullable
+    private volatile byte[] buffer;
+    @Nullable
+    private LevelChunkSection[] sections;
+    private final int bufferSize;
     private final List<ClientboundLevelChunkPacketData.BlockEntityInfo> blockEntitiesData;
 
     public ClientboundLevelChunkPacketData(LevelChunk p_195651_) {
@@ -37,8 +40,8 @@ public class ClientboundLevelChunkPacketData {
             }
         }
 
-        this.buffer = new byte[calculateChunkSize(p_195651_)];
-        extractChunkData(new FriendlyByteBuf(this.getWriteBuffer()), p_195651_);
+        this.sections = p_195651_.getSections();
+        this.bufferSize = calculateChunkSize(p_195651_);
         this.blockEntitiesData = Lists.newArrayList();
 
         for (Entry<BlockPos, BlockEntity> entry1 : p_195651_.getBlockEntities().entrySet()) {
@@ -56,6 +59,7 @@ public class ClientboundLevelChunkPacketData {
                 throw new RuntimeException("Chunk Packet trying to allocate too much memory on read.");
             } else {
                 this.buffer = new byte[i];
+                this.bufferSize = i;
                 p_335775_.readBytes(this.buffer);
                 this.blockEntitiesData = ClientboundLevelChunkPacketData.BlockEntityInfo.LIST_STREAM_CODEC.decode(p_335775_);
             }
@@ -64,8 +68,9 @@ public class ClientboundLevelChunkPacketData {
 
     public void write(RegistryFriendlyByteBuf p_331012_) {
         p_331012_.writeNbt(this.heightmaps);
-        p_331012_.writeVarInt(this.buffer.length);
-        p_331012_.writeBytes(this.buffer);
+        byte[] abyte = this.getBuffer();
+        p_331012_.writeVarInt(abyte.length);
+        p_331012_.writeBytes(abyte);
         ClientboundLevelChunkPacketData.BlockEntityInfo.LIST_STREAM_CODEC.encode(p_331012_, this.blockEntitiesData);
     }
 
@@ -79,10 +84,27 @@ public class ClientboundLevelChunkPacketData {
         return i;
     }
 
-    private ByteBuf getWriteBuffer() {
-        ByteBuf bytebuf = Unpooled.wrappedBuffer(this.buffer);
-        bytebuf.writerIndex(0);
-        return bytebuf;
+    private byte[] getBuffer() {
+        byte[] abyte = this.buffer;
+        if (abyte == null) {
+            synchronized (this) {
+                abyte = this.buffer;
+                if (abyte == null) {
+                    FriendlyByteBuf friendlybytebuf = new FriendlyByteBuf(Unpooled.buffer(this.bufferSize));
+
+                    for (LevelChunkSection levelchunksection : this.sections) {
+                        levelchunksection.writeOptimistically(friendlybytebuf);
+                    }
+
+                    abyte = new byte[friendlybytebuf.readableBytes()];
+                    friendlybytebuf.readBytes(abyte);
+                    this.buffer = abyte;
+                    this.sections = null;
+                }
+            }
+        }
+
+        return abyte;
     }
 
     public static void extractChunkData(FriendlyByteBuf p_195669_, LevelChunk p_195670_) {
@@ -111,7 +133,11 @@ public class ClientboundLevelChunkPacketData {
     }
 
     public FriendlyByteBuf getReadBuffer() {
-        return new FriendlyByteBuf(Unpooled.wrappedBuffer(this.buffer));
+        return new FriendlyByteBuf(Unpooled.wrappedBuffer(this.getBuffer()));
+    }
+
+    public int getBufferSize() {
+        return this.bufferSize;
     }
 
     public CompoundTag getHeightmaps() {
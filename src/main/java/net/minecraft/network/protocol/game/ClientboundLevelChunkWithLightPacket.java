@@ -18,6 +18,9 @@ public class ClientboundLevelChunkWithLightPacket implements Packet<ClientGamePa
     private final int z;
     private final ClientboundLevelChunkPacketData chunkData;
     private final ClientboundLightUpdatePacketData lightData;
+    private boolean cacheEncoding;
+    @Nullable
+    private volatile byte[] encoded;
 
     public ClientboundLevelChunkWithLightPacket(LevelChunk p_285290_, LevelLightEngine p_285254_, @Nullable BitSet p_285350_, @Nullable BitSet p_285304_) {
         ChunkPos chunkpos = p_285290_.getPos();
@@ -35,10 +38,32 @@ public class ClientboundLevelChunkWithLightPacket implements Packet<ClientGamePa
     }
 
     private void write(RegistryFriendlyByteBuf p_327690_) {
-        p_327690_.writeInt(this.x);
-        p_327690_.writeInt(this.z);
-        this.chunkData.write(p_327690_);
-        this.lightData.write(p_327690_);
+        byte[] abyte = this.encoded;
+        if (abyte != null) {
+            p_327690_.writeBytes(abyte);
+        } else {
+            int i = p_327690_.writerIndex();
+            p_327690_.writeInt(this.x);
+            p_327690_.writeInt(this.z);
+            this.chunkData.write(p_327690_);
+            this.lightData.write(p_327690_);
+            if (this.cacheEncoding) {
+                byte[] abyte1 = new byte[p_327690_.writerIndex() - i];
+                p_327690_.getBytes(i, abyte1);
+                this.encoded = abyte1;
+            }
+        }
+    }
+
+    public ClientboundLevelChunkWithLightPacket cacheEncoding() {
+        this.cacheEncoding = true;
+        return this;
+    }
+
+    public int estimateSize() {
+        int i = this.chunkData.getBufferSize() + 8;
+        i += (this.lightData.getSkyUpdates().size() + this.lightData.getBlockUpdates().size()) * 2048;
+        return this.cacheEncoding ? i * 2 : i;
     }
 
     @Override
@@ -69,7 +69,7 @@ public class ClientboundLightUpdatePacketData {
                 p_195747_.set(p_195745_);
             } else {
                 p_195746_.set(p_195745_);
-                p_195748_.add(datalayer.copy().getData());
+                p_195748_.add(datalayer.getDataSnapshot());
             }
         }
     }
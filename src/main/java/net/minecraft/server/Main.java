@@ -31,12 +31,18 @@ import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.NbtException;
 import net.minecraft.nbt.ReportedNbtException;
+import net.minecraft.network.BroadcastPacket;
+import net.minecraft.network.Connection;
 import net.minecraft.network.chat.Component;
 import net.minecraft.obfuscate.DontObfuscate;
 import net.minecraft.server.dedicated.DedicatedServer;
 import net.minecraft.server.dedicated.DedicatedServerProperties;
 import net.minecraft.server.dedicated.DedicatedServerSettings;
+import net.minecraft.server.level.ChunkPacketCache;
+import net.minecraft.server.level.ChunkSaveScheduler;
+import net.minecraft.server.level.ThreadedLevelLightEngine;
 import net.minecraft.server.level.progress.LoggerChunkProgressListener;
+import net.minecraft.server.network.ServerConnectionListener;
 import net.minecraft.server.packs.repository.PackRepository;
 import net.minecraft.server.packs.repository.ServerPacksSource;
 import net.minecraft.util.Mth;
@@ -48,8 +54,11 @@ import net.minecraft.world.flag.FeatureFlags;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.LevelSettings;
 import net.minecraft.world.level.WorldDataConfiguration;
+import net.minecraft.world.level.chunk.storage.IOWorker;
+import net.minecraft.world.level.chunk.storage.RegionFileStorage;
 import net.minecraft.world.level.chunk.storage.RegionFileVersion;
 import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.levelgen.DensityFunctionCompiler;
 import net.minecraft.world.level.levelgen.WorldDimensions;
 import net.minecraft.world.level.levelgen.WorldOptions;
 import net.minecraft.world.level.levelgen.presets.WorldPresets;
@@ -82,6 +91,9 @@ public class Main {
         OptionSpec<String> optionspec12 = optionparser.accepts("serverId").withRequiredArg();
         OptionSpec<Void> optionspec13 = optionparser.accepts("jfrProfile");
         OptionSpec<Path> optionspec14 = optionparser.accepts("pidFile").withRequiredArg().withValuesConvertedBy(new PathConverter());
+        OptionSpec<Integer> optionspec16 = optionparser.accepts("pregenerate", "Generates chunks within the given radius around spawn, then quits")
+            .withRequiredArg()
+            .ofType(Integer.class);
         OptionSpec<String> optionspec15 = optionparser.nonOptions();
 
         try {
@@ -108,6 +120,23 @@ public class Main {
             DedicatedServerSettings dedicatedserversettings = new DedicatedServerSettings(path1);
             dedicatedserversettings.forceSave();
             RegionFileVersion.configure(dedicatedserversettings.getProperties().regionFileComression);
+            RegionFileStorage.configureMappedFiles(dedicatedserversettings.getProperties().regionFileMappedIo);
+            IOWorker.configureShards(dedicatedserversettings.getProperties().regionIoShards);
+            ChunkSaveScheduler.configure(dedicatedserversettings.getProperties().autosaveChunkBudgetMs);
+            RegionFileStorage.configureCache(
+                dedicatedserversettings.getProperties().regionFileCacheSize, (long)dedicatedserversettings.getProperties().regionFileCacheMemoryMb * 1024L * 1024L
+            );
+            ThreadedLevelLightEngine.configureParallelBlockSky(dedicatedserversettings.getProperties().lightEngineParallelBlockSky);
+            ChunkPacketCache.configure((long)dedicatedserversettings.getProperties().chunkPacketCacheMb * 1024L * 1024L);
+            DensityFunctionCompiler.configure(dedicatedserversettings.getProperties().densityFunctionCompiler);
+            Connection.configureDefaultCompressionLevel(dedicatedserversettings.getProperties().networkCompressionLevel);
+            Connection.configurePacketBatching(dedicatedserversettings.getProperties().networkPacketBatching);
+            BroadcastPacket.configure(dedicatedserversettings.getProperties().networkBroadcastEncodeOnce);
+            ServerConnectionListener.configureTransport(
+                dedicatedserversettings.getProperties().networkTransport,
+                dedicatedserversettings.getProperties().networkIoThreads,
+                dedicatedserversettings.getProperties().networkSendBufferSize
+            );
             Path path2 = Paths.get("eula.txt");
             Eula eula = new Eula(path2);
             if (optionset.has(optionspec1)) {
@@ -259,6 +288,10 @@ public class Main {
                     dedicatedserver1.setPort(optionset.valueOf(optionspec11));
                     dedicatedserver1.setDemo(optionset.has(optionspec2));
                     dedicatedserver1.setId(optionset.valueOf(optionspec12));
+                    if (optionset.has(optionspec16)) {
+                        dedicatedserver1.setPregenerationRadius(optionset.valueOf(optionspec16));
+                    }
+
                     boolean flag2 = !optionset.has(optionspec) && !optionset.valuesOf(optionspec15).contains("nogui");
                     if (flag2 && !GraphicsEnvironment.isHeadless()) {
                         dedicatedserver1.showGui();
@@ -217,6 +217,7 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
     private boolean stopped;
     private int tickCount;
     private int ticksUntilAutosave = 6000;
+    private boolean isAutosaving;
     protected final Proxy proxy;
     private boolean onlineMode;
     private boolean preventProxyConnections;
@@ -559,6 +560,10 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
         return flag;
     }
 
+    public boolean isAutosaving() {
+        return this.isAutosaving;
+    }
+
     public boolean saveEverything(boolean p_195515_, boolean p_195516_, boolean p_195517_) {
         boolean flag;
         try {
@@ -907,9 +912,24 @@ public abstract class MinecraftServer extends ReentrantBlockableEventLoop<TickTa
             this.ticksUntilAutosave = this.computeNextAutosaveInterval();
             LOGGER.debug("Autosave started");
             this.profiler.push("save");
-            this.saveEverything(true, false, false);
+
+            try {
+                this.isAutosaving = true;
+                this.saveEverything(true, false, false);
+            } finally {
+                this.isAutosaving = false;
+            }
+
             this.profiler.pop();
-            LOGGER.debug("Autosave finished");
+            if (LOGGER.isDebugEnabled()) {
+                int l = 0;
+
+                for (ServerLevel serverlevel : this.getAllLevels()) {
+                    l += serverlevel.getChunkSource().getSaveBacklog();
+                }
+
+                LOGGER.debug("Autosave finished, {} chunks queued for incremental saving", l);
+            }
         }
 
         this.profiler.push("tallying");
@@ -0,0 +1,125 @@
+package net.minecraft.server.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ChunkPregenerator;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+
+public class PregenCommand {
+    private static final int MAX_RADIUS = 1875000;
+    private static final SimpleCommandExceptionType ERROR_ALREADY_RUNNING = new SimpleCommandExceptionType(
+        Component.translatableWithFallback("commands.pregen.already_running", "Pregeneration is already running in this dimension")
+    );
+    private static final SimpleCommandExceptionType ERROR_NOT_RUNNING = new SimpleCommandExceptionType(
+        Component.translatableWithFallback("commands.pregen.not_running", "Pregeneration is not running in this dimension")
+    );
+    private static final SimpleCommandExceptionType ERROR_NO_CHECKPOINT = new SimpleCommandExceptionType(
+        Component.translatableWithFallback("commands.pregen.no_checkpoint", "No pregeneration checkpoint found for this dimension")
+    );
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(
+            Commands.literal("pregen")
+                .requires(source -> source.hasPermission(4))
+                .then(
+                    Commands.literal("start")
+                        .then(
+                            Commands.argument("radius", IntegerArgumentType.integer(0, MAX_RADIUS))
+                                .executes(
+                                    context -> start(context.getSource(), IntegerArgumentType.getInteger(context, "radius"), ChunkPregenerator.Shape.SQUARE)
+                                )
+                                .then(
+                                    Commands.literal("square")
+                                        .executes(
+                                            context -> start(
+                                                    context.getSource(), IntegerArgumentType.getInteger(context, "radius"), ChunkPregenerator.Shape.SQUARE
+                                                )
+                                        )
+                                )
+                                .then(
+                                    Commands.literal("circle")
+                                        .executes(
+                                            context -> start(
+                                                    context.getSource(), IntegerArgumentType.getInteger(context, "radius"), ChunkPregenerator.Shape.CIRCLE
+                                                )
+                                        )
+                                )
+                        )
+                )
+                .then(Commands.literal("resume").executes(context -> resume(context.getSource())))
+                .then(Commands.literal("stop").executes(context -> stop(context.getSource())))
+                .then(Commands.literal("status").executes(context -> status(context.getSource())))
+        );
+    }
+
+    private static int start(CommandSourceStack source, int radius, ChunkPregenerator.Shape shape) throws CommandSyntaxException {
+        ChunkPos chunkpos = new ChunkPos(BlockPos.containing(source.getPosition()));
+        ChunkPregenerator.Area chunkpregenerator$area = new ChunkPregenerator.Area(chunkpos.x, chunkpos.z, radius, shape);
+        ChunkPregenerator.Checkpoint chunkpregenerator$checkpoint = ChunkPregenerator.loadCheckpoint(source.getLevel());
+        long i = chunkpregenerator$checkpoint != null && chunkpregenerator$checkpoint.area().equals(chunkpregenerator$area) ? chunkpregenerator$checkpoint.tile() : 0L;
+        return begin(source, chunkpregenerator$area, i);
+    }
+
+    private static int resume(CommandSourceStack source) throws CommandSyntaxException {
+        ChunkPregenerator.Checkpoint chunkpregenerator$checkpoint = ChunkPregenerator.loadCheckpoint(source.getLevel());
+        if (chunkpregenerator$checkpoint == null) {
+            throw ERROR_NO_CHECKPOINT.create();
+        } else {
+            return begin(source, chunkpregenerator$checkpoint.area(), chunkpregenerator$checkpoint.tile());
+        }
+    }
+
+    private static int begin(CommandSourceStack source, ChunkPregenerator.Area area, long firstTile) throws CommandSyntaxException {
+        ServerLevel serverlevel = source.getLevel();
+        ServerChunkCache serverchunkcache = serverlevel.getChunkSource();
+        if (serverchunkcache.getPregenerator() != null) {
+            throw ERROR_ALREADY_RUNNING.create();
+        } else {
+            ChunkPregenerator chunkpregenerator = new ChunkPregenerator(
+                serverlevel, area, firstTile, () -> source.sendSuccess(() -> Component.translatableWithFallback("commands.pregen.finished", "Pregeneration finished"), true)
+            );
+            serverchunkcache.startPregeneration(chunkpregenerator);
+            source.sendSuccess(
+                () -> Component.translatableWithFallback(
+                        "commands.pregen.started",
+                        "Pregenerating a %s of radius %s chunks around %s, %s from region %s",
+                        area.shape().getSerializedName(), area.radius(), area.centerX(), area.centerZ(), firstTile
+                    ),
+                true
+            );
+            return 1;
+        }
+    }
+
+    private static int stop(CommandSourceStack source) throws CommandSyntaxException {
+        if (!source.getLevel().getChunkSource().stopPregeneration()) {
+            throw ERROR_NOT_RUNNING.create();
+        } else {
+            source.sendSuccess(() -> Component.translatableWithFallback("commands.pregen.stopped", "Pregeneration stopped, progress saved"), true);
+            return 1;
+        }
+    }
+
+    private static int status(CommandSourceStack source) throws CommandSyntaxException {
+        ChunkPregenerator chunkpregenerator = source.getLevel().getChunkSource().getPregenerator();
+        if (chunkpregenerator == null) {
+            throw ERROR_NOT_RUNNING.create();
+        } else {
+            source.sendSuccess(() -> Component.translatableWithFallback("commands.pregen.status", "Pregeneration: %s", chunkpregenerator.describeProgress()), false);
+
+            for (String s : chunkpregenerator.describeTimings()) {
+                source.sendSuccess(() -> Component.literal("  " + s), false);
+            }
+
+            return (int)Math.min(chunkpregenerator.getCompletedTiles(), (long)Integer.MAX_VALUE);
+        }
+    }
+}
@@ -34,6 +34,7 @@ import net.minecraft.server.ServerLinks;
 import net.minecraft.server.Services;
 import net.minecraft.server.WorldStem;
 import net.minecraft.server.gui.MinecraftServerGui;
+import net.minecraft.server.level.ChunkPregenerator;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.progress.ChunkProgressListenerFactory;
@@ -53,6 +54,7 @@ import net.minecraft.util.debugchart.SampleLogger;
 import net.minecraft.util.debugchart.TpsDebugDimensions;
 import net.minecraft.util.monitoring.jmx.MinecraftServerStatistics;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.GameType;
 import net.minecraft.world.level.Level;
@@ -80,6 +82,7 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
     @Nullable
     private DebugSampleSubscriptionTracker debugSampleSubscriptionTracker;
     private final ServerLinks serverLinks;
+    private int pregenerationRadius = -1;
 
     public DedicatedServer(
         Thread p_214789_,
@@ -215,10 +218,30 @@ public class DedicatedServer extends MinecraftServer implements ServerInterface
                 LOGGER.info("JMX monitoring enabled");
             }
 
+            if (this.pregenerationRadius >= 0) {
+                this.startPregeneration();
+            }
+
             return true;
         }
     }
 
+    public void setPregenerationRadius(int radius) {
+        this.pregenerationRadius = radius;
+    }
+
+    private void startPregeneration() {
+        ServerLevel serverlevel = this.overworld();
+        ChunkPos chunkpos = new ChunkPos(serverlevel.getSharedSpawnPos());
+        ChunkPregenerator.Area chunkpregenerator$area = new ChunkPregenerator.Area(
+            chunkpos.x, chunkpos.z, this.pregenerationRadius, ChunkPregenerator.Shape.SQUARE
+        );
+        ChunkPregenerator.Checkpoint chunkpregenerator$checkpoint = ChunkPregenerator.loadCheckpoint(serverlevel);
+        long i = chunkpregenerator$checkpoint != null && chunkpregenerator$checkpoint.area().equals(chunkpregenerator$area) ? chunkpregenerator$checkpoint.tile() : 0L;
+        LOGGER.info("Pregenerating {} chunks around spawn, starting at region {}", this.pregenerationRadius, i);
+        serverlevel.getChunkSource().startPregeneration(new ChunkPregenerator(serverlevel, chunkpregenerator$area, i, () -> this.halt(false)));
+    }
+
     @Override
     public boolean isSpawningAnimals() {
         return this.getProperties().spawnAnimals && super.isSpawningAnimals();
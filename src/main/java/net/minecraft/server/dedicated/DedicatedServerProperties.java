@@ -84,11 +84,25 @@ public class DedicatedServerProperties extends Settings<DedicatedServerPropertie
     public final int simulationDistance = this.get("simulation-distance", 10);
     public final int maxPlayers = this.get("max-players", 20);
     public final int networkCompressionThreshold = this.get("network-compression-threshold", 256);
+    public final boolean networkPacketBatching = this.get("network-packet-batching", false);
+    public final boolean networkBroadcastEncodeOnce = this.get("network-broadcast-encode-once", true);
+    public final int networkCompressionLevel = this.get("network-compression-level", p_139771_ -> Mth.clamp(p_139771_, -1, 9), -1);
+    public final String networkTransport = this.get("network-transport", "auto");
+    public final int networkIoThreads = this.get("network-io-threads", p_139771_ -> Mth.clamp(p_139771_, 0, 256), 0);
+    public final int networkSendBufferSize = this.get("network-send-buffer-size", p_139771_ -> Math.max(p_139771_, 0), 0);
     public final boolean broadcastRconToOps = this.get("broadcast-rcon-to-ops", true);
     public final boolean broadcastConsoleToOps = this.get("broadcast-console-to-ops", true);
     public final int maxWorldSize = this.get("max-world-size", p_139771_ -> Mth.clamp(p_139771_, 1, 29999984), 29999984);
     public final boolean syncChunkWrites = this.get("sync-chunk-writes", true);
     public final String regionFileComression = this.get("region-file-compression", "deflate");
+    public final boolean regionFileMappedIo = this.get("region-file-mapped-io", false);
+    public final int regionIoShards = this.get("region-io-shards", p_139771_ -> Mth.clamp(p_139771_, 1, 64), 1);
+    public final int regionFileCacheSize = this.get("region-file-cache-size", p_139771_ -> Mth.clamp(p_139771_, 1, 4096), 256);
+    public final int autosaveChunkBudgetMs = this.get("autosave-chunk-budget-ms", p_139771_ -> Mth.clamp(p_139771_, 0, 50), 5);
+    public final int regionFileCacheMemoryMb = this.get("region-file-cache-memory-mb", p_139771_ -> Math.max(p_139771_, 0), 0);
+    public final boolean lightEngineParallelBlockSky = this.get("light-engine-parallel-block-sky", false);
+    public final int chunkPacketCacheMb = this.get("chunk-packet-cache-mb", p_139771_ -> Math.max(p_139771_, 0), 64);
+    public final boolean densityFunctionCompiler = this.get("density-function-compiler", true);
     public final boolean enableJmxMonitoring = this.get("enable-jmx-monitoring", false);
     public final boolean enableStatus = this.get("enable-status", true);
     public final boolean hideOnlinePlayers = this.get("hide-online-players", false);
@@ -47,6 +47,7 @@ public class ChunkHolder extends GenerationChunkHolder {
     private final ChunkHolder.LevelChangeListener onLevelChange;
     private final ChunkHolder.PlayerProvider playerProvider;
     private boolean wasAccessibleSinceLastSave;
+    private int chunkDataVersion;
     private CompletableFuture<?> pendingFullStateConfirmation = CompletableFuture.completedFuture(null);
     private CompletableFuture<?> sendSync = CompletableFuture.completedFuture(null);
     private CompletableFuture<?> saveSync = CompletableFuture.completedFuture(null);
@@ -122,6 +123,7 @@ public class ChunkHolder extends GenerationChunkHolder {
     }
 
     public void blockChanged(BlockPos p_140057_) {
+        this.chunkDataVersion++;
         LevelChunk levelchunk = this.getTickingChunk();
         if (levelchunk != null) {
             int i = this.levelHeightAccessor.getSectionIndex(p_140057_.getY());
@@ -135,6 +137,7 @@ public class ChunkHolder extends GenerationChunkHolder {
     }
 
     public void sectionLightChanged(LightLayer p_140037_, int p_140038_) {
+        this.chunkDataVersion++;
         ChunkAccess chunkaccess = this.getChunkIfPresent(ChunkStatus.INITIALIZE_LIGHT);
         if (chunkaccess != null) {
             chunkaccess.setUnsaved(true);
@@ -154,6 +157,14 @@ public class ChunkHolder extends GenerationChunkHolder {
         }
     }
 
+    public void markChunkDataChanged() {
+        this.chunkDataVersion++;
+    }
+
+    public int getChunkDataVersion() {
+        return this.chunkDataVersion;
+    }
+
     public void broadcastChanges(LevelChunk p_140055_) {
         if (this.hasChangedSections || !this.skyChangedLightSectionFilter.isEmpty() || !this.blockChangedLightSectionFilter.isEmpty()) {
             Level level = p_140055_.getLevel();
@@ -21,10 +21,14 @@ import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap.Entry;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -50,11 +54,14 @@ import net.minecraft.ReportedException;
 import net.minecraft.Util;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtException;
+import net.minecraft.network.BroadcastPacket;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundChunksBiomesPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
 import net.minecraft.network.protocol.game.ClientboundSetChunkCacheCenterPacket;
 import net.minecraft.server.level.progress.ChunkProgressListener;
 import net.minecraft.server.network.ServerPlayerConnection;
@@ -86,6 +93,7 @@ import net.minecraft.world.level.chunk.status.WorldGenContext;
 import net.minecraft.world.level.chunk.storage.ChunkSerializer;
 import net.minecraft.world.level.chunk.storage.ChunkStorage;
 import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import net.minecraft.world.level.chunk.storage.SerializableChunkData;
 import net.minecraft.world.level.entity.ChunkStatusUpdateListener;
 import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
 import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
@@ -134,8 +142,14 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     private final String storageName;
     private final PlayerMap playerMap = new PlayerMap();
     private final Int2ObjectMap<ChunkMap.TrackedEntity> entityMap = new Int2ObjectOpenHashMap<>();
+    private final EntityTrackerGrid<ServerPlayer> trackedPlayerGrid = new EntityTrackerGrid<>();
+    private final EntityTrackerGrid<ChunkMap.TrackedEntity> trackedEntityGrid = new EntityTrackerGrid<>();
+    private final Map<ServerPlayer, Set<ChunkMap.TrackedEntity>> entitiesSeenByPlayer = new Reference2ObjectOpenHashMap<>();
+    private final int maxEntityTrackingRange;
     private final Long2ByteMap chunkTypeCache = new Long2ByteOpenHashMap();
     private final Long2LongMap chunkSaveCooldowns = new Long2LongOpenHashMap();
+    private final ChunkSaveScheduler saveScheduler;
+    private final ChunkPacketCache chunkPacketCache;
     private final Queue<Runnable> unloadQueue = Queues.newConcurrentLinkedQueue();
     private int serverViewDistance;
     private final WorldGenContext worldGenContext;
@@ -163,6 +177,9 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         );
         Path path = p_214837_.getDimensionPath(p_214836_.dimension());
         this.storageName = path.getFileName().toString();
+        this.maxEntityTrackingRange = BuiltInRegistries.ENTITY_TYPE.stream().mapToInt(EntityType::clientTrackingRange).max().orElse(0) * 16;
+        this.saveScheduler = new ChunkSaveScheduler("chunk-save-" + this.storageName, this::saveScheduledChunk);
+        this.chunkPacketCache = new ChunkPacketCache("chunk-packet-cache-" + this.storageName);
         this.level = p_214836_;
         RegistryAccess registryaccess = p_214836_.registryAccess();
         long i = p_214836_.getSeed();
@@ -420,12 +437,24 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             } while (mutableboolean.isTrue());
 
             this.processUnloads(() -> true);
+            this.saveScheduler.clear();
             this.flushWorker();
+        } else if (ChunkSaveScheduler.isEnabled() && this.level.getServer().isAutosaving()) {
+            for (ChunkHolder chunkholder : this.visibleChunkMap.values()) {
+                if (chunkholder.wasAccessibleSinceLastSave()) {
+                    long i = chunkholder.getPos().toLong();
+                    this.saveScheduler.schedule(i, this.chunkSaveCooldowns.getOrDefault(i, -1L));
+                }
+            }
         } else {
             this.visibleChunkMap.values().forEach(this::saveChunkIfNeeded);
         }
     }
 
+    public int getSaveBacklog() {
+        return this.saveScheduler.getBacklog();
+    }
+
     protected void tick(BooleanSupplier p_140281_) {
         ProfilerFiller profilerfiller = this.level.getProfiler();
         profilerfiller.push("poi");
@@ -433,6 +462,8 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         profilerfiller.popPush("chunk_unload");
         if (!this.level.noSave()) {
             this.processUnloads(p_140281_);
+            profilerfiller.popPush("chunk_save");
+            this.saveScheduler.tick(this.toDrop);
         }
 
         profilerfiller.pop();
@@ -505,6 +536,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                         this.level.unload(levelchunk1);
                     }
 
+                    this.chunkPacketCache.remove(p_140182_);
                     this.lightEngine.updateChunkStatus(chunkaccess.getPos());
                     this.lightEngine.tryScheduleUpdate();
                     this.progressListener.onStatusChange(chunkaccess.getPos(), null);
@@ -696,7 +728,16 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         return this.tickingGenerated.get();
     }
 
+    private boolean saveScheduledChunk(long pos) {
+        ChunkHolder chunkholder = this.visibleChunkMap.get(pos);
+        return chunkholder != null && this.saveChunkIfNeeded(chunkholder, true);
+    }
+
     private boolean saveChunkIfNeeded(ChunkHolder p_198875_) {
+        return this.saveChunkIfNeeded(p_198875_, false);
+    }
+
+    private boolean saveChunkIfNeeded(ChunkHolder p_198875_, boolean ignoreCooldown) {
         if (p_198875_.wasAccessibleSinceLastSave() && p_198875_.isReadyForSaving()) {
             ChunkAccess chunkaccess = p_198875_.getLatestChunk();
             if (!(chunkaccess instanceof ImposterProtoChunk) && !(chunkaccess instanceof LevelChunk)) {
@@ -705,7 +746,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 long i = chunkaccess.getPos().toLong();
                 long j = this.chunkSaveCooldowns.getOrDefault(i, -1L);
                 long k = System.currentTimeMillis();
-                if (k < j) {
+                if (!ignoreCooldown && k < j) {
                     return false;
                 } else {
                     boolean flag = this.save(chunkaccess);
@@ -743,8 +784,9 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 }
 
                 this.level.getProfiler().incrementCounter("chunkSave");
-                CompoundTag compoundtag = ChunkSerializer.write(this.level, p_140259_);
-                this.write(chunkpos, compoundtag).exceptionally(p_341222_ -> {
+                SerializableChunkData serializablechunkdata = SerializableChunkData.copyOf(this.level, p_140259_);
+                CompletableFuture<CompoundTag> completablefuture = CompletableFuture.supplyAsync(serializablechunkdata::write, Util.backgroundExecutor());
+                this.write(chunkpos, completablefuture).exceptionally(p_341222_ -> {
                     this.level.getServer().reportChunkSaveFailure(p_341222_, this.storageInfo(), chunkpos);
                     return null;
                 });
@@ -811,6 +853,13 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         p_300364_.connection.chunkSender.dropChunk(p_300364_, p_299541_);
     }
 
+    public ClientboundLevelChunkWithLightPacket getChunkPacket(LevelChunk chunk) {
+        ChunkHolder chunkholder = this.getVisibleChunkIfPresent(chunk.getPos().toLong());
+        return chunkholder == null
+            ? new ClientboundLevelChunkWithLightPacket(chunk, this.lightEngine, null, null)
+            : this.chunkPacketCache.getOrCreate(chunkholder, chunk, this.lightEngine);
+    }
+
     @Nullable
     public LevelChunk getChunkToSend(long p_299683_) {
         ChunkHolder chunkholder = this.getVisibleChunkIfPresent(p_299683_);
@@ -975,9 +1024,16 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     }
 
     public void move(ServerPlayer p_140185_) {
-        for (ChunkMap.TrackedEntity chunkmap$trackedentity : this.entityMap.values()) {
+        this.trackedPlayerGrid.update(p_140185_, p_140185_.chunkPosition().toLong());
+        Collection<ChunkMap.TrackedEntity> collection = this.getTrackedEntityCandidates(p_140185_);
+        ChunkMap.TrackedEntity chunkmap$trackedentity1 = this.entityMap.get(p_140185_.getId());
+        if (chunkmap$trackedentity1 != null) {
+            collection.add(chunkmap$trackedentity1);
+        }
+
+        for (ChunkMap.TrackedEntity chunkmap$trackedentity : collection) {
             if (chunkmap$trackedentity.entity == p_140185_) {
-                chunkmap$trackedentity.updatePlayers(this.level.players());
+                chunkmap$trackedentity.updatePlayers(this.getTrackingPlayerCandidates(chunkmap$trackedentity));
             } else {
                 chunkmap$trackedentity.updatePlayer(p_140185_);
             }
@@ -1071,11 +1127,13 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 } else {
                     ChunkMap.TrackedEntity chunkmap$trackedentity = new ChunkMap.TrackedEntity(p_140200_, i, j, entitytype.trackDeltas());
                     this.entityMap.put(p_140200_.getId(), chunkmap$trackedentity);
-                    chunkmap$trackedentity.updatePlayers(this.level.players());
+                    this.trackedEntityGrid.update(chunkmap$trackedentity, chunkmap$trackedentity.lastSectionPos.chunk().toLong());
+                    chunkmap$trackedentity.updatePlayers(this.getTrackingPlayerCandidates(chunkmap$trackedentity));
                     if (p_140200_ instanceof ServerPlayer serverplayer) {
                         this.updatePlayerStatus(serverplayer, true);
+                        this.trackedPlayerGrid.update(serverplayer, serverplayer.chunkPosition().toLong());
 
-                        for (ChunkMap.TrackedEntity chunkmap$trackedentity1 : this.entityMap.values()) {
+                        for (ChunkMap.TrackedEntity chunkmap$trackedentity1 : this.getTrackedEntityCandidates(serverplayer)) {
                             if (chunkmap$trackedentity1.entity != serverplayer) {
                                 chunkmap$trackedentity1.updatePlayer(serverplayer);
                             }
@@ -1089,38 +1147,84 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     protected void removeEntity(Entity p_140332_) {
         if (p_140332_ instanceof ServerPlayer serverplayer) {
             this.updatePlayerStatus(serverplayer, false);
-
-            for (ChunkMap.TrackedEntity chunkmap$trackedentity : this.entityMap.values()) {
-                chunkmap$trackedentity.removePlayer(serverplayer);
+            this.trackedPlayerGrid.remove(serverplayer);
+            Set<ChunkMap.TrackedEntity> set = this.entitiesSeenByPlayer.remove(serverplayer);
+            if (set != null) {
+                for (ChunkMap.TrackedEntity chunkmap$trackedentity : set) {
+                    chunkmap$trackedentity.removePlayer(serverplayer);
+                }
             }
         }
 
         ChunkMap.TrackedEntity chunkmap$trackedentity1 = this.entityMap.remove(p_140332_.getId());
         if (chunkmap$trackedentity1 != null) {
+            this.trackedEntityGrid.remove(chunkmap$trackedentity1);
             chunkmap$trackedentity1.broadcastRemoved();
         }
     }
 
+    private Collection<ServerPlayer> getTrackingPlayerCandidates(ChunkMap.TrackedEntity trackedEntity) {
+        Set<ServerPlayer> set = new ReferenceLinkedOpenHashSet<>();
+        ChunkPos chunkpos = trackedEntity.entity.chunkPosition();
+        int i = SectionPos.blockToSectionCoord(trackedEntity.getEffectiveRange()) + 1;
+        this.trackedPlayerGrid.forEachInRadius(chunkpos.x, chunkpos.z, i, set::add);
+
+        for (ServerPlayerConnection serverplayerconnection : trackedEntity.seenBy) {
+            set.add(serverplayerconnection.getPlayer());
+        }
+
+        return set;
+    }
+
+    private Collection<ChunkMap.TrackedEntity> getTrackedEntityCandidates(ServerPlayer player) {
+        Set<ChunkMap.TrackedEntity> set = new ReferenceLinkedOpenHashSet<>();
+        ChunkPos chunkpos = player.chunkPosition();
+        int i = SectionPos.blockToSectionCoord(this.level.getServer().getScaledTrackingDistance(this.maxEntityTrackingRange));
+        int j = Math.min(this.getPlayerViewDistance(player), i) + 2;
+        this.trackedEntityGrid.forEachInRadius(chunkpos.x, chunkpos.z, j, set::add);
+        Set<ChunkMap.TrackedEntity> set1 = this.entitiesSeenByPlayer.get(player);
+        if (set1 != null) {
+            set.addAll(set1);
+        }
+
+        return set;
+    }
+
+    void onStartedTracking(ServerPlayer player, ChunkMap.TrackedEntity trackedEntity) {
+        this.entitiesSeenByPlayer.computeIfAbsent(player, key -> new ReferenceOpenHashSet<>()).add(trackedEntity);
+    }
+
+    void onStoppedTracking(ServerPlayer player, ChunkMap.TrackedEntity trackedEntity) {
+        Set<ChunkMap.TrackedEntity> set = this.entitiesSeenByPlayer.get(player);
+        if (set != null && set.remove(trackedEntity) && set.isEmpty()) {
+            this.entitiesSeenByPlayer.remove(player);
+        }
+    }
+
     protected void tick() {
         for (ServerPlayer serverplayer : this.playerMap.getAllPlayers()) {
             this.updateChunkTracking(serverplayer);
         }
 
         List<ServerPlayer> list = Lists.newArrayList();
-        List<ServerPlayer> list1 = this.level.players();
+
+        for (ServerPlayer serverplayer1 : this.level.players()) {
+            this.trackedPlayerGrid.update(serverplayer1, serverplayer1.chunkPosition().toLong());
+        }
 
         for (ChunkMap.TrackedEntity chunkmap$trackedentity : this.entityMap.values()) {
             SectionPos sectionpos = chunkmap$trackedentity.lastSectionPos;
             SectionPos sectionpos1 = SectionPos.of(chunkmap$trackedentity.entity);
             boolean flag = !Objects.equals(sectionpos, sectionpos1);
             if (flag) {
-                chunkmap$trackedentity.updatePlayers(list1);
+                chunkmap$trackedentity.updatePlayers(this.getTrackingPlayerCandidates(chunkmap$trackedentity));
                 Entity entity = chunkmap$trackedentity.entity;
                 if (entity instanceof ServerPlayer) {
                     list.add((ServerPlayer)entity);
                 }
 
                 chunkmap$trackedentity.lastSectionPos = sectionpos1;
+                this.trackedEntityGrid.update(chunkmap$trackedentity, sectionpos1.chunk().toLong());
             }
 
             if (flag || this.distanceManager.inEntityTickingRange(sectionpos1.chunk().toLong())) {
@@ -1128,9 +1232,9 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             }
         }
 
-        if (!list.isEmpty()) {
-            for (ChunkMap.TrackedEntity chunkmap$trackedentity1 : this.entityMap.values()) {
-                chunkmap$trackedentity1.updatePlayers(list);
+        for (ServerPlayer serverplayer2 : list) {
+            for (ChunkMap.TrackedEntity chunkmap$trackedentity1 : this.getTrackedEntityCandidates(serverplayer2)) {
+                chunkmap$trackedentity1.updatePlayer(serverplayer2);
             }
         }
     }
@@ -1161,6 +1265,11 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 levelchunk = this.level.getChunk(chunkpos.x, chunkpos.z);
             }
 
+            ChunkHolder chunkholder = this.getVisibleChunkIfPresent(chunkpos.toLong());
+            if (chunkholder != null) {
+                chunkholder.markChunkDataChanged();
+            }
+
             for (ServerPlayer serverplayer : this.getPlayers(chunkpos, false)) {
                 map.computeIfAbsent(serverplayer, p_274834_ -> new ArrayList<>()).add(levelchunk);
             }
@@ -1219,7 +1328,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         final Entity entity;
         private final int range;
         SectionPos lastSectionPos;
-        private final Set<ServerPlayerConnection> seenBy = Sets.newIdentityHashSet();
+        final Set<ServerPlayerConnection> seenBy = Sets.newIdentityHashSet();
 
         public TrackedEntity(final Entity p_140478_, final int p_140479_, final int p_140480_, final boolean p_140481_) {
             this.serverEntity = new ServerEntity(ChunkMap.this.level, p_140478_, p_140480_, p_140481_, this::broadcast);
@@ -1239,8 +1348,14 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
 
         public void broadcast(Packet<?> p_140490_) {
-            for (ServerPlayerConnection serverplayerconnection : this.seenBy) {
-                serverplayerconnection.send(p_140490_);
+            BroadcastPacket broadcastpacket = BroadcastPacket.of(p_140490_, this.seenBy.size());
+
+            try {
+                for (ServerPlayerConnection serverplayerconnection : this.seenBy) {
+                    serverplayerconnection.send(broadcastpacket);
+                }
+            } finally {
+                broadcastpacket.release();
             }
         }
 
@@ -1254,12 +1369,14 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         public void broadcastRemoved() {
             for (ServerPlayerConnection serverplayerconnection : this.seenBy) {
                 this.serverEntity.removePairing(serverplayerconnection.getPlayer());
+                ChunkMap.this.onStoppedTracking(serverplayerconnection.getPlayer(), this);
             }
         }
 
         public void removePlayer(ServerPlayer p_140486_) {
             if (this.seenBy.remove(p_140486_.connection)) {
                 this.serverEntity.removePairing(p_140486_);
+                ChunkMap.this.onStoppedTracking(p_140486_, this);
             }
         }
 
@@ -1276,9 +1393,11 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 if (flag) {
                     if (this.seenBy.add(p_140498_.connection)) {
                         this.serverEntity.addPairing(p_140498_);
+                        ChunkMap.this.onStartedTracking(p_140498_, this);
                     }
                 } else if (this.seenBy.remove(p_140498_.connection)) {
                     this.serverEntity.removePairing(p_140498_);
+                    ChunkMap.this.onStoppedTracking(p_140498_, this);
                 }
             }
         }
@@ -1300,7 +1419,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
             return this.scaledRange(i);
         }
 
-        public void updatePlayers(List<ServerPlayer> p_140488_) {
+        public void updatePlayers(Collection<ServerPlayer> p_140488_) {
             for (ServerPlayer serverplayer : p_140488_) {
                 this.updatePlayer(serverplayer);
             }
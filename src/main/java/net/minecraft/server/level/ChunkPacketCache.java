@@ -0,0 +1,97 @@
+package net.minecraft.server.level;
+
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import java.util.List;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+
+public class ChunkPacketCache implements ProfilerMeasured {
+    private static final long DEFAULT_MAX_BYTES = 67108864L;
+    private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+    private final String name;
+    private final Long2ObjectLinkedOpenHashMap<ChunkPacketCache.Entry> entries = new Long2ObjectLinkedOpenHashMap<>();
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    public ChunkPacketCache(String name) {
+        this.name = name;
+        MetricsRegistry.INSTANCE.add(this);
+    }
+
+    public static void configure(long bytes) {
+        maxBytes = Math.max(bytes, 0L);
+    }
+
+    public ClientboundLevelChunkWithLightPacket getOrCreate(ChunkHolder holder, LevelChunk chunk, LevelLightEngine lightEngine) {
+        long i = maxBytes;
+        if (i <= 0L) {
+            if (!this.entries.isEmpty()) {
+                this.clear();
+            }
+
+            return new ClientboundLevelChunkWithLightPacket(chunk, lightEngine, null, null);
+        } else {
+            long j = chunk.getPos().toLong();
+            int k = holder.getChunkDataVersion();
+            ChunkPacketCache.Entry chunkpacketcache$entry = this.entries.getAndMoveToLast(j);
+            if (chunkpacketcache$entry != null) {
+                if (chunkpacketcache$entry.chunk == chunk && chunkpacketcache$entry.version == k) {
+                    this.hits++;
+                    return chunkpacketcache$entry.packet;
+                }
+
+                this.remove(j);
+            }
+
+            this.misses++;
+            ClientboundLevelChunkWithLightPacket clientboundlevelchunkwithlightpacket = new ClientboundLevelChunkWithLightPacket(chunk, lightEngine, null, null)
+                .cacheEncoding();
+            ChunkPacketCache.Entry chunkpacketcache$entry1 = new ChunkPacketCache.Entry(
+                chunk, k, clientboundlevelchunkwithlightpacket, (long)clientboundlevelchunkwithlightpacket.estimateSize()
+            );
+            this.entries.putAndMoveToLast(j, chunkpacketcache$entry1);
+            this.totalBytes = this.totalBytes + chunkpacketcache$entry1.size;
+
+            while (this.totalBytes > i && this.entries.size() > 1) {
+                this.totalBytes = this.totalBytes - this.entries.removeFirst().size;
+            }
+
+            return clientboundlevelchunkwithlightpacket;
+        }
+    }
+
+    public void remove(long chunkPos) {
+        ChunkPacketCache.Entry chunkpacketcache$entry = this.entries.remove(chunkPos);
+        if (chunkpacketcache$entry != null) {
+            this.totalBytes = this.totalBytes - chunkpacketcache$entry.size;
+        }
+    }
+
+    public void clear() {
+        this.entries.clear();
+        this.totalBytes = 0L;
+    }
+
+    public double getHitRate() {
+        long i = this.hits + this.misses;
+        return i == 0L ? 0.0 : (double)this.hits / (double)i;
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        return ImmutableList.of(
+            MetricSampler.create(this.name + "-hit-rate", MetricCategory.NETWORK, this::getHitRate),
+            MetricSampler.create(this.name + "-bytes", MetricCategory.NETWORK, () -> (double)this.totalBytes)
+        );
+    }
+
+    static record Entry(LevelChunk chunk, int version, ClientboundLevelChunkWithLightPacket packet, long size) {
+    }
+}
@@ -0,0 +1,466 @@
+package net.minecraft.server.level;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import net.minecraft.Util;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.util.StaticCache2D;
+import net.minecraft.util.StringRepresentable;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkGenerationTimings;
+import net.minecraft.world.level.chunk.status.ChunkPyramid;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.chunk.status.ChunkStep;
+import net.minecraft.world.level.chunk.storage.ChunkSerializer;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+import org.slf4j.Logger;
+
+public class ChunkPregenerator {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int TILE_SIZE = 32;
+    private static final int CHUNKS_PER_TILE = 1024;
+    private static final ChunkStatus TARGET_STATUS = ChunkStatus.FEATURES;
+    private static final ChunkStep TARGET_STEP = ChunkPyramid.GENERATION_PYRAMID.getStepTo(TARGET_STATUS);
+    private static final int TILE_MARGIN = TARGET_STEP.getAccumulatedRadiusOf(ChunkStatus.EMPTY);
+    private static final int TILE_SPAN = TILE_SIZE + 2 * TILE_MARGIN;
+    private static final int HOLDER_TICKET_LEVEL = ChunkLevel.byStatus(TARGET_STATUS);
+    private static final long CHECKPOINT_INTERVAL_NANOS = 10000000000L;
+    private static final long REPORT_INTERVAL_NANOS = 30000000000L;
+    private static final String CHECKPOINT_FILE = "pregeneration.dat";
+    private final ServerLevel level;
+    private final ChunkMap chunkMap;
+    private final ChunkPregenerator.Area area;
+    private final Runnable onFinished;
+    private final long tileCount;
+    private long completedTiles;
+    @Nullable
+    private CompletableFuture<ChunkPregenerator.TileResult> currentTile;
+    private volatile boolean stopping;
+    private long generatedChunks;
+    private long failedChunks;
+    private final long startNanos;
+    private long lastCheckpointNanos;
+    private long lastReportNanos;
+    private final ChunkGenerationTimings.Snapshot startTimings;
+    private boolean finished;
+
+    public ChunkPregenerator(ServerLevel level, ChunkPregenerator.Area area, long firstTile, Runnable onFinished) {
+        this.level = level;
+        this.chunkMap = level.getChunkSource().chunkMap;
+        this.area = area;
+        this.onFinished = onFinished;
+        this.tileCount = area.tileCount();
+        this.completedTiles = Math.min(Math.max(firstTile, 0L), this.tileCount);
+        this.startNanos = Util.getNanos();
+        this.lastCheckpointNanos = this.startNanos;
+        this.lastReportNanos = this.startNanos;
+        this.startTimings = ChunkGenerationTimings.snapshot();
+    }
+
+    public ChunkPregenerator.Area area() {
+        return this.area;
+    }
+
+    public boolean tick() {
+        if (this.finished) {
+            return true;
+        } else {
+            if (this.currentTile != null && this.currentTile.isDone()) {
+                this.completeTile(this.currentTile.join());
+                this.currentTile = null;
+            }
+
+            if (this.currentTile == null) {
+                if (this.completedTiles >= this.tileCount) {
+                    this.finished = true;
+                    this.deleteCheckpoint();
+                    LOGGER.info("Pregeneration of {} finished: {}", this.level.dimension().location(), this.describeProgress());
+
+                    for (String s : this.describeTimings()) {
+                        LOGGER.info("  {}", s);
+                    }
+
+                    this.onFinished.run();
+                    return true;
+                }
+
+                this.currentTile = this.generateTile(this.completedTiles);
+            }
+
+            long i = Util.getNanos();
+            if (i - this.lastCheckpointNanos > CHECKPOINT_INTERVAL_NANOS) {
+                this.lastCheckpointNanos = i;
+                this.saveCheckpoint();
+            }
+
+            if (i - this.lastReportNanos > REPORT_INTERVAL_NANOS) {
+                this.lastReportNanos = i;
+                LOGGER.info("Pregenerating {}: {}", this.level.dimension().location(), this.describeProgress());
+            }
+
+            return false;
+        }
+    }
+
+    public void stop() {
+        if (!this.finished) {
+            this.finished = true;
+            this.stopping = true;
+            if (this.currentTile != null) {
+                CompletableFuture<ChunkPregenerator.TileResult> completablefuture = this.currentTile;
+                this.level.getServer().managedBlock(completablefuture::isDone);
+                this.currentTile = null;
+            }
+
+            this.saveCheckpoint();
+            LOGGER.info("Pregeneration of {} stopped: {}", this.level.dimension().location(), this.describeProgress());
+        }
+    }
+
+    private void completeTile(ChunkPregenerator.TileResult result) {
+        this.generatedChunks += (long)result.generated();
+        this.failedChunks += (long)result.failed();
+        this.completedTiles++;
+    }
+
+    private CompletableFuture<ChunkPregenerator.TileResult> generateTile(long tile) {
+        ChunkPregenerator.TileGeneration chunkpregenerator$tilegeneration = new ChunkPregenerator.TileGeneration(this.area.chunkInTile(tile, 0));
+
+        for (int i = 0; i < CHUNKS_PER_TILE; i++) {
+            ChunkPos chunkpos = this.area.chunkInTile(tile, i);
+            if (this.area.contains(chunkpos.x, chunkpos.z)) {
+                chunkpregenerator$tilegeneration.addTarget(chunkpos);
+            }
+        }
+
+        CompletableFuture<Void> completablefuture = CompletableFuture.completedFuture(null);
+
+        for (ChunkStatus chunkstatus : ChunkStatus.getStatusList()) {
+            if (chunkstatus.isAfter(TARGET_STATUS)) {
+                break;
+            }
+
+            completablefuture = completablefuture.thenCompose(previous -> this.runLayer(chunkpregenerator$tilegeneration, chunkstatus));
+        }
+
+        return completablefuture.thenCompose(previous -> this.saveTile(chunkpregenerator$tilegeneration)).exceptionally(throwable -> {
+            LOGGER.error("Failed to pregenerate region at {}", chunkpregenerator$tilegeneration.origin, throwable);
+            return new ChunkPregenerator.TileResult(0, chunkpregenerator$tilegeneration.targets);
+        });
+    }
+
+    private CompletableFuture<Void> runLayer(ChunkPregenerator.TileGeneration tile, ChunkStatus status) {
+        int i = TARGET_STEP.getAccumulatedRadiusOf(status);
+        int j = 2 * Math.max(ChunkPyramid.GENERATION_PYRAMID.getStepTo(status).blockStateWriteRadius(), 0) + 1;
+        Executor executor = status == ChunkStatus.STRUCTURE_STARTS ? this.level.getServer() : Util.backgroundExecutor();
+        CompletableFuture<Void> completablefuture = CompletableFuture.completedFuture(null);
+
+        for (int k = 0; k < j * j; k++) {
+            int l = k % j;
+            int i1 = k / j;
+            completablefuture = completablefuture.thenCompose(previous -> this.runPhase(tile, status, i, j, l, i1, executor));
+        }
+
+        return completablefuture;
+    }
+
+    private CompletableFuture<Void> runPhase(
+        ChunkPregenerator.TileGeneration tile, ChunkStatus status, int radius, int period, int phaseX, int phaseZ, Executor executor
+    ) {
+        if (this.stopping) {
+            return CompletableFuture.completedFuture(null);
+        } else {
+            List<CompletableFuture<ChunkResult<ChunkAccess>>> list = new ArrayList<>();
+
+            for (int i = 0; i < TILE_SPAN; i++) {
+                for (int j = 0; j < TILE_SPAN; j++) {
+                    int k = tile.minX + j;
+                    int l = tile.minZ + i;
+                    if (tile.distance[i * TILE_SPAN + j] <= radius && Math.floorMod(k, period) == phaseX && Math.floorMod(l, period) == phaseZ) {
+                        GenerationChunkHolder generationchunkholder = tile.cache.get(k, l);
+                        list.add(CompletableFuture.supplyAsync(() -> this.applyStep(tile, generationchunkholder, status), executor).thenCompose(Function.identity()));
+                    }
+                }
+            }
+
+            return CompletableFuture.allOf(list.toArray(CompletableFuture[]::new));
+        }
+    }
+
+    private CompletableFuture<ChunkResult<ChunkAccess>> applyStep(ChunkPregenerator.TileGeneration tile, GenerationChunkHolder holder, ChunkStatus status) {
+        ChunkStatus chunkstatus = holder.getPersistedStatus();
+        ChunkPyramid chunkpyramid = chunkstatus != null && status.isAfter(chunkstatus) ? ChunkPyramid.GENERATION_PYRAMID : ChunkPyramid.LOADING_PYRAMID;
+        return holder.applyStep(chunkpyramid.getStepTo(status), this.chunkMap, tile.cache);
+    }
+
+    private CompletableFuture<ChunkPregenerator.TileResult> saveTile(ChunkPregenerator.TileGeneration tile) {
+        if (this.stopping) {
+            return CompletableFuture.completedFuture(new ChunkPregenerator.TileResult(0, 0));
+        } else {
+            List<ChunkAccess> list = new ArrayList<>();
+            int i = 0;
+            int j = 0;
+
+            for (int k = 0; k < TILE_SPAN; k++) {
+                for (int l = 0; l < TILE_SPAN; l++) {
+                    int i1 = tile.distance[k * TILE_SPAN + l];
+                    if (i1 <= TILE_MARGIN) {
+                        GenerationChunkHolder generationchunkholder = tile.cache.get(tile.minX + l, tile.minZ + k);
+                        ChunkAccess chunkaccess = generationchunkholder.getLatestChunk();
+                        if (chunkaccess == null) {
+                            if (i1 == 0) {
+                                j++;
+                            }
+                        } else if (chunkaccess.isUnsaved() && this.chunkMap.getVisibleChunkIfPresent(chunkaccess.getPos().toLong()) == null) {
+                            list.add(chunkaccess);
+                            if (i1 == 0) {
+                                i++;
+                            }
+                        }
+                    }
+                }
+            }
+
+            list.sort(
+                Comparator.<ChunkAccess>comparingInt(chunk -> chunk.getPos().getRegionX())
+                    .thenComparingInt(chunk -> chunk.getPos().getRegionZ())
+                    .thenComparingLong(chunk -> chunk.getPos().toLong())
+            );
+            List<CompletableFuture<Void>> list1 = new ArrayList<>(list.size());
+
+            for (ChunkAccess chunkaccess1 : list) {
+                chunkaccess1.setUnsaved(false);
+                list1.add(
+                    this.chunkMap
+                        .write(chunkaccess1.getPos(), CompletableFuture.supplyAsync(() -> ChunkSerializer.write(this.level, chunkaccess1), Util.backgroundExecutor()))
+                );
+            }
+
+            ChunkPregenerator.TileResult chunkpregenerator$tileresult = new ChunkPregenerator.TileResult(i, j);
+            return CompletableFuture.allOf(list1.toArray(CompletableFuture[]::new)).thenApply(written -> chunkpregenerator$tileresult);
+        }
+    }
+
+    public long getCompletedTiles() {
+        return this.completedTiles;
+    }
+
+    public String describeProgress() {
+        double d0 = (double)(Util.getNanos() - this.startNanos) / 1.0E9;
+        double d1 = d0 > 0.0 ? (double)this.generatedChunks / d0 : 0.0;
+        return String.format(
+            Locale.ROOT,
+            "%d/%d regions, %d chunks (%d failed), %.1f chunks/s, %.0fs elapsed",
+            this.getCompletedTiles(),
+            this.tileCount,
+            this.generatedChunks,
+            this.failedChunks,
+            d1,
+            d0
+        );
+    }
+
+    public List<String> describeTimings() {
+        ChunkGenerationTimings.Snapshot chunkgenerationtimings$snapshot = ChunkGenerationTimings.snapshot().since(this.startTimings);
+        long i = Math.max(chunkgenerationtimings$snapshot.totalNanos(), 1L);
+        List<String> list = new ArrayList<>();
+
+        for (ChunkStatus chunkstatus : chunkgenerationtimings$snapshot.statuses()) {
+            long j = chunkgenerationtimings$snapshot.count(chunkstatus);
+            if (j > 0L) {
+                long k = chunkgenerationtimings$snapshot.nanos(chunkstatus);
+                list.add(
+                    String.format(
+                        Locale.ROOT, "%s: %d chunks, %.2f ms avg, %.1f%%", chunkstatus.getName(), j, (double)k / (double)j / 1000000.0, (double)k * 100.0 / (double)i
+                    )
+                );
+            }
+        }
+
+        return list;
+    }
+
+    private static Path getCheckpointPath(ServerLevel level) {
+        return DimensionType.getStorageFolder(level.dimension(), level.getServer().getWorldPath(LevelResource.ROOT)).resolve("data").resolve(CHECKPOINT_FILE);
+    }
+
+    private void saveCheckpoint() {
+        CompoundTag compoundtag = new CompoundTag();
+        compoundtag.putInt("CenterX", this.area.centerX);
+        compoundtag.putInt("CenterZ", this.area.centerZ);
+        compoundtag.putInt("Radius", this.area.radius);
+        compoundtag.putString("Shape", this.area.shape.getSerializedName());
+        compoundtag.putLong("Tile", this.getCompletedTiles());
+        Path path = getCheckpointPath(this.level);
+
+        try {
+            Files.createDirectories(path.getParent());
+            NbtIo.writeCompressed(compoundtag, path);
+        } catch (IOException ioexception) {
+            LOGGER.error("Failed to write pregeneration checkpoint {}", path, ioexception);
+        }
+    }
+
+    private void deleteCheckpoint() {
+        Path path = getCheckpointPath(this.level);
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ioexception) {
+            LOGGER.error("Failed to delete pregeneration checkpoint {}", path, ioexception);
+        }
+    }
+
+    @Nullable
+    public static ChunkPregenerator.Checkpoint loadCheckpoint(ServerLevel level) {
+        Path path = getCheckpointPath(level);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        } else {
+            try {
+                CompoundTag compoundtag = NbtIo.readCompressed(path, NbtAccounter.unlimitedHeap());
+                ChunkPregenerator.Shape chunkpregenerator$shape = ChunkPregenerator.Shape.byName(compoundtag.getString("Shape"));
+                ChunkPregenerator.Area chunkpregenerator$area = new ChunkPregenerator.Area(
+                    compoundtag.getInt("CenterX"), compoundtag.getInt("CenterZ"), compoundtag.getInt("Radius"), chunkpregenerator$shape
+                );
+                return new ChunkPregenerator.Checkpoint(chunkpregenerator$area, compoundtag.getLong("Tile"));
+            } catch (Exception exception) {
+                LOGGER.error("Failed to read pregeneration checkpoint {}", path, exception);
+                return null;
+            }
+        }
+    }
+
+    public static record Area(int centerX, int centerZ, int radius, ChunkPregenerator.Shape shape) {
+        int minTileX() {
+            return Math.floorDiv(this.centerX - this.radius, TILE_SIZE);
+        }
+
+        int minTileZ() {
+            return Math.floorDiv(this.centerZ - this.radius, TILE_SIZE);
+        }
+
+        int tilesPerRow() {
+            return Math.floorDiv(this.centerX + this.radius, TILE_SIZE) - this.minTileX() + 1;
+        }
+
+        long tileCount() {
+            return (long)this.tilesPerRow() * (long)(Math.floorDiv(this.centerZ + this.radius, TILE_SIZE) - this.minTileZ() + 1);
+        }
+
+        ChunkPos chunkInTile(long tile, int index) {
+            int i = this.tilesPerRow();
+            int j = (this.minTileX() + (int)(tile % (long)i)) * TILE_SIZE;
+            int k = (this.minTileZ() + (int)(tile / (long)i)) * TILE_SIZE;
+            return new ChunkPos(j + (index & TILE_SIZE - 1), k + index / TILE_SIZE);
+        }
+
+        public boolean contains(int chunkX, int chunkZ) {
+            int i = chunkX - this.centerX;
+            int j = chunkZ - this.centerZ;
+            return switch (this.shape) {
+                case SQUARE -> Math.abs(i) <= this.radius && Math.abs(j) <= this.radius;
+                case CIRCLE -> (long)i * (long)i + (long)j * (long)j <= (long)this.radius * (long)this.radius;
+            };
+        }
+    }
+
+    public static record Checkpoint(ChunkPregenerator.Area area, long tile) {
+    }
+
+    static class PregenChunkHolder extends GenerationChunkHolder {
+        PregenChunkHolder(ChunkPos pos, ChunkMap chunkMap) {
+            super(pos);
+            this.updateHighestAllowedStatus(chunkMap);
+        }
+
+        @Override
+        public int getTicketLevel() {
+            return HOLDER_TICKET_LEVEL;
+        }
+
+        @Override
+        public int getQueueLevel() {
+            return HOLDER_TICKET_LEVEL;
+        }
+    }
+
+    class TileGeneration {
+        final ChunkPos origin;
+        final int minX;
+        final int minZ;
+        final StaticCache2D<GenerationChunkHolder> cache;
+        final int[] distance = new int[TILE_SPAN * TILE_SPAN];
+        int targets;
+
+        TileGeneration(ChunkPos origin) {
+            this.origin = origin;
+            this.minX = origin.x - TILE_MARGIN;
+            this.minZ = origin.z - TILE_MARGIN;
+            this.cache = StaticCache2D.create(
+                origin.x + TILE_SIZE / 2,
+                origin.z + TILE_SIZE / 2,
+                TILE_SIZE / 2 + TILE_MARGIN,
+                (x, z) -> new ChunkPregenerator.PregenChunkHolder(new ChunkPos(x, z), ChunkPregenerator.this.chunkMap)
+            );
+            Arrays.fill(this.distance, Integer.MAX_VALUE);
+        }
+
+        void addTarget(ChunkPos pos) {
+            this.targets++;
+            int i = pos.x - this.minX;
+            int j = pos.z - this.minZ;
+
+            for (int k = j - TILE_MARGIN; k <= j + TILE_MARGIN; k++) {
+                for (int l = i - TILE_MARGIN; l <= i + TILE_MARGIN; l++) {
+                    int i1 = k * TILE_SPAN + l;
+                    this.distance[i1] = Math.min(this.distance[i1], Math.max(Math.abs(l - i), Math.abs(k - j)));
+                }
+            }
+        }
+    }
+
+    static record TileResult(int generated, int failed) {
+    }
+
+    public static enum Shape implements StringRepresentable {
+        SQUARE("square"),
+        CIRCLE("circle");
+
+        private final String name;
+
+        private Shape(final String name) {
+            this.name = name;
+        }
+
+        public static ChunkPregenerator.Shape byName(String name) {
+            for (ChunkPregenerator.Shape chunkpregenerator$shape : values()) {
+                if (chunkpregenerator$shape.name.equals(name)) {
+                    return chunkpregenerator$shape;
+                }
+            }
+
+            return SQUARE;
+        }
+
+        @Override
+        public String getSerializedName() {
+            return this.name;
+        }
+    }
+}
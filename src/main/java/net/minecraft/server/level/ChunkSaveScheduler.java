@@ -0,0 +1,118 @@
+package net.minecraft.server.level;
+
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import net.minecraft.Util;
+import net.minecraft.util.TimeUtil;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
+
+public class ChunkSaveScheduler implements ProfilerMeasured {
+    private static final int MIN_CHUNKS_PER_TICK = 1;
+    private static final int DEFAULT_TICK_BUDGET_MILLIS = 5;
+    private static volatile long tickBudgetNanos = (long)DEFAULT_TICK_BUDGET_MILLIS * TimeUtil.NANOSECONDS_PER_MILLISECOND;
+    private final String name;
+    private final ChunkSaveScheduler.Saver saver;
+    private final PriorityQueue<ChunkSaveScheduler.Entry> queue = new PriorityQueue<>();
+    private final LongSet queued = new LongOpenHashSet();
+    private long nextSequence;
+    private volatile int backlog;
+    private volatile int savedLastTick;
+    private volatile double tickTimeMs;
+
+    public ChunkSaveScheduler(String name, ChunkSaveScheduler.Saver saver) {
+        this.name = name;
+        this.saver = saver;
+        MetricsRegistry.INSTANCE.add(this);
+    }
+
+    public static void configure(int budgetMillis) {
+        tickBudgetNanos = (long)Math.max(budgetMillis, 0) * TimeUtil.NANOSECONDS_PER_MILLISECOND;
+    }
+
+    public static boolean isEnabled() {
+        return tickBudgetNanos > 0L;
+    }
+
+    public void schedule(long pos, long lastSaved) {
+        if (this.queued.add(pos)) {
+            this.queue.add(new ChunkSaveScheduler.Entry(pos, lastSaved, this.nextSequence++));
+            this.backlog = this.queued.size();
+        }
+    }
+
+    public void tick(LongSet unloading) {
+        if (this.queued.isEmpty()) {
+            this.savedLastTick = 0;
+            this.tickTimeMs = 0.0;
+        } else {
+            long i = Util.getNanos();
+            long j = i + tickBudgetNanos;
+            int k = 0;
+            LongIterator longiterator = unloading.iterator();
+
+            while (longiterator.hasNext() && (k < MIN_CHUNKS_PER_TICK || Util.getNanos() < j)) {
+                long l = longiterator.nextLong();
+                if (this.queued.remove(l) && this.saver.save(l)) {
+                    k++;
+                }
+            }
+
+            while (!this.queue.isEmpty() && (k < MIN_CHUNKS_PER_TICK || Util.getNanos() < j)) {
+                ChunkSaveScheduler.Entry chunksavescheduler$entry = this.queue.poll();
+                if (this.queued.remove(chunksavescheduler$entry.pos) && this.saver.save(chunksavescheduler$entry.pos)) {
+                    k++;
+                }
+            }
+
+            if (this.queued.isEmpty()) {
+                this.queue.clear();
+            }
+
+            this.backlog = this.queued.size();
+            this.savedLastTick = k;
+            this.tickTimeMs = (double)(Util.getNanos() - i) / (double)TimeUtil.NANOSECONDS_PER_MILLISECOND;
+        }
+    }
+
+    public void clear() {
+        this.queue.clear();
+        this.queued.clear();
+        this.backlog = 0;
+    }
+
+    public int getBacklog() {
+        return this.backlog;
+    }
+
+    public int getSavedLastTick() {
+        return this.savedLastTick;
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        return ImmutableList.of(
+            MetricSampler.create(this.name + "-backlog", MetricCategory.TICK_LOOP, () -> (double)this.backlog),
+            MetricSampler.create(this.name + "-saved-per-tick", MetricCategory.TICK_LOOP, () -> (double)this.savedLastTick),
+            MetricSampler.create(this.name + "-tick-time", MetricCategory.TICK_LOOP, () -> this.tickTimeMs)
+        );
+    }
+
+    static record Entry(long pos, long lastSaved, long sequence) implements Comparable<ChunkSaveScheduler.Entry> {
+        public int compareTo(ChunkSaveScheduler.Entry other) {
+            int i = Long.compare(this.lastSaved, other.lastSaved);
+            return i != 0 ? i : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Saver {
+        boolean save(long pos);
+    }
+}
@@ -0,0 +1,78 @@
+package net.minecraft.server.level;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import net.minecraft.world.level.ChunkPos;
+
+public class EntityTrackerGrid<T> {
+    private final Long2ObjectMap<Set<T>> cells = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongMap<T> positions = new Reference2LongOpenHashMap<>();
+
+    public void update(T value, long chunkPos) {
+        if (this.positions.containsKey(value)) {
+            long i = this.positions.put(value, chunkPos);
+            if (i == chunkPos) {
+                return;
+            }
+
+            this.removeFromCell(value, i);
+        } else {
+            this.positions.put(value, chunkPos);
+        }
+
+        this.cells.computeIfAbsent(chunkPos, cell -> new ReferenceOpenHashSet<>()).add(value);
+    }
+
+    public void remove(T value) {
+        if (this.positions.containsKey(value)) {
+            this.removeFromCell(value, this.positions.removeLong(value));
+        }
+    }
+
+    private void removeFromCell(T value, long chunkPos) {
+        Set<T> set = this.cells.get(chunkPos);
+        if (set != null && set.remove(value) && set.isEmpty()) {
+            this.cells.remove(chunkPos);
+        }
+    }
+
+    public void clear() {
+        this.cells.clear();
+        this.positions.clear();
+    }
+
+    public int size() {
+        return this.positions.size();
+    }
+
+    public void forEachInRadius(int chunkX, int chunkZ, int radius, Consumer<T> consumer) {
+        long i = (long)(radius * 2 + 1) * (long)(radius * 2 + 1);
+        if (i > (long)this.cells.size()) {
+            ObjectIterator<Long2ObjectMap.Entry<Set<T>>> objectiterator = Long2ObjectMaps.fastIterator(this.cells);
+
+            while (objectiterator.hasNext()) {
+                Long2ObjectMap.Entry<Set<T>> entry = objectiterator.next();
+                long j = entry.getLongKey();
+                if (Math.abs(ChunkPos.getX(j) - chunkX) <= radius && Math.abs(ChunkPos.getZ(j) - chunkZ) <= radius) {
+                    entry.getValue().forEach(consumer);
+                }
+            }
+        } else {
+            for (int k = chunkX - radius; k <= chunkX + radius; k++) {
+                for (int l = chunkZ - radius; l <= chunkZ + radius; l++) {
+                    Set<T> set = this.cells.get(ChunkPos.asLong(k, l));
+                    if (set != null) {
+                        set.forEach(consumer);
+                    }
+                }
+            }
+        }
+    }
+}
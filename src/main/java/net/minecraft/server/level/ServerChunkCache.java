@@ -64,6 +64,8 @@ public class ServerChunkCache extends ChunkSource {
     @Nullable
     @VisibleForDebug
     private NaturalSpawner.SpawnState lastSpawnState;
+    @Nullable
+    private ChunkPregenerator pregenerator;
 
     public ServerChunkCache(
         ServerLevel p_214982_,
@@ -229,6 +231,14 @@ public class ServerChunkCache extends ChunkSource {
         return this.chunkAbsent(chunkholder, j) ? GenerationChunkHolder.UNLOADED_CHUNK_FUTURE : chunkholder.scheduleChunkGenerationTask(p_334479_, this.chunkMap);
     }
 
+    public CompletableFuture<ChunkResult<ChunkAccess>> scheduleChunkGeneration(ChunkPos pos, ChunkStatus status) {
+        this.runDistanceManagerUpdates();
+        ChunkHolder chunkholder = this.getVisibleChunkIfPresent(pos.toLong());
+        return this.chunkAbsent(chunkholder, ChunkLevel.byStatus(status))
+            ? GenerationChunkHolder.UNLOADED_CHUNK_FUTURE
+            : chunkholder.scheduleChunkGenerationTask(status, this.chunkMap);
+    }
+
     private boolean chunkAbsent(@Nullable ChunkHolder p_8417_, int p_8418_) {
         return p_8417_ == null || p_8417_.getTicketLevel() > p_8418_;
     }
@@ -277,6 +287,10 @@ public class ServerChunkCache extends ChunkSource {
         }
     }
 
+    public int getSaveBacklog() {
+        return this.chunkMap.getSaveBacklog();
+    }
+
     public void save(boolean p_8420_) {
         this.runDistanceManagerUpdates();
         this.chunkMap.saveAllChunks(p_8420_);
@@ -284,11 +298,32 @@ public class ServerChunkCache extends ChunkSource {
 
     @Override
     public void close() throws IOException {
+        this.stopPregeneration();
         this.save(true);
         this.lightEngine.close();
         this.chunkMap.close();
     }
 
+    public void startPregeneration(ChunkPregenerator pregenerator) {
+        this.stopPregeneration();
+        this.pregenerator = pregenerator;
+    }
+
+    public boolean stopPregeneration() {
+        if (this.pregenerator != null) {
+            this.pregenerator.stop();
+            this.pregenerator = null;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Nullable
+    public ChunkPregenerator getPregenerator() {
+        return this.pregenerator;
+    }
+
     @Override
     public void tick(BooleanSupplier p_201913_, boolean p_201914_) {
         this.level.getProfiler().push("purge");
@@ -297,6 +332,13 @@ public class ServerChunkCache extends ChunkSource {
         }
 
         this.runDistanceManagerUpdates();
+        if (this.pregenerator != null) {
+            this.level.getProfiler().popPush("pregeneration");
+            if (this.pregenerator.tick()) {
+                this.pregenerator = null;
+            }
+        }
+
         this.level.getProfiler().popPush("chunks");
         if (p_201914_) {
             this.tickChunks();
@@ -410,6 +452,13 @@ public class ServerChunkCache extends ChunkSource {
         }
     }
 
+    public void chunkDataChanged(BlockPos pos) {
+        ChunkHolder chunkholder = this.getVisibleChunkIfPresent(ChunkPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ())));
+        if (chunkholder != null) {
+            chunkholder.markChunkDataChanged();
+        }
+    }
+
     @Override
     public void onLightUpdate(LightLayer p_8403_, SectionPos p_8404_) {
         this.mainThreadProcessor.execute(() -> {
@@ -46,6 +46,7 @@ import net.minecraft.core.SectionPos;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.network.BroadcastPacket;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundBlockDestructionPacket;
@@ -147,6 +148,7 @@ import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.levelgen.structure.StructureCheck;
+import net.minecraft.world.level.levelgen.structure.StructureStartIndex;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
 import net.minecraft.world.level.material.Fluid;
 import net.minecraft.world.level.material.FluidState;
@@ -201,6 +203,7 @@ public class ServerLevel extends Level implements WorldGenLevel {
     private EndDragonFight dragonFight;
     final Int2ObjectMap<EnderDragonPart> dragonParts = new Int2ObjectOpenHashMap<>();
     private final StructureManager structureManager;
+    private final StructureStartIndex structureStartIndex;
     private final StructureCheck structureCheck;
     private final boolean tickTime;
     private final RandomSequences randomSequences;
@@ -276,7 +279,15 @@ public class ServerLevel extends Level implements WorldGenLevel {
             i,
             datafixer
         );
-        this.structureManager = new StructureManager(this, p_214999_.getWorldData().worldGenOptions(), this.structureCheck);
+        this.structureStartIndex = new StructureStartIndex(
+            p_215001_.getDimensionPath(p_215003_).resolve("data").resolve(StructureStartIndex.FOLDER_NAME), datafixer
+        );
+        this.structureManager = new StructureManager(
+            this,
+            p_214999_.getWorldData().worldGenOptions(),
+            this.structureCheck,
+            this.structureStartIndex
+        );
         if (this.dimension() == Level.END && this.dimensionTypeRegistration().is(BuiltinDimensionTypes.END)) {
             this.dragonFight = new EndDragonFight(this, i, p_214999_.getWorldData().endDragonFightData());
         } else {
@@ -797,6 +808,7 @@ public class ServerLevel extends Level implements WorldGenLevel {
         }
 
         this.getChunkSource().getDataStorage().save();
+        this.structureStartIndex.save();
     }
 
     public <T extends Entity> List<? extends T> getEntities(EntityTypeTest<Entity, T> p_143281_, Predicate<? super T> p_143282_) {
@@ -1182,16 +1194,26 @@ public class ServerLevel extends Level implements WorldGenLevel {
         ClientboundLevelParticlesPacket clientboundlevelparticlespacket = new ClientboundLevelParticlesPacket(
             p_8768_, false, p_8769_, p_8770_, p_8771_, (float)p_8773_, (float)p_8774_, (float)p_8775_, (float)p_8776_, p_8772_
         );
-        int i = 0;
+        List<ServerPlayer> list = new ArrayList<>();
+
+        for (int i = 0; i < this.players.size(); i++) {
+            ServerPlayer serverplayer = this.players.get(i);
+            if (this.isInParticleRange(serverplayer, false, p_8769_, p_8770_, p_8771_)) {
+                list.add(serverplayer);
+            }
+        }
+
+        BroadcastPacket broadcastpacket = BroadcastPacket.of(clientboundlevelparticlespacket, list.size());
 
-        for (int j = 0; j < this.players.size(); j++) {
-            ServerPlayer serverplayer = this.players.get(j);
-            if (this.sendParticles(serverplayer, false, p_8769_, p_8770_, p_8771_, clientboundlevelparticlespacket)) {
-                i++;
+        try {
+            for (ServerPlayer serverplayer1 : list) {
+                serverplayer1.connection.send(broadcastpacket);
             }
+        } finally {
+            broadcastpacket.release();
         }
 
-        return i;
+        return list.size();
     }
 
     public <T extends ParticleOptions> boolean sendParticles(
@@ -1214,19 +1236,18 @@ public class ServerLevel extends Level implements WorldGenLevel {
     }
 
     private boolean sendParticles(ServerPlayer p_8637_, boolean p_8638_, double p_8639_, double p_8640_, double p_8641_, Packet<?> p_8642_) {
-        if (p_8637_.level() != this) {
-            return false;
+        if (this.isInParticleRange(p_8637_, p_8638_, p_8639_, p_8640_, p_8641_)) {
+            p_8637_.connection.send(p_8642_);
+            return true;
         } else {
-            BlockPos blockpos = p_8637_.blockPosition();
-            if (blockpos.closerToCenterThan(new Vec3(p_8639_, p_8640_, p_8641_), p_8638_ ? 512.0 : 32.0)) {
-                p_8637_.connection.send(p_8642_);
-                return true;
-            } else {
-                return false;
-            }
+            return false;
         }
     }
 
+    private boolean isInParticleRange(ServerPlayer player, boolean longDistance, double x, double y, double z) {
+        return player.level() == this && player.blockPosition().closerToCenterThan(new Vec3(x, y, z), longDistance ? 512.0 : 32.0);
+    }
+
     @Nullable
     @Override
     public Entity getEntity(int p_8597_) {
@@ -1357,6 +1378,7 @@ public class ServerLevel extends Level implements WorldGenLevel {
 
     @Override
     public void onBlockStateChange(BlockPos p_8751_, BlockState p_8752_, BlockState p_8753_) {
+        this.getChunkSource().chunkDataChanged(p_8751_);
         Optional<Holder<PoiType>> optional = PoiTypes.forState(p_8752_);
         Optional<Holder<PoiType>> optional1 = PoiTypes.forState(p_8753_);
         if (!Objects.equals(optional, optional1)) {
@@ -1372,6 +1394,12 @@ public class ServerLevel extends Level implements WorldGenLevel {
         }
     }
 
+    @Override
+    public void blockEntityChanged(BlockPos p_151544_) {
+        super.blockEntityChanged(p_151544_);
+        this.getChunkSource().chunkDataChanged(p_151544_);
+    }
+
     public PoiManager getPoiManager() {
         return this.getChunkSource().getPoiManager();
     }
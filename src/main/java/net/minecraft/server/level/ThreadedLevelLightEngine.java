@@ -32,6 +32,7 @@ public class ThreadedLevelLightEngine extends LevelLightEngine implements AutoCl
     private final ProcessorHandle<ChunkTaskPriorityQueueSorter.Message<Runnable>> sorterMailbox;
     private final int taskPerBatch = 1000;
     private final AtomicBoolean scheduled = new AtomicBoolean();
+    private static volatile boolean parallelBlockSky;
 
     public ThreadedLevelLightEngine(
         LightChunkGetter p_9305_,
@@ -46,6 +47,10 @@ public class ThreadedLevelLightEngine extends LevelLightEngine implements AutoCl
         this.taskMailbox = p_9308_;
     }
 
+    public static void configureParallelBlockSky(boolean parallel) {
+        parallelBlockSky = parallel;
+    }
+
     @Override
     public void close() {
     }
@@ -204,7 +209,11 @@ public class ThreadedLevelLightEngine extends LevelLightEngine implements AutoCl
         }
 
         objectlistiterator.back(j);
-        super.runLightUpdates();
+        if (parallelBlockSky) {
+            super.runBlockAndSkyLightUpdatesInParallel(Util.backgroundExecutor());
+        } else {
+            super.runLightUpdates();
+        }
 
         for (int k = 0; objectlistiterator.hasNext() && k < i; k++) {
             Pair<ThreadedLevelLightEngine.TaskType, Runnable> pair1 = objectlistiterator.next();
@@ -0,0 +1,199 @@
+package net.minecraft.server.loadtest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.logging.LogUtils;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.game.GameProtocols;
+import net.minecraft.network.protocol.game.ServerGamePacketListener;
+import net.minecraft.server.Bootstrap;
+import org.slf4j.Logger;
+
+public class LoadTest {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long TICK_MS = 50L;
+    private final LoadTest.Settings settings;
+    private final LoadTestStats stats = new LoadTestStats();
+    private final LoadTestGameProtocol gameProtocol;
+    private final ProtocolInfo<ServerGamePacketListener> serverboundGameProtocol;
+    private final List<List<LoadTestBot>> tickGroups = new ArrayList<>();
+
+    public LoadTest(LoadTest.Settings settings, int tickThreads) {
+        this.settings = settings;
+        RegistryAccess registryaccess = RegistryAccess.fromRegistryOfRegistries(BuiltInRegistries.REGISTRY);
+        this.gameProtocol = new LoadTestGameProtocol(registryaccess, this.stats);
+        this.serverboundGameProtocol = GameProtocols.SERVERBOUND_TEMPLATE.bind(RegistryFriendlyByteBuf.decorator(registryaccess));
+
+        for (int i = 0; i < tickThreads; i++) {
+            this.tickGroups.add(new CopyOnWriteArrayList<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        SharedConstants.tryDetectVersion();
+        OptionParser optionparser = new OptionParser();
+        OptionSpec<Void> optionspec = optionparser.accepts("help").forHelp();
+        OptionSpec<String> optionspec1 = optionparser.accepts("host", "Address of the server under test").withRequiredArg().defaultsTo("127.0.0.1");
+        OptionSpec<Integer> optionspec2 = optionparser.accepts("port", "Port of the server under test").withRequiredArg().ofType(Integer.class).defaultsTo(25565);
+        OptionSpec<Integer> optionspec3 = optionparser.accepts("bots", "Number of bots to log in").withRequiredArg().ofType(Integer.class).defaultsTo(100);
+        OptionSpec<Integer> optionspec4 = optionparser.accepts("loginRate", "Bots logged in per second").withRequiredArg().ofType(Integer.class).defaultsTo(20);
+        OptionSpec<Integer> optionspec5 = optionparser.accepts("seconds", "How long to run once all bots have been started")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(300);
+        OptionSpec<Integer> optionspec6 = optionparser.accepts("tickThreads", "Threads used to tick bots")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        OptionSpec<String> optionspec7 = optionparser.accepts("path", "Movement path, circle or line").withRequiredArg().defaultsTo("circle");
+        OptionSpec<Double> optionspec8 = optionparser.accepts("radius", "Size of the movement path in blocks").withRequiredArg().ofType(Double.class).defaultsTo(32.0);
+        OptionSpec<Double> optionspec9 = optionparser.accepts("speed", "Movement speed in blocks per tick").withRequiredArg().ofType(Double.class).defaultsTo(0.2);
+        OptionSpec<Integer> optionspec10 = optionparser.accepts("actionInterval", "Ticks between placing or breaking a block, 0 to disable")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(40);
+        OptionSpec<Integer> optionspec11 = optionparser.accepts("chatInterval", "Ticks between chat messages, 0 to disable")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(600);
+        OptionSpec<Integer> optionspec12 = optionparser.accepts("viewDistance", "View distance requested by each bot")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(8);
+        OptionSpec<Double> optionspec13 = optionparser.accepts("chunksPerTick", "Chunk send rate requested by each bot")
+            .withRequiredArg()
+            .ofType(Double.class)
+            .defaultsTo(25.0);
+        OptionSpec<Integer> optionspec14 = optionparser.accepts("reportInterval", "Seconds between progress reports")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(10);
+        OptionSpec<Void> optionspec15 = optionparser.accepts("nio", "Use NIO client channels even when epoll is available");
+        OptionSet optionset = optionparser.parse(args);
+        if (optionset.has(optionspec)) {
+            optionparser.printHelpOn(System.out);
+            System.out.println();
+            System.out.println("The server must run with online-mode=false. Run it in creative mode (or with allow-flight=true) so that bots are");
+            System.out.println("not kicked for floating, and op bot0 to receive tick time samples for MSPT reporting.");
+        } else {
+            LoadTestBot.Path loadtestbot$path = LoadTestBot.Path.CODEC.byName(optionset.valueOf(optionspec7));
+            if (loadtestbot$path == null) {
+                LOGGER.error("Unknown path '{}'", optionset.valueOf(optionspec7));
+            } else {
+                Bootstrap.bootStrap();
+                LoadTest loadtest = new LoadTest(
+                    new LoadTest.Settings(
+                        new InetSocketAddress(optionset.valueOf(optionspec1), optionset.valueOf(optionspec2)),
+                        !optionset.has(optionspec15),
+                        optionset.valueOf(optionspec12),
+                        loadtestbot$path,
+                        Math.max(optionset.valueOf(optionspec8), 1.0),
+                        optionset.valueOf(optionspec9),
+                        optionset.valueOf(optionspec10),
+                        optionset.valueOf(optionspec11),
+                        optionset.valueOf(optionspec13).floatValue()
+                    ),
+                    Math.max(optionset.valueOf(optionspec6), 1)
+                );
+                loadtest.run(
+                    Math.max(optionset.valueOf(optionspec3), 1),
+                    Math.max(optionset.valueOf(optionspec4), 1),
+                    Math.max(optionset.valueOf(optionspec5), 1),
+                    Math.max(optionset.valueOf(optionspec14), 1)
+                );
+            }
+        }
+    }
+
+    public void run(int bots, int loginRate, int seconds, int reportInterval) throws InterruptedException {
+        LOGGER.info("Starting {} bots against {} at {} per second", bots, this.settings.address(), loginRate);
+        ScheduledExecutorService scheduledexecutorservice = Executors.newScheduledThreadPool(
+            this.tickGroups.size() + 1, new ThreadFactoryBuilder().setNameFormat("Load Test Worker #%d").setDaemon(true).build()
+        );
+        long i = System.nanoTime();
+
+        for (List<LoadTestBot> list : this.tickGroups) {
+            scheduledexecutorservice.scheduleAtFixedRate(() -> tickGroup(list), TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+
+        AtomicInteger atomicinteger = new AtomicInteger();
+        scheduledexecutorservice.scheduleAtFixedRate(() -> {
+            int j = atomicinteger.getAndIncrement();
+            if (j < bots) {
+                LoadTestBot loadtestbot = new LoadTestBot(this, j);
+                this.tickGroups.get(j % this.tickGroups.size()).add(loadtestbot);
+                loadtestbot.connect();
+            }
+        }, 0L, TimeUnit.SECONDS.toMicros(1L) / (long)loginRate, TimeUnit.MICROSECONDS);
+        scheduledexecutorservice.scheduleAtFixedRate(this.stats::logInterval, (long)reportInterval, (long)reportInterval, TimeUnit.SECONDS);
+        Thread.sleep(TimeUnit.SECONDS.toMillis((long)(bots / loginRate + seconds)));
+        scheduledexecutorservice.shutdownNow();
+        scheduledexecutorservice.awaitTermination(5L, TimeUnit.SECONDS);
+
+        for (List<LoadTestBot> list1 : this.tickGroups) {
+            for (LoadTestBot loadtestbot1 : list1) {
+                loadtestbot1.stop();
+            }
+        }
+
+        this.stats.logSummary((double)(System.nanoTime() - i) / 1.0E9);
+    }
+
+    private static void tickGroup(List<LoadTestBot> bots) {
+        for (LoadTestBot loadtestbot : bots) {
+            if (!loadtestbot.isDisconnected()) {
+                try {
+                    loadtestbot.tick();
+                } catch (Exception exception) {
+                    LOGGER.error("Exception ticking load test bot", exception);
+                    loadtestbot.onDisconnected(Component.literal("Exception while ticking: " + exception.getMessage()));
+                    loadtestbot.stop();
+                }
+            }
+        }
+    }
+
+    LoadTest.Settings settings() {
+        return this.settings;
+    }
+
+    LoadTestStats stats() {
+        return this.stats;
+    }
+
+    LoadTestGameProtocol gameProtocol() {
+        return this.gameProtocol;
+    }
+
+    ProtocolInfo<ServerGamePacketListener> serverboundGameProtocol() {
+        return this.serverboundGameProtocol;
+    }
+
+    public static record Settings(
+        InetSocketAddress address,
+        boolean useEpoll,
+        int viewDistance,
+        LoadTestBot.Path path,
+        double radius,
+        double speed,
+        int actionInterval,
+        int chatInterval,
+        float chunksPerTick
+    ) {
+    }
+}
@@ -0,0 +1,491 @@
+package net.minecraft.server.loadtest;
+
+import com.google.common.collect.Queues;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.Set;
+import javax.annotation.Nullable;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.UUIDUtil;
+import net.minecraft.network.Connection;
+import net.minecraft.network.DisconnectionDetails;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.LastSeenMessages;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
+import net.minecraft.network.protocol.common.ClientboundCustomReportDetailsPacket;
+import net.minecraft.network.protocol.common.ClientboundDisconnectPacket;
+import net.minecraft.network.protocol.common.ClientboundKeepAlivePacket;
+import net.minecraft.network.protocol.common.ClientboundPingPacket;
+import net.minecraft.network.protocol.common.ClientboundResourcePackPopPacket;
+import net.minecraft.network.protocol.common.ClientboundResourcePackPushPacket;
+import net.minecraft.network.protocol.common.ClientboundServerLinksPacket;
+import net.minecraft.network.protocol.common.ClientboundStoreCookiePacket;
+import net.minecraft.network.protocol.common.ClientboundTransferPacket;
+import net.minecraft.network.protocol.common.ClientboundUpdateTagsPacket;
+import net.minecraft.network.protocol.common.ServerboundClientInformationPacket;
+import net.minecraft.network.protocol.common.ServerboundKeepAlivePacket;
+import net.minecraft.network.protocol.common.ServerboundPongPacket;
+import net.minecraft.network.protocol.common.ServerboundResourcePackPacket;
+import net.minecraft.network.protocol.configuration.ClientConfigurationPacketListener;
+import net.minecraft.network.protocol.configuration.ClientboundFinishConfigurationPacket;
+import net.minecraft.network.protocol.configuration.ClientboundRegistryDataPacket;
+import net.minecraft.network.protocol.configuration.ClientboundResetChatPacket;
+import net.minecraft.network.protocol.configuration.ClientboundSelectKnownPacks;
+import net.minecraft.network.protocol.configuration.ClientboundUpdateEnabledFeaturesPacket;
+import net.minecraft.network.protocol.configuration.ConfigurationProtocols;
+import net.minecraft.network.protocol.configuration.ServerboundFinishConfigurationPacket;
+import net.minecraft.network.protocol.configuration.ServerboundSelectKnownPacks;
+import net.minecraft.network.protocol.cookie.ClientboundCookieRequestPacket;
+import net.minecraft.network.protocol.cookie.ServerboundCookieResponsePacket;
+import net.minecraft.network.protocol.game.ClientboundChunkBatchFinishedPacket;
+import net.minecraft.network.protocol.game.ClientboundChunkBatchStartPacket;
+import net.minecraft.network.protocol.game.ClientboundDebugSamplePacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerPositionPacket;
+import net.minecraft.network.protocol.game.ClientboundSetTimePacket;
+import net.minecraft.network.protocol.game.ClientboundStartConfigurationPacket;
+import net.minecraft.network.protocol.game.ServerboundAcceptTeleportationPacket;
+import net.minecraft.network.protocol.game.ServerboundChatPacket;
+import net.minecraft.network.protocol.game.ServerboundChunkBatchReceivedPacket;
+import net.minecraft.network.protocol.game.ServerboundConfigurationAcknowledgedPacket;
+import net.minecraft.network.protocol.game.ServerboundDebugSampleSubscriptionPacket;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.network.protocol.game.ServerboundPlayerActionPacket;
+import net.minecraft.network.protocol.game.ServerboundSetCreativeModeSlotPacket;
+import net.minecraft.network.protocol.game.ServerboundUseItemOnPacket;
+import net.minecraft.network.protocol.login.ClientLoginPacketListener;
+import net.minecraft.network.protocol.login.ClientboundCustomQueryPacket;
+import net.minecraft.network.protocol.login.ClientboundGameProfilePacket;
+import net.minecraft.network.protocol.login.ClientboundHelloPacket;
+import net.minecraft.network.protocol.login.ClientboundLoginCompressionPacket;
+import net.minecraft.network.protocol.login.ClientboundLoginDisconnectPacket;
+import net.minecraft.network.protocol.login.ServerboundCustomQueryAnswerPacket;
+import net.minecraft.network.protocol.login.ServerboundHelloPacket;
+import net.minecraft.network.protocol.login.ServerboundLoginAcknowledgedPacket;
+import net.minecraft.server.level.ClientInformation;
+import net.minecraft.util.Mth;
+import net.minecraft.util.StringRepresentable;
+import net.minecraft.util.debugchart.RemoteDebugSampleType;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.RelativeMovement;
+import net.minecraft.world.entity.player.ChatVisiblity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+
+public class LoadTestBot {
+    private static final double GOLDEN_ANGLE = Math.PI * (3.0 - Math.sqrt(5.0));
+    private static final int HOTBAR_SLOT = 36;
+    private static final int DEBUG_SAMPLE_RESUBSCRIBE_TICKS = 100;
+    private final LoadTest loadTest;
+    private final LoadTest.Settings settings;
+    private final LoadTestStats stats;
+    private final int index;
+    private final String name;
+    private final Connection connection = new Connection(PacketFlow.CLIENTBOUND);
+    private final Queue<Runnable> tasks = Queues.newConcurrentLinkedQueue();
+    private final double heading;
+    private LoadTestBot.State state = LoadTestBot.State.CONNECTING;
+    private volatile boolean stopping;
+    private long connectStart;
+    private volatile long playStart;
+    private volatile long batchStart;
+    private volatile boolean receivedChunks;
+    private boolean inGame;
+    private boolean hasPosition;
+    private double originX;
+    private double originY;
+    private double originZ;
+    private double x;
+    private double y;
+    private double z;
+    private float yRot;
+    private float xRot;
+    private int pathTicks;
+    private int sequence;
+    private int chatMessages;
+    @Nullable
+    private BlockPos placedBlock;
+
+    public LoadTestBot(LoadTest loadTest, int index) {
+        this.loadTest = loadTest;
+        this.settings = loadTest.settings();
+        this.stats = loadTest.stats();
+        this.index = index;
+        this.name = "bot" + index;
+        this.heading = (double)index * GOLDEN_ANGLE;
+    }
+
+    public void connect() {
+        this.connectStart = System.nanoTime();
+        this.stats.connecting.incrementAndGet();
+        Connection.connect(this.settings.address(), this.settings.useEpoll(), this.connection).addListener(future -> {
+            if (!future.isSuccess()) {
+                this.tasks.add(() -> this.onDisconnected(Component.literal("Failed to connect: " + future.cause().getMessage())));
+            }
+        });
+        this.connection
+            .initiateServerboundPlayConnection(
+                this.settings.address().getHostString(), this.settings.address().getPort(), new LoadTestBot.LoginListener()
+            );
+        this.connection.send(new ServerboundHelloPacket(this.name, UUIDUtil.createOfflinePlayerUUID(this.name)));
+    }
+
+    public void stop() {
+        this.stopping = true;
+        this.connection.disconnect(Component.literal("Load test finished"));
+    }
+
+    public boolean isDisconnected() {
+        return this.state == LoadTestBot.State.DISCONNECTED;
+    }
+
+    public void tick() {
+        Runnable runnable;
+        while ((runnable = this.tasks.poll()) != null) {
+            runnable.run();
+        }
+
+        if (this.state != LoadTestBot.State.DISCONNECTED) {
+            this.connection.tick();
+            if (this.inGame && this.hasPosition) {
+                this.tickInGame();
+            }
+        }
+    }
+
+    private void tickInGame() {
+        this.pathTicks++;
+        Vec3 vec3 = this.settings.path().offset((double)this.pathTicks * this.settings.speed(), this.settings.radius(), this.heading);
+        double d0 = this.originX + vec3.x;
+        double d1 = this.originZ + vec3.z;
+        if (d0 != this.x || d1 != this.z) {
+            this.yRot = (float)(Mth.atan2(d1 - this.z, d0 - this.x) * 180.0F / (float)Math.PI) - 90.0F;
+        }
+
+        this.x = d0;
+        this.y = this.originY;
+        this.z = d1;
+        this.connection.send(new ServerboundMovePlayerPacket.PosRot(this.x, this.y, this.z, this.yRot, this.xRot, true));
+        if (this.settings.actionInterval() > 0 && this.pathTicks % this.settings.actionInterval() == 0) {
+            this.useBlock();
+        }
+
+        if (this.settings.chatInterval() > 0 && (this.pathTicks + this.index) % this.settings.chatInterval() == 0) {
+            this.connection
+                .send(
+                    new ServerboundChatPacket(
+                        "Load test message " + ++this.chatMessages + " from " + this.name, Instant.now(), 0L, null, new LastSeenMessages.Update(0, new BitSet())
+                    )
+                );
+        }
+
+        if (this.index == 0 && this.pathTicks % DEBUG_SAMPLE_RESUBSCRIBE_TICKS == 1) {
+            this.connection.send(new ServerboundDebugSampleSubscriptionPacket(RemoteDebugSampleType.TICK_TIME));
+        }
+    }
+
+    private void useBlock() {
+        if (this.placedBlock == null) {
+            BlockPos blockpos = BlockPos.containing(this.x, this.y, this.z).below().relative(Direction.fromYRot((double)this.yRot), 2);
+            this.connection
+                .send(
+                    new ServerboundUseItemOnPacket(
+                        InteractionHand.MAIN_HAND, new BlockHitResult(Vec3.atCenterOf(blockpos).add(0.0, 0.5, 0.0), Direction.UP, blockpos, false), ++this.sequence
+                    )
+                );
+            this.placedBlock = blockpos.above();
+        } else {
+            this.connection.send(new ServerboundPlayerActionPacket(ServerboundPlayerActionPacket.Action.START_DESTROY_BLOCK, this.placedBlock, Direction.UP, ++this.sequence));
+            this.placedBlock = null;
+        }
+    }
+
+    private void startConfiguration() {
+        this.connection.setupInboundProtocol(ConfigurationProtocols.CLIENTBOUND, new LoadTestBot.ConfigurationListener());
+        this.connection.send(ServerboundLoginAcknowledgedPacket.INSTANCE);
+        this.connection.setupOutboundProtocol(ConfigurationProtocols.SERVERBOUND);
+        this.connection
+            .send(
+                new ServerboundClientInformationPacket(
+                    new ClientInformation("en_us", this.settings.viewDistance(), ChatVisiblity.FULL, true, 0, Player.DEFAULT_MAIN_HAND, false, false)
+                )
+            );
+    }
+
+    private void enterGame() {
+        boolean flag = this.state == LoadTestBot.State.CONNECTING;
+        if (flag) {
+            this.playStart = System.nanoTime();
+        }
+
+        this.connection.setupInboundProtocol(this.loadTest.gameProtocol(), new LoadTestBot.GameListener());
+        this.connection.send(ServerboundFinishConfigurationPacket.INSTANCE);
+        this.connection.setupOutboundProtocol(this.loadTest.serverboundGameProtocol());
+        this.inGame = true;
+        if (flag) {
+            this.state = LoadTestBot.State.PLAYING;
+            this.stats.connecting.decrementAndGet();
+            this.stats.online.incrementAndGet();
+            this.stats.loginLatency.record(this.playStart - this.connectStart);
+            this.connection.send(new ServerboundSetCreativeModeSlotPacket(HOTBAR_SLOT, new ItemStack(Items.STONE)));
+        }
+    }
+
+    private void reconfigure() {
+        this.inGame = false;
+        this.hasPosition = false;
+        this.placedBlock = null;
+        this.connection.setupInboundProtocol(ConfigurationProtocols.CLIENTBOUND, new LoadTestBot.ConfigurationListener());
+        this.connection.send(ServerboundConfigurationAcknowledgedPacket.INSTANCE);
+        this.connection.setupOutboundProtocol(ConfigurationProtocols.SERVERBOUND);
+    }
+
+    private void teleport(ClientboundPlayerPositionPacket packet) {
+        Set<RelativeMovement> set = packet.getRelativeArguments();
+        this.x = set.contains(RelativeMovement.X) ? this.x + packet.getX() : packet.getX();
+        this.y = set.contains(RelativeMovement.Y) ? this.y + packet.getY() : packet.getY();
+        this.z = set.contains(RelativeMovement.Z) ? this.z + packet.getZ() : packet.getZ();
+        this.yRot = set.contains(RelativeMovement.Y_ROT) ? this.yRot + packet.getYRot() : packet.getYRot();
+        this.xRot = set.contains(RelativeMovement.X_ROT) ? this.xRot + packet.getXRot() : packet.getXRot();
+        this.connection.send(new ServerboundAcceptTeleportationPacket(packet.getId()));
+        this.connection.send(new ServerboundMovePlayerPacket.PosRot(this.x, this.y, this.z, this.yRot, this.xRot, false));
+        if (!this.hasPosition) {
+            this.hasPosition = true;
+            this.originX = this.x;
+            this.originY = this.y;
+            this.originZ = this.z;
+            this.pathTicks = 0;
+        }
+    }
+
+    private void onChunkBatchFinished() {
+        long i = System.nanoTime();
+        this.stats.chunkBatchLatency.record(i - this.batchStart);
+        if (!this.receivedChunks) {
+            this.receivedChunks = true;
+            this.stats.firstChunksLatency.record(i - this.playStart);
+        }
+
+        this.connection.send(new ServerboundChunkBatchReceivedPacket(this.settings.chunksPerTick()));
+    }
+
+    void onDisconnected(Component reason) {
+        if (this.state != LoadTestBot.State.DISCONNECTED) {
+            if (this.state == LoadTestBot.State.CONNECTING) {
+                this.stats.connecting.decrementAndGet();
+            } else {
+                this.stats.online.decrementAndGet();
+            }
+
+            this.state = LoadTestBot.State.DISCONNECTED;
+            if (!this.stopping) {
+                this.stats.recordDisconnect(this.name, reason);
+            }
+        }
+    }
+
+    private void respondToCommon(Packet<?> packet) {
+        if (packet instanceof ClientboundKeepAlivePacket clientboundkeepalivepacket) {
+            this.connection.send(new ServerboundKeepAlivePacket(clientboundkeepalivepacket.getId()));
+        } else if (packet instanceof ClientboundPingPacket clientboundpingpacket) {
+            this.connection.send(new ServerboundPongPacket(clientboundpingpacket.getId()));
+        } else if (packet instanceof ClientboundDisconnectPacket clientbounddisconnectpacket) {
+            this.connection.disconnect(clientbounddisconnectpacket.reason());
+        }
+    }
+
+    abstract class CommonListener {
+        public void handleKeepAlive(ClientboundKeepAlivePacket packet) {
+            LoadTestBot.this.respondToCommon(packet);
+        }
+
+        public void handlePing(ClientboundPingPacket packet) {
+            LoadTestBot.this.respondToCommon(packet);
+        }
+
+        public void handleDisconnect(ClientboundDisconnectPacket packet) {
+            LoadTestBot.this.respondToCommon(packet);
+        }
+
+        public void handleCustomPayload(ClientboundCustomPayloadPacket packet) {
+        }
+
+        public void handleResourcePackPush(ClientboundResourcePackPushPacket packet) {
+            LoadTestBot.this.connection.send(new ServerboundResourcePackPacket(packet.id(), ServerboundResourcePackPacket.Action.ACCEPTED));
+            LoadTestBot.this.connection.send(new ServerboundResourcePackPacket(packet.id(), ServerboundResourcePackPacket.Action.SUCCESSFULLY_LOADED));
+        }
+
+        public void handleResourcePackPop(ClientboundResourcePackPopPacket packet) {
+        }
+
+        public void handleUpdateTags(ClientboundUpdateTagsPacket packet) {
+        }
+
+        public void handleStoreCookie(ClientboundStoreCookiePacket packet) {
+        }
+
+        public void handleRequestCookie(ClientboundCookieRequestPacket packet) {
+            LoadTestBot.this.connection.send(new ServerboundCookieResponsePacket(packet.key(), null));
+        }
+
+        public void handleTransfer(ClientboundTransferPacket packet) {
+            LoadTestBot.this.connection.disconnect(Component.literal("Load test bots do not follow transfers"));
+        }
+
+        public void handleCustomReportDetails(ClientboundCustomReportDetailsPacket packet) {
+        }
+
+        public void handleServerLinks(ClientboundServerLinksPacket packet) {
+        }
+
+        public void onDisconnect(DisconnectionDetails details) {
+            LoadTestBot.this.onDisconnected(details.reason());
+        }
+
+        public boolean isAcceptingMessages() {
+            return LoadTestBot.this.connection.isConnected();
+        }
+    }
+
+    class ConfigurationListener extends LoadTestBot.CommonListener implements ClientConfigurationPacketListener {
+        @Override
+        public void handleConfigurationFinished(ClientboundFinishConfigurationPacket packet) {
+            LoadTestBot.this.tasks.add(LoadTestBot.this::enterGame);
+        }
+
+        @Override
+        public void handleRegistryData(ClientboundRegistryDataPacket packet) {
+        }
+
+        @Override
+        public void handleEnabledFeatures(ClientboundUpdateEnabledFeaturesPacket packet) {
+        }
+
+        @Override
+        public void handleSelectKnownPacks(ClientboundSelectKnownPacks packet) {
+            LoadTestBot.this.connection.send(new ServerboundSelectKnownPacks(packet.knownPacks()));
+        }
+
+        @Override
+        public void handleResetChat(ClientboundResetChatPacket packet) {
+        }
+    }
+
+    class GameListener implements LoadTestGameProtocol.Listener {
+        @Override
+        public void handleReceived(LoadTestGameProtocol.ReceivedPacket received) {
+            Packet<?> packet = received.packet();
+            if (packet instanceof ClientboundChunkBatchStartPacket) {
+                LoadTestBot.this.batchStart = System.nanoTime();
+            } else if (packet instanceof ClientboundChunkBatchFinishedPacket) {
+                LoadTestBot.this.onChunkBatchFinished();
+            } else if (packet instanceof ClientboundSetTimePacket clientboundsettimepacket) {
+                LoadTestBot.this.stats.recordGameTime(clientboundsettimepacket.getGameTime());
+            } else if (packet instanceof ClientboundDebugSamplePacket clientbounddebugsamplepacket) {
+                LoadTestBot.this.stats.recordTickSample(clientbounddebugsamplepacket.sample());
+            } else if (packet instanceof ClientboundPlayerPositionPacket clientboundplayerpositionpacket) {
+                LoadTestBot.this.tasks.add(() -> LoadTestBot.this.teleport(clientboundplayerpositionpacket));
+            } else if (packet instanceof ClientboundStartConfigurationPacket) {
+                LoadTestBot.this.tasks.add(LoadTestBot.this::reconfigure);
+            } else if (packet != null) {
+                LoadTestBot.this.respondToCommon(packet);
+            }
+        }
+
+        @Override
+        public void onDisconnect(DisconnectionDetails details) {
+            LoadTestBot.this.onDisconnected(details.reason());
+        }
+
+        @Override
+        public boolean isAcceptingMessages() {
+            return LoadTestBot.this.connection.isConnected();
+        }
+    }
+
+    class LoginListener implements ClientLoginPacketListener {
+        @Override
+        public void handleHello(ClientboundHelloPacket packet) {
+            LoadTestBot.this.connection.disconnect(Component.literal("Load test bots require a server with online-mode=false"));
+        }
+
+        @Override
+        public void handleGameProfile(ClientboundGameProfilePacket packet) {
+            LoadTestBot.this.tasks.add(LoadTestBot.this::startConfiguration);
+        }
+
+        @Override
+        public void handleDisconnect(ClientboundLoginDisconnectPacket packet) {
+            LoadTestBot.this.connection.disconnect(packet.getReason());
+        }
+
+        @Override
+        public void handleCompression(ClientboundLoginCompressionPacket packet) {
+            LoadTestBot.this.connection.setupCompression(packet.getCompressionThreshold(), false);
+        }
+
+        @Override
+        public void handleCustomQuery(ClientboundCustomQueryPacket packet) {
+            LoadTestBot.this.connection.send(new ServerboundCustomQueryAnswerPacket(packet.transactionId(), null));
+        }
+
+        @Override
+        public void handleRequestCookie(ClientboundCookieRequestPacket packet) {
+            LoadTestBot.this.connection.send(new ServerboundCookieResponsePacket(packet.key(), null));
+        }
+
+        @Override
+        public void onDisconnect(DisconnectionDetails details) {
+            LoadTestBot.this.onDisconnected(details.reason());
+        }
+
+        @Override
+        public boolean isAcceptingMessages() {
+            return LoadTestBot.this.connection.isConnected();
+        }
+    }
+
+    public static enum Path implements StringRepresentable {
+        CIRCLE("circle") {
+            @Override
+            Vec3 offset(double distance, double radius, double heading) {
+                double d0 = distance / radius + heading;
+                return new Vec3(radius * (Math.cos(d0) - Math.cos(heading)), 0.0, radius * (Math.sin(d0) - Math.sin(heading)));
+            }
+        },
+        LINE("line") {
+            @Override
+            Vec3 offset(double distance, double radius, double heading) {
+                double d0 = distance % (radius * 2.0);
+                double d1 = d0 > radius ? radius * 2.0 - d0 : d0;
+                return new Vec3(Math.cos(heading) * d1, 0.0, Math.sin(heading) * d1);
+            }
+        };
+
+        public static final StringRepresentable.EnumCodec<LoadTestBot.Path> CODEC = StringRepresentable.fromEnum(LoadTestBot.Path::values);
+        private final String name;
+
+        Path(final String name) {
+            this.name = name;
+        }
+
+        abstract Vec3 offset(double distance, double radius, double heading);
+
+        @Override
+        public String getSerializedName() {
+            return this.name;
+        }
+    }
+
+    static enum State {
+        CONNECTING,
+        PLAYING,
+        DISCONNECTED;
+    }
+}
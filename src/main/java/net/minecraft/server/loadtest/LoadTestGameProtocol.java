@@ -0,0 +1,133 @@
+package net.minecraft.server.loadtest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.DecoderException;
+import java.util.Set;
+import javax.annotation.Nullable;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.ClientboundPacketListener;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.VarInt;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.BundlerInfo;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.PacketType;
+import net.minecraft.network.protocol.common.CommonPacketTypes;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.GamePacketTypes;
+import net.minecraft.network.protocol.game.GameProtocols;
+
+public class LoadTestGameProtocol implements ProtocolInfo<LoadTestGameProtocol.Listener> {
+    private static final Set<PacketType<?>> DECODED_PACKETS = Set.of(
+        CommonPacketTypes.CLIENTBOUND_DISCONNECT,
+        CommonPacketTypes.CLIENTBOUND_KEEP_ALIVE,
+        CommonPacketTypes.CLIENTBOUND_PING,
+        GamePacketTypes.CLIENTBOUND_CHUNK_BATCH_START,
+        GamePacketTypes.CLIENTBOUND_CHUNK_BATCH_FINISHED,
+        GamePacketTypes.CLIENTBOUND_DEBUG_SAMPLE,
+        GamePacketTypes.CLIENTBOUND_PLAYER_POSITION,
+        GamePacketTypes.CLIENTBOUND_SET_TIME,
+        GamePacketTypes.CLIENTBOUND_START_CONFIGURATION
+    );
+    private final ProtocolInfo<ClientGamePacketListener> delegate;
+    private final PacketType<?>[] packetTypes;
+    private final boolean[] decoded;
+    private final StreamCodec<ByteBuf, Packet<? super LoadTestGameProtocol.Listener>> codec;
+
+    public LoadTestGameProtocol(RegistryAccess registryAccess, LoadTestStats stats) {
+        this.delegate = GameProtocols.CLIENTBOUND_TEMPLATE.bind(RegistryFriendlyByteBuf.decorator(registryAccess));
+        this.packetTypes = listPacketTypes();
+        this.decoded = new boolean[this.packetTypes.length];
+
+        for (int i = 0; i < this.packetTypes.length; i++) {
+            this.decoded[i] = DECODED_PACKETS.contains(this.packetTypes[i]);
+        }
+
+        this.codec = new StreamCodec<ByteBuf, Packet<? super LoadTestGameProtocol.Listener>>() {
+            @Override
+            public Packet<? super LoadTestGameProtocol.Listener> decode(ByteBuf buffer) {
+                int i = buffer.readableBytes();
+                int j = VarInt.read(buffer.duplicate());
+                if (j < 0 || j >= LoadTestGameProtocol.this.packetTypes.length) {
+                    throw new DecoderException("Received unknown packet id " + j);
+                } else {
+                    stats.recordReceived(j, i);
+                    if (LoadTestGameProtocol.this.decoded[j]) {
+                        return new LoadTestGameProtocol.ReceivedPacket(LoadTestGameProtocol.this.packetTypes[j], LoadTestGameProtocol.this.delegate.codec().decode(buffer));
+                    } else {
+                        buffer.skipBytes(i);
+                        return new LoadTestGameProtocol.ReceivedPacket(LoadTestGameProtocol.this.packetTypes[j], null);
+                    }
+                }
+            }
+
+            @Override
+            public void encode(ByteBuf buffer, Packet<? super LoadTestGameProtocol.Listener> packet) {
+                throw new UnsupportedOperationException("Load test bots do not send clientbound packets");
+            }
+        };
+    }
+
+    public static PacketType<?>[] listPacketTypes() {
+        PacketType<?>[] apackettype = new PacketType<?>[256];
+        int[] aint = new int[1];
+        GameProtocols.CLIENTBOUND_TEMPLATE.listPackets((type, id) -> {
+            apackettype[id] = type;
+            aint[0] = Math.max(aint[0], id + 1);
+        });
+        PacketType<?>[] apackettype1 = new PacketType<?>[aint[0]];
+        System.arraycopy(apackettype, 0, apackettype1, 0, aint[0]);
+        return apackettype1;
+    }
+
+    @Override
+    public ConnectionProtocol id() {
+        return ConnectionProtocol.PLAY;
+    }
+
+    @Override
+    public PacketFlow flow() {
+        return PacketFlow.CLIENTBOUND;
+    }
+
+    @Override
+    public StreamCodec<ByteBuf, Packet<? super LoadTestGameProtocol.Listener>> codec() {
+        return this.codec;
+    }
+
+    @Nullable
+    @Override
+    public BundlerInfo bundlerInfo() {
+        return null;
+    }
+
+    public interface Listener extends ClientboundPacketListener {
+        @Override
+        default ConnectionProtocol protocol() {
+            return ConnectionProtocol.PLAY;
+        }
+
+        void handleReceived(LoadTestGameProtocol.ReceivedPacket packet);
+    }
+
+    public static record ReceivedPacket(PacketType<?> packetType, @Nullable Packet<?> packet) implements Packet<LoadTestGameProtocol.Listener> {
+        @SuppressWarnings("unchecked")
+        @Override
+        public PacketType<LoadTestGameProtocol.ReceivedPacket> type() {
+            return (PacketType<LoadTestGameProtocol.ReceivedPacket>)this.packetType;
+        }
+
+        @Override
+        public void handle(LoadTestGameProtocol.Listener listener) {
+            listener.handleReceived(this);
+        }
+
+        @Override
+        public boolean isTerminal() {
+            return this.packet != null && this.packet.isTerminal();
+        }
+    }
+}
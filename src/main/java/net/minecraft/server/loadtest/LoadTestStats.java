@@ -0,0 +1,191 @@
+package net.minecraft.server.loadtest;
+
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.PacketType;
+import net.minecraft.util.debugchart.TpsDebugDimensions;
+import org.slf4j.Logger;
+
+public class LoadTestStats {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int MAX_LOGGED_DISCONNECTS = 10;
+    private final PacketType<?>[] packetTypes;
+    private final LongAdder[] packetCounts;
+    private final LongAdder[] packetBytes;
+    final AtomicInteger connecting = new AtomicInteger();
+    final AtomicInteger online = new AtomicInteger();
+    private final AtomicLong disconnects = new AtomicLong();
+    final LoadTestStats.Samples loginLatency = new LoadTestStats.Samples();
+    final LoadTestStats.Samples firstChunksLatency = new LoadTestStats.Samples();
+    final LoadTestStats.Samples chunkBatchLatency = new LoadTestStats.Samples();
+    private final LoadTestStats.Samples tickTimes = new LoadTestStats.Samples();
+    private long gameTime = -1L;
+    private long gameTimeNanos;
+    private long reportedGameTime = -1L;
+    private long reportedGameTimeNanos;
+    private double lastTps;
+
+    public LoadTestStats() {
+        this.packetTypes = LoadTestGameProtocol.listPacketTypes();
+        this.packetCounts = new LongAdder[this.packetTypes.length];
+        this.packetBytes = new LongAdder[this.packetTypes.length];
+
+        for (int i = 0; i < this.packetTypes.length; i++) {
+            this.packetCounts[i] = new LongAdder();
+            this.packetBytes[i] = new LongAdder();
+        }
+    }
+
+    public void recordReceived(int packetId, int uncompressedBytes) {
+        this.packetCounts[packetId].increment();
+        this.packetBytes[packetId].add((long)uncompressedBytes);
+    }
+
+    public void recordDisconnect(String botName, Component reason) {
+        if (this.disconnects.getAndIncrement() < (long)MAX_LOGGED_DISCONNECTS) {
+            LOGGER.warn("{} was disconnected: {}", botName, reason.getString());
+        }
+    }
+
+    public synchronized void recordGameTime(long time) {
+        if (time > this.gameTime) {
+            this.gameTime = time;
+            this.gameTimeNanos = System.nanoTime();
+        }
+    }
+
+    public void recordTickSample(long[] sample) {
+        if (sample.length > TpsDebugDimensions.FULL_TICK.ordinal()) {
+            this.tickTimes.record(sample[TpsDebugDimensions.FULL_TICK.ordinal()]);
+        }
+    }
+
+    private synchronized double updateTps() {
+        if (this.reportedGameTime >= 0L && this.gameTimeNanos > this.reportedGameTimeNanos) {
+            this.lastTps = (double)(this.gameTime - this.reportedGameTime) * 1.0E9 / (double)(this.gameTimeNanos - this.reportedGameTimeNanos);
+        }
+
+        this.reportedGameTime = this.gameTime;
+        this.reportedGameTimeNanos = this.gameTimeNanos;
+        return this.lastTps;
+    }
+
+    public void logInterval() {
+        LOGGER.info(
+            "{} bots online, {} connecting, {} disconnected | TPS {} | MSPT {}",
+            this.online.get(),
+            this.connecting.get(),
+            this.disconnects.get(),
+            String.format(Locale.ROOT, "%.2f", this.updateTps()),
+            this.tickTimes.describeInterval()
+        );
+        LOGGER.info(
+            "Login {} | First chunks {} | Chunk batches {}",
+            this.loginLatency.describeInterval(),
+            this.firstChunksLatency.describeInterval(),
+            this.chunkBatchLatency.describeInterval()
+        );
+        this.loginLatency.resetInterval();
+        this.firstChunksLatency.resetInterval();
+        this.chunkBatchLatency.resetInterval();
+        this.tickTimes.resetInterval();
+    }
+
+    public void logSummary(double seconds) {
+        LOGGER.info("Load test finished after {} seconds with {} disconnects", String.format(Locale.ROOT, "%.1f", seconds), this.disconnects.get());
+        LOGGER.info("Tick time: {}", this.tickTimes.describeTotal());
+        LOGGER.info("Login: {}", this.loginLatency.describeTotal());
+        LOGGER.info("First chunks: {}", this.firstChunksLatency.describeTotal());
+        LOGGER.info("Chunk batches: {}", this.chunkBatchLatency.describeTotal());
+        IntList intlist = new IntArrayList();
+        long i = 0L;
+
+        for (int j = 0; j < this.packetTypes.length; j++) {
+            if (this.packetCounts[j].sum() > 0L) {
+                intlist.add(j);
+                i += this.packetBytes[j].sum();
+            }
+        }
+
+        intlist.sort((int left, int right) -> Long.compare(this.packetBytes[right].sum(), this.packetBytes[left].sum()));
+        LOGGER.info("Received {} uncompressed in play, {} per second", formatBytes(i), formatBytes((long)((double)i / Math.max(seconds, 1.0))));
+
+        for (int k : intlist) {
+            long l = this.packetCounts[k].sum();
+            long i1 = this.packetBytes[k].sum();
+            LOGGER.info(
+                "  {}: {} packets, {} uncompressed, {} average",
+                this.packetTypes[k].id().getPath(),
+                l,
+                formatBytes(i1),
+                formatBytes(i1 / l)
+            );
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1048576L) {
+            return String.format(Locale.ROOT, "%.1f MiB", (double)bytes / 1048576.0);
+        } else {
+            return bytes >= 1024L ? String.format(Locale.ROOT, "%.1f KiB", (double)bytes / 1024.0) : bytes + " B";
+        }
+    }
+
+    static class Samples {
+        private final LongArrayList interval = new LongArrayList();
+        private final LongArrayList total = new LongArrayList();
+
+        public synchronized void record(long nanos) {
+            this.interval.add(nanos);
+            this.total.add(nanos);
+        }
+
+        synchronized void resetInterval() {
+            this.interval.clear();
+        }
+
+        synchronized String describeInterval() {
+            return describe(this.interval);
+        }
+
+        synchronized String describeTotal() {
+            return describe(this.total);
+        }
+
+        private static String describe(LongArrayList samples) {
+            if (samples.isEmpty()) {
+                return "n/a";
+            } else {
+                long[] along = samples.toLongArray();
+                Arrays.sort(along);
+                long i = 0L;
+
+                for (long j : along) {
+                    i += j;
+                }
+
+                return String.format(
+                    Locale.ROOT,
+                    "avg %.1f ms, p50 %.1f ms, p99 %.1f ms, max %.1f ms (%d)",
+                    (double)i / (double)along.length / 1000000.0,
+                    (double)along[percentileIndex(along.length, 0.5)] / 1000000.0,
+                    (double)along[percentileIndex(along.length, 0.99)] / 1000000.0,
+                    (double)along[along.length - 1] / 1000000.0,
+                    along.length
+                );
+            }
+        }
+
+        private static int percentileIndex(int count, double percentile) {
+            return Math.max(0, Math.min((int)Math.ceil((double)count * percentile) - 1, count - 1));
+        }
+    }
+}
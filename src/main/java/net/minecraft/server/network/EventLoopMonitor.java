@@ -0,0 +1,194 @@
+package net.minecraft.server.network;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
+
+public class EventLoopMonitor implements ProfilerMeasured {
+    private static final long PROBE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1L);
+    private static final long[] LATENCY_BUCKETS_MICROS = new long[]{50L, 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L, 25000L, 50000L};
+    private static final int PROBES_PER_WINDOW = 60;
+    private final String name;
+    private final Map<EventExecutor, EventLoopMonitor.LoopStats> loops = new IdentityHashMap<>();
+    private final List<EventLoopMonitor.LoopStats> orderedLoops;
+    private long lastProbe;
+
+    public EventLoopMonitor(String name, EventLoopGroup group) {
+        this.name = name;
+        ImmutableList.Builder<EventLoopMonitor.LoopStats> builder = ImmutableList.builder();
+        int i = 0;
+
+        for (EventExecutor eventexecutor : group) {
+            EventLoopMonitor.LoopStats eventloopmonitor$loopstats = new EventLoopMonitor.LoopStats(i++, eventexecutor);
+            this.loops.put(eventexecutor, eventloopmonitor$loopstats);
+            builder.add(eventloopmonitor$loopstats);
+        }
+
+        this.orderedLoops = builder.build();
+        MetricsRegistry.INSTANCE.add(this);
+    }
+
+    public void connectionOpened(Channel channel) {
+        EventLoopMonitor.LoopStats eventloopmonitor$loopstats = this.getStats(channel.eventLoop());
+        if (eventloopmonitor$loopstats != null) {
+            eventloopmonitor$loopstats.connections.incrementAndGet();
+            channel.closeFuture().addListener(future -> eventloopmonitor$loopstats.connections.decrementAndGet());
+        }
+    }
+
+    public void tick() {
+        long i = System.nanoTime();
+        if (i - this.lastProbe >= PROBE_INTERVAL_NANOS) {
+            this.lastProbe = i;
+
+            for (EventLoopMonitor.LoopStats eventloopmonitor$loopstats : this.orderedLoops) {
+                eventloopmonitor$loopstats.probe();
+            }
+        }
+    }
+
+    @Nullable
+    private EventLoopMonitor.LoopStats getStats(EventLoop loop) {
+        return this.loops.get(loop);
+    }
+
+    public List<EventLoopMonitor.LoopStats> getLoops() {
+        return this.orderedLoops;
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        ImmutableList.Builder<MetricSampler> builder = ImmutableList.builder();
+
+        for (EventLoopMonitor.LoopStats eventloopmonitor$loopstats : this.orderedLoops) {
+            String s = this.name + "-" + eventloopmonitor$loopstats.index;
+            builder.add(MetricSampler.create(s + "-connections", MetricCategory.NETWORK, () -> (double)eventloopmonitor$loopstats.getConnections()));
+            builder.add(MetricSampler.create(s + "-latency-p50", MetricCategory.NETWORK, () -> eventloopmonitor$loopstats.getLatencyPercentileMillis(0.5)));
+            builder.add(MetricSampler.create(s + "-latency-p99", MetricCategory.NETWORK, () -> eventloopmonitor$loopstats.getLatencyPercentileMillis(0.99)));
+        }
+
+        return builder.build();
+    }
+
+    public static class LoopStats {
+        final int index;
+        private final EventExecutor executor;
+        final AtomicInteger connections = new AtomicInteger();
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS_MICROS.length + 1);
+        private final AtomicLong maxLatencyMicros = new AtomicLong();
+        private volatile long[] previousHistogram = new long[LATENCY_BUCKETS_MICROS.length + 1];
+        private volatile long previousMaxLatencyMicros;
+        private int windowProbes;
+        private final AtomicBoolean probePending = new AtomicBoolean();
+
+        LoopStats(int index, EventExecutor executor) {
+            this.index = index;
+            this.executor = executor;
+        }
+
+        void probe() {
+            if (++this.windowProbes >= PROBES_PER_WINDOW) {
+                this.windowProbes = 0;
+                this.rollWindow();
+            }
+
+            if (this.probePending.compareAndSet(false, true)) {
+                long i = System.nanoTime();
+
+                try {
+                    this.executor.execute(() -> {
+                        this.recordLatency(System.nanoTime() - i);
+                        this.probePending.set(false);
+                    });
+                } catch (RuntimeException runtimeexception) {
+                    this.probePending.set(false);
+                }
+            }
+        }
+
+        private void rollWindow() {
+            long[] along = new long[this.latencyHistogram.length()];
+
+            for (int i = 0; i < along.length; i++) {
+                along[i] = this.latencyHistogram.getAndSet(i, 0L);
+            }
+
+            this.previousHistogram = along;
+            this.previousMaxLatencyMicros = this.maxLatencyMicros.getAndSet(0L);
+        }
+
+        private void recordLatency(long nanos) {
+            long i = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int j = 0;
+
+            while (j < LATENCY_BUCKETS_MICROS.length && i > LATENCY_BUCKETS_MICROS[j]) {
+                j++;
+            }
+
+            this.latencyHistogram.incrementAndGet(j);
+            this.maxLatencyMicros.accumulateAndGet(i, Math::max);
+        }
+
+        public int getIndex() {
+            return this.index;
+        }
+
+        public int getConnections() {
+            return this.connections.get();
+        }
+
+        public long[] getLatencyHistogram() {
+            long[] along = this.previousHistogram.clone();
+
+            for (int i = 0; i < along.length; i++) {
+                along[i] += this.latencyHistogram.get(i);
+            }
+
+            return along;
+        }
+
+        public double getMaxLatencyMillis() {
+            return (double)Math.max(this.previousMaxLatencyMicros, this.maxLatencyMicros.get()) / 1000.0;
+        }
+
+        public double getLatencyPercentileMillis(double percentile) {
+            long[] along = this.getLatencyHistogram();
+            long i = 0L;
+
+            for (long j : along) {
+                i += j;
+            }
+
+            if (i == 0L) {
+                return 0.0;
+            } else {
+                long k = (long)Math.ceil((double)i * percentile);
+                long l = 0L;
+
+                for (int i1 = 0; i1 < LATENCY_BUCKETS_MICROS.length; i1++) {
+                    l += along[i1];
+                    if (l >= k) {
+                        return (double)LATENCY_BUCKETS_MICROS[i1] / 1000.0;
+                    }
+                }
+
+                return this.getMaxLatencyMillis();
+            }
+        }
+    }
+}
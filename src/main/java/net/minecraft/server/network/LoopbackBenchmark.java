@@ -0,0 +1,185 @@
+package net.minecraft.server.network;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.Connection;
+import net.minecraft.network.DisconnectionDetails;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.ping.ClientboundPongResponsePacket;
+import net.minecraft.network.protocol.ping.ServerboundPingRequestPacket;
+import net.minecraft.network.protocol.status.ClientStatusPacketListener;
+import net.minecraft.network.protocol.status.ClientboundStatusResponsePacket;
+import net.minecraft.network.protocol.status.ServerboundStatusRequestPacket;
+import net.minecraft.server.Bootstrap;
+import org.slf4j.Logger;
+
+public class LoopbackBenchmark {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final long RESPONSE_TIMEOUT_MS = 10000L;
+    private final InetSocketAddress address;
+    private final int clients;
+    private final long durationNanos;
+    private final boolean useEpoll;
+    private final LongArrayList statusLatencies = new LongArrayList();
+    private final LongArrayList pingLatencies = new LongArrayList();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public LoopbackBenchmark(InetSocketAddress address, int clients, long durationNanos, boolean useEpoll) {
+        this.address = address;
+        this.clients = clients;
+        this.durationNanos = durationNanos;
+        this.useEpoll = useEpoll;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SharedConstants.tryDetectVersion();
+        OptionParser optionparser = new OptionParser();
+        OptionSpec<Void> optionspec = optionparser.accepts("help").forHelp();
+        OptionSpec<String> optionspec1 = optionparser.accepts("host", "Address of the server under test").withRequiredArg().defaultsTo("127.0.0.1");
+        OptionSpec<Integer> optionspec2 = optionparser.accepts("port", "Port of the server under test").withRequiredArg().ofType(Integer.class).defaultsTo(25565);
+        OptionSpec<Integer> optionspec3 = optionparser.accepts("clients", "Number of concurrent simulated clients")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(100);
+        OptionSpec<Integer> optionspec4 = optionparser.accepts("seconds", "How long to run the benchmark for")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(30);
+        OptionSpec<Void> optionspec5 = optionparser.accepts("nio", "Use NIO client channels even when epoll is available");
+        OptionSet optionset = optionparser.parse(args);
+        if (optionset.has(optionspec)) {
+            optionparser.printHelpOn(System.out);
+        } else {
+            Bootstrap.bootStrap();
+            new LoopbackBenchmark(
+                    new InetSocketAddress(optionset.valueOf(optionspec1), optionset.valueOf(optionspec2)),
+                    Math.max(optionset.valueOf(optionspec3), 1),
+                    TimeUnit.SECONDS.toNanos((long)Math.max(optionset.valueOf(optionspec4), 1)),
+                    !optionset.has(optionspec5)
+                )
+                .run();
+        }
+    }
+
+    public void run() throws InterruptedException {
+        LOGGER.info("Running {} loopback clients against {} for {} seconds", this.clients, this.address, TimeUnit.NANOSECONDS.toSeconds(this.durationNanos));
+        ExecutorService executorservice = Executors.newFixedThreadPool(
+            this.clients, new ThreadFactoryBuilder().setNameFormat("Loopback Client #%d").setDaemon(true).build()
+        );
+        long i = System.nanoTime() + this.durationNanos;
+
+        for (int j = 0; j < this.clients; j++) {
+            executorservice.execute(() -> {
+                while (System.nanoTime() < i) {
+                    this.runCycle();
+                }
+            });
+        }
+
+        executorservice.shutdown();
+        executorservice.awaitTermination(this.durationNanos + TimeUnit.MILLISECONDS.toNanos(RESPONSE_TIMEOUT_MS * 2L), TimeUnit.NANOSECONDS);
+        this.report();
+    }
+
+    private void runCycle() {
+        long i = System.nanoTime();
+        CompletableFuture<Void> completablefuture = new CompletableFuture<>();
+
+        try {
+            Connection connection = Connection.connectToServer(this.address, this.useEpoll, null);
+            connection.initiateServerboundStatusConnection(this.address.getHostString(), this.address.getPort(), new ClientStatusPacketListener() {
+                private long pingStart;
+
+                @Override
+                public void handleStatusResponse(ClientboundStatusResponsePacket packet) {
+                    LoopbackBenchmark.this.record(LoopbackBenchmark.this.statusLatencies, System.nanoTime() - i);
+                    this.pingStart = System.nanoTime();
+                    connection.send(new ServerboundPingRequestPacket(this.pingStart));
+                }
+
+                @Override
+                public void handlePongResponse(ClientboundPongResponsePacket packet) {
+                    LoopbackBenchmark.this.record(LoopbackBenchmark.this.pingLatencies, System.nanoTime() - this.pingStart);
+                    completablefuture.complete(null);
+                }
+
+                @Override
+                public void onDisconnect(DisconnectionDetails details) {
+                    completablefuture.completeExceptionally(new IllegalStateException(details.reason().getString()));
+                }
+
+                @Override
+                public boolean isAcceptingMessages() {
+                    return connection.isConnected();
+                }
+            });
+            connection.send(ServerboundStatusRequestPacket.INSTANCE);
+
+            try {
+                completablefuture.get(RESPONSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                this.completed.incrementAndGet();
+            } finally {
+                connection.disconnect(Component.literal("Benchmark cycle finished"));
+            }
+        } catch (Exception exception) {
+            if (this.failed.getAndIncrement() == 0L) {
+                LOGGER.warn("Loopback client cycle failed", exception);
+            }
+        }
+    }
+
+    private void record(LongArrayList latencies, long nanos) {
+        synchronized (latencies) {
+            latencies.add(nanos);
+        }
+    }
+
+    private void report() {
+        double d0 = (double)this.durationNanos / 1.0E9;
+        LOGGER.info(
+            "Completed {} status cycles ({} per second), {} failed", this.completed.get(), String.format(Locale.ROOT, "%.1f", (double)this.completed.get() / d0), this.failed.get()
+        );
+        LOGGER.info("Handshake to status response: {}", describeLatencies(this.statusLatencies));
+        LOGGER.info("Ping round trip: {}", describeLatencies(this.pingLatencies));
+    }
+
+    private static String describeLatencies(LongArrayList latencies) {
+        long[] along;
+        synchronized (latencies) {
+            along = latencies.toLongArray();
+        }
+
+        if (along.length == 0) {
+            return "no samples";
+        } else {
+            Arrays.sort(along);
+            return String.format(
+                Locale.ROOT,
+                "p50 %.2f ms, p99 %.2f ms, max %.2f ms over %d samples",
+                (double)percentile(along, 0.5) / 1000000.0,
+                (double)percentile(along, 0.99) / 1000000.0,
+                (double)along[along.length - 1] / 1000000.0,
+                along.length
+            );
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int i = (int)Math.ceil((double)sorted.length * percentile) - 1;
+        return sorted[Math.max(0, Math.min(i, sorted.length - 1))];
+    }
+}
@@ -1,12 +1,19 @@
 package net.minecraft.server.network;
 
 import com.google.common.collect.Comparators;
+import com.google.common.collect.ImmutableList;
 import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.ToDoubleFunction;
+import net.minecraft.Util;
+import net.minecraft.network.Connection;
 import net.minecraft.network.protocol.game.ClientboundChunkBatchFinishedPacket;
 import net.minecraft.network.protocol.game.ClientboundChunkBatchStartPacket;
 import net.minecraft.network.protocol.game.ClientboundForgetLevelChunkPacket;
@@ -16,6 +23,10 @@ import net.minecraft.server.level.ChunkMap;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.util.Mth;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.LevelChunk;
 import org.slf4j.Logger;
@@ -26,15 +37,40 @@ public class PlayerChunkSender {
     public static final float MAX_CHUNKS_PER_TICK = 64.0F;
     private static final float START_CHUNKS_PER_TICK = 9.0F;
     private static final int MAX_UNACKNOWLEDGED_BATCHES = 10;
+    private static final float START_BYTES_PER_CHUNK = 16384.0F;
+    private static final float BYTES_PER_CHUNK_SMOOTHING = 0.25F;
+    private static final float RATE_SMOOTHING = 0.1F;
+    private static final float MIN_BANDWIDTH_SCALE = 0.1F;
+    private static final float BANDWIDTH_RECOVERY_PER_TICK = 0.05F;
+    private static final double MOTION_SMOOTHING = 0.2;
+    private static final double TELEPORT_DISTANCE_SQR = 256.0;
+    private static final double MIN_DIRECTIONAL_SPEED = 0.05;
+    private static final double LOOKAHEAD_SECONDS = 2.0;
+    private static final double MAX_LOOKAHEAD_CHUNKS = 4.0;
+    private static final PlayerChunkSender.Totals TOTALS = Util.make(new PlayerChunkSender.Totals(), MetricsRegistry.INSTANCE::add);
     private final LongSet pendingChunks = new LongOpenHashSet();
+    private final Connection connection;
     private final boolean memoryConnection;
     private float desiredChunksPerTick = 9.0F;
     private float batchQuota;
     private int unacknowledgedBatches;
     private int maxUnacknowledgedBatches = 1;
+    private float bandwidthScale = 1.0F;
+    private float averageBytesPerChunk = START_BYTES_PER_CHUNK;
+    private int lastBatchSize;
+    private long lastBatchBytes;
+    private volatile float chunksPerSecond;
+    private volatile float bytesPerSecond;
+    private boolean hasLastPosition;
+    private double lastX;
+    private double lastZ;
+    private double motionX;
+    private double motionZ;
 
-    public PlayerChunkSender(boolean p_300389_) {
-        this.memoryConnection = p_300389_;
+    public PlayerChunkSender(Connection connection) {
+        this.connection = connection;
+        this.memoryConnection = connection.isMemoryConnection();
+        TOTALS.senders.add(this);
     }
 
     public void markChunkPendingToSend(LevelChunk p_298187_) {
@@ -48,44 +84,97 @@ public class PlayerChunkSender {
     }
 
     public void sendNextChunks(ServerPlayer p_297274_) {
+        this.updateMotion(p_297274_);
+        int i = this.updateBandwidth();
         if (this.unacknowledgedBatches < this.maxUnacknowledgedBatches) {
-            float f = Math.max(1.0F, this.desiredChunksPerTick);
-            this.batchQuota = Math.min(this.batchQuota + this.desiredChunksPerTick, f);
-            if (!(this.batchQuota < 1.0F)) {
+            float f = this.desiredChunksPerTick * this.bandwidthScale;
+            float f1 = Math.max(1.0F, f);
+            this.batchQuota = Math.min(this.batchQuota + f, f1);
+            if (!(this.batchQuota < 1.0F) && i > 0) {
                 if (!this.pendingChunks.isEmpty()) {
                     ServerLevel serverlevel = p_297274_.serverLevel();
                     ChunkMap chunkmap = serverlevel.getChunkSource().chunkMap;
-                    List<LevelChunk> list = this.collectChunksToSend(chunkmap, p_297274_.chunkPosition());
+                    List<LevelChunk> list = this.collectChunksToSend(chunkmap, p_297274_.chunkPosition(), Math.min(Mth.floor(this.batchQuota), i));
                     if (!list.isEmpty()) {
                         ServerGamePacketListenerImpl servergamepacketlistenerimpl = p_297274_.connection;
                         this.unacknowledgedBatches++;
                         servergamepacketlistenerimpl.send(ClientboundChunkBatchStartPacket.INSTANCE);
 
+                        long j = 0L;
+
                         for (LevelChunk levelchunk : list) {
-                            sendChunk(servergamepacketlistenerimpl, serverlevel, levelchunk);
+                            j += (long)sendChunk(servergamepacketlistenerimpl, serverlevel, levelchunk);
                         }
 
                         servergamepacketlistenerimpl.send(new ClientboundChunkBatchFinishedPacket(list.size()));
                         this.batchQuota = this.batchQuota - (float)list.size();
+                        this.lastBatchSize = list.size();
+                        this.lastBatchBytes = j;
                     }
                 }
             }
         }
     }
 
-    private static void sendChunk(ServerGamePacketListenerImpl p_299748_, ServerLevel p_298120_, LevelChunk p_297712_) {
-        p_299748_.send(new ClientboundLevelChunkWithLightPacket(p_297712_, p_298120_.getLightEngine(), null, null));
+    private int updateBandwidth() {
+        if (this.lastBatchSize > 0) {
+            this.averageBytesPerChunk = Mth.lerp(BYTES_PER_CHUNK_SMOOTHING, this.averageBytesPerChunk, (float)this.lastBatchBytes / (float)this.lastBatchSize);
+            this.averageBytesPerChunk = Math.max(this.averageBytesPerChunk, 1.0F);
+        }
+
+        this.chunksPerSecond = Mth.lerp(RATE_SMOOTHING, this.chunksPerSecond, (float)(this.lastBatchSize * 20));
+        this.bytesPerSecond = Mth.lerp(RATE_SMOOTHING, this.bytesPerSecond, (float)(this.lastBatchBytes * 20L));
+        this.lastBatchSize = 0;
+        this.lastBatchBytes = 0L;
+        if (this.memoryConnection) {
+            return Integer.MAX_VALUE;
+        } else if (!this.connection.isChannelWritable()) {
+            this.bandwidthScale = Math.max(this.bandwidthScale * 0.5F, MIN_BANDWIDTH_SCALE);
+            return 0;
+        } else if (this.connection.getPendingWriteBytes() > 0L) {
+            this.bandwidthScale = Math.max(this.bandwidthScale * 0.9F, MIN_BANDWIDTH_SCALE);
+            return Math.max(1, (int)((float)this.connection.getBytesBeforeUnwritable() / this.averageBytesPerChunk));
+        } else {
+            this.bandwidthScale = Math.min(this.bandwidthScale + BANDWIDTH_RECOVERY_PER_TICK, 1.0F);
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private void updateMotion(ServerPlayer player) {
+        double d0 = player.getX();
+        double d1 = player.getZ();
+        if (this.hasLastPosition) {
+            double d2 = d0 - this.lastX;
+            double d3 = d1 - this.lastZ;
+            if (d2 * d2 + d3 * d3 > TELEPORT_DISTANCE_SQR) {
+                this.motionX = 0.0;
+                this.motionZ = 0.0;
+            } else {
+                this.motionX = Mth.lerp(MOTION_SMOOTHING, this.motionX, d2);
+                this.motionZ = Mth.lerp(MOTION_SMOOTHING, this.motionZ, d3);
+            }
+        }
+
+        this.hasLastPosition = true;
+        this.lastX = d0;
+        this.lastZ = d1;
+    }
+
+    private static int sendChunk(ServerGamePacketListenerImpl p_299748_, ServerLevel p_298120_, LevelChunk p_297712_) {
+        ClientboundLevelChunkWithLightPacket clientboundlevelchunkwithlightpacket = p_298120_.getChunkSource().chunkMap.getChunkPacket(p_297712_);
+        p_299748_.send(clientboundlevelchunkwithlightpacket);
         ChunkPos chunkpos = p_297712_.getPos();
         DebugPackets.sendPoiPacketsForChunk(p_298120_, chunkpos);
+        return clientboundlevelchunkwithlightpacket.estimateSize();
     }
 
-    private List<LevelChunk> collectChunksToSend(ChunkMap p_298180_, ChunkPos p_298514_) {
-        int i = Mth.floor(this.batchQuota);
+    private List<LevelChunk> collectChunksToSend(ChunkMap p_298180_, ChunkPos p_298514_, int maxChunks) {
+        PlayerChunkSender.SendOrigin playerchunksender$sendorigin = this.getSendOrigin(p_298514_);
         List<LevelChunk> list;
-        if (!this.memoryConnection && this.pendingChunks.size() > i) {
+        if (!this.memoryConnection && this.pendingChunks.size() > maxChunks) {
             list = this.pendingChunks
                 .stream()
-                .collect(Comparators.least(i, Comparator.comparingInt(p_298514_::distanceSquared)))
+                .collect(Comparators.least(maxChunks, Comparator.comparingDouble(playerchunksender$sendorigin::distanceSquared)))
                 .stream()
                 .mapToLong(Long::longValue)
                 .mapToObj(p_298180_::getChunkToSend)
@@ -96,7 +185,7 @@ public class PlayerChunkSender {
                 .longStream()
                 .mapToObj(p_298180_::getChunkToSend)
                 .filter(Objects::nonNull)
-                .sorted(Comparator.comparingInt(p_299102_ -> p_298514_.distanceSquared(p_299102_.getPos())))
+                .sorted(Comparator.comparingDouble(p_299102_ -> playerchunksender$sendorigin.distanceSquared(p_299102_.getPos().toLong())))
                 .toList();
         }
 
@@ -107,6 +196,16 @@ public class PlayerChunkSender {
         return list;
     }
 
+    private PlayerChunkSender.SendOrigin getSendOrigin(ChunkPos playerChunk) {
+        double d0 = Math.sqrt(this.motionX * this.motionX + this.motionZ * this.motionZ);
+        if (d0 < MIN_DIRECTIONAL_SPEED) {
+            return new PlayerChunkSender.SendOrigin((double)playerChunk.x, (double)playerChunk.z);
+        } else {
+            double d1 = Math.min(d0 * 20.0 * LOOKAHEAD_SECONDS / 16.0, MAX_LOOKAHEAD_CHUNKS) / d0;
+            return new PlayerChunkSender.SendOrigin((double)playerChunk.x + this.motionX * d1, (double)playerChunk.z + this.motionZ * d1);
+        }
+    }
+
     public void onChunkBatchReceivedByClient(float p_298238_) {
         this.unacknowledgedBatches--;
         this.desiredChunksPerTick = Double.isNaN((double)p_298238_) ? 0.01F : Mth.clamp(p_298238_, 0.01F, 64.0F);
@@ -120,4 +219,34 @@ public class PlayerChunkSender {
     public boolean isPending(long p_299869_) {
         return this.pendingChunks.contains(p_299869_);
     }
-}
\ No newline at end of file
+
+    static class Totals implements ProfilerMeasured {
+        final Set<PlayerChunkSender> senders = Collections.newSetFromMap(new WeakHashMap<>());
+
+        private double sum(ToDoubleFunction<PlayerChunkSender> value) {
+            double d0 = 0.0;
+
+            for (PlayerChunkSender playerchunksender : this.senders) {
+                d0 += value.applyAsDouble(playerchunksender);
+            }
+
+            return d0;
+        }
+
+        @Override
+        public List<MetricSampler> profiledMetrics() {
+            return ImmutableList.of(
+                MetricSampler.create("chunk-send-chunks-per-second", MetricCategory.NETWORK, () -> this.sum(sender -> (double)sender.chunksPerSecond)),
+                MetricSampler.create("chunk-send-bytes-per-second", MetricCategory.NETWORK, () -> this.sum(sender -> (double)sender.bytesPerSecond))
+            );
+        }
+    }
+
+    static record SendOrigin(double x, double z) {
+        public double distanceSquared(long chunkPos) {
+            double d0 = (double)ChunkPos.getX(chunkPos) - this.x;
+            double d1 = (double)ChunkPos.getZ(chunkPos) - this.z;
+            return d0 * d0 + d1 * d1;
+        }
+    }
+}
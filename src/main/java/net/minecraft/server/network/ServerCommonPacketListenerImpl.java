@@ -7,6 +7,7 @@ import net.minecraft.CrashReport;
 import net.minecraft.CrashReportCategory;
 import net.minecraft.ReportedException;
 import net.minecraft.Util;
+import net.minecraft.network.BroadcastPacket;
 import net.minecraft.network.Connection;
 import net.minecraft.network.DisconnectionDetails;
 import net.minecraft.network.PacketSendListener;
@@ -158,6 +159,11 @@ public abstract class ServerCommonPacketListenerImpl implements ServerCommonPack
         }
     }
 
+    public void send(BroadcastPacket broadcast) {
+        boolean flag = !this.suspendFlushingOnServerThread || !this.server.isSameThread();
+        this.connection.send(broadcast, flag);
+    }
+
     public void disconnect(Component p_299122_) {
         this.disconnect(new DisconnectionDetails(p_299122_));
     }
@@ -32,6 +32,7 @@ import java.net.SocketAddress;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
@@ -48,27 +49,54 @@ import org.slf4j.Logger;
 
 public class ServerConnectionListener {
     private static final Logger LOGGER = LogUtils.getLogger();
+    private static volatile ServerConnectionListener.Transport transport = ServerConnectionListener.Transport.AUTO;
+    private static volatile int ioThreads;
+    private static volatile int sendBufferSize;
     public static final Supplier<NioEventLoopGroup> SERVER_EVENT_GROUP = Suppliers.memoize(
-        () -> new NioEventLoopGroup(0, new ThreadFactoryBuilder().setNameFormat("Netty Server IO #%d").setDaemon(true).build())
+        () -> new NioEventLoopGroup(ioThreads, new ThreadFactoryBuilder().setNameFormat("Netty Server IO #%d").setDaemon(true).build())
     );
     public static final Supplier<EpollEventLoopGroup> SERVER_EPOLL_EVENT_GROUP = Suppliers.memoize(
-        () -> new EpollEventLoopGroup(0, new ThreadFactoryBuilder().setNameFormat("Netty Epoll Server IO #%d").setDaemon(true).build())
+        () -> new EpollEventLoopGroup(ioThreads, new ThreadFactoryBuilder().setNameFormat("Netty Epoll Server IO #%d").setDaemon(true).build())
     );
     final MinecraftServer server;
     public volatile boolean running;
     private final List<ChannelFuture> channels = Collections.synchronizedList(Lists.newArrayList());
     final List<Connection> connections = Collections.synchronizedList(Lists.newArrayList());
+    @Nullable
+    private volatile EventLoopMonitor eventLoopMonitor;
 
     public ServerConnectionListener(MinecraftServer p_9707_) {
         this.server = p_9707_;
         this.running = true;
     }
 
+    public static void configureTransport(String name, int threads, int sendBuffer) {
+        transport = ServerConnectionListener.Transport.byName(name);
+        ioThreads = Math.max(threads, 0);
+        sendBufferSize = Math.max(sendBuffer, 0);
+    }
+
+    private boolean useEpoll() {
+        return switch (transport) {
+            case AUTO -> Epoll.isAvailable() && this.server.isEpollEnabled();
+            case NIO -> false;
+            case EPOLL -> {
+                if (!Epoll.isAvailable()) {
+                    LOGGER.warn("Epoll transport was requested but is not available, falling back to the default channel type", Epoll.unavailabilityCause());
+                    yield false;
+                } else {
+                    yield true;
+                }
+            }
+        };
+    }
+
     public void startTcpServerListener(@Nullable InetAddress p_9712_, int p_9713_) throws IOException {
         synchronized (this.channels) {
             Class<? extends ServerSocketChannel> oclass;
             EventLoopGroup eventloopgroup;
-            if (Epoll.isAvailable() && this.server.isEpollEnabled()) {
+            ServerBootstrap serverbootstrap = new ServerBootstrap();
+            if (this.useEpoll()) {
                 oclass = EpollServerSocketChannel.class;
                 eventloopgroup = SERVER_EPOLL_EVENT_GROUP.get();
                 LOGGER.info("Using epoll channel type");
@@ -78,7 +106,12 @@ public class ServerConnectionListener {
                 LOGGER.info("Using default channel type");
             }
 
-            this.channels.add(new ServerBootstrap().channel(oclass).childHandler(new ChannelInitializer<Channel>() {
+            if (this.eventLoopMonitor == null) {
+                this.eventLoopMonitor = new EventLoopMonitor("netty-io", eventloopgroup);
+            }
+
+            final int i = sendBufferSize;
+            this.channels.add(serverbootstrap.channel(oclass).childHandler(new ChannelInitializer<Channel>() {
                 @Override
                 protected void initChannel(Channel p_9729_) {
                     try {
@@ -86,14 +119,26 @@ public class ServerConnectionListener {
                     } catch (ChannelException channelexception) {
                     }
 
+                    if (i > 0) {
+                        try {
+                            p_9729_.config().setOption(ChannelOption.SO_SNDBUF, i);
+                        } catch (ChannelException channelexception1) {
+                        }
+                    }
+
+                    EventLoopMonitor eventloopmonitor = ServerConnectionListener.this.eventLoopMonitor;
+                    if (eventloopmonitor != null) {
+                        eventloopmonitor.connectionOpened(p_9729_);
+                    }
+
                     ChannelPipeline channelpipeline = p_9729_.pipeline().addLast("timeout", new ReadTimeoutHandler(30));
                     if (ServerConnectionListener.this.server.repliesToStatus()) {
                         channelpipeline.addLast("legacy_query", new LegacyQueryHandler(ServerConnectionListener.this.getServer()));
                     }
 
                     Connection.configureSerialization(channelpipeline, PacketFlow.SERVERBOUND, false, null);
-                    int i = ServerConnectionListener.this.server.getRateLimitPacketsPerSecond();
-                    Connection connection = (Connection)(i > 0 ? new RateKickingConnection(i) : new Connection(PacketFlow.SERVERBOUND));
+                    int j = ServerConnectionListener.this.server.getRateLimitPacketsPerSecond();
+                    Connection connection = (Connection)(j > 0 ? new RateKickingConnection(j) : new Connection(PacketFlow.SERVERBOUND));
                     ServerConnectionListener.this.connections.add(connection);
                     connection.configurePacketHandler(channelpipeline);
                     connection.setListenerForServerboundHandshake(new ServerHandshakePacketListenerImpl(ServerConnectionListener.this.server, connection));
@@ -135,6 +180,11 @@ public class ServerConnectionListener {
     }
 
     public void tick() {
+        EventLoopMonitor eventloopmonitor = this.eventLoopMonitor;
+        if (eventloopmonitor != null) {
+            eventloopmonitor.tick();
+        }
+
         synchronized (this.connections) {
             Iterator<Connection> iterator = this.connections.iterator();
 
@@ -173,6 +223,26 @@ public class ServerConnectionListener {
         return this.connections;
     }
 
+    @Nullable
+    public EventLoopMonitor getEventLoopMonitor() {
+        return this.eventLoopMonitor;
+    }
+
+    static enum Transport {
+        AUTO,
+        NIO,
+        EPOLL;
+
+        static ServerConnectionListener.Transport byName(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException illegalargumentexception) {
+                LOGGER.warn("Unknown network transport '{}', using auto", name);
+                return AUTO;
+            }
+        }
+    }
+
     static class LatencySimulator extends ChannelInboundHandlerAdapter {
         private static final Timer TIMER = new HashedWheelTimer();
         private final int delay;
@@ -238,7 +238,7 @@ public class ServerGamePacketListenerImpl
 
     public ServerGamePacketListenerImpl(MinecraftServer p_9770_, Connection p_9771_, ServerPlayer p_9772_, CommonListenerCookie p_300908_) {
         super(p_9770_, p_9771_, p_300908_);
-        this.chunkSender = new PlayerChunkSender(p_9771_.isMemoryConnection());
+        this.chunkSender = new PlayerChunkSender(p_9771_);
         this.player = p_9772_;
         p_9772_.connection = this;
         p_9772_.getTextFilter().join();
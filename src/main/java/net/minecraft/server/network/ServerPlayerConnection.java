@@ -1,5 +1,6 @@
 package net.minecraft.server.network;
 
+import net.minecraft.network.BroadcastPacket;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.server.level.ServerPlayer;
 
@@ -7,4 +8,6 @@ public interface ServerPlayerConnection {
     ServerPlayer getPlayer();
 
     void send(Packet<?> p_143702_);
+
+    void send(BroadcastPacket broadcast);
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.LayeredRegistryAccess;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtOps;
+import net.minecraft.network.BroadcastPacket;
 import net.minecraft.network.Connection;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.chat.ChatType;
@@ -514,16 +515,30 @@ public abstract class PlayerList {
     }
 
     public void broadcastAll(Packet<?> p_11269_) {
-        for (ServerPlayer serverplayer : this.players) {
-            serverplayer.connection.send(p_11269_);
-        }
+        broadcastTo(this.players, p_11269_);
     }
 
     public void broadcastAll(Packet<?> p_11271_, ResourceKey<Level> p_11272_) {
+        List<ServerPlayer> list = Lists.newArrayList();
+
         for (ServerPlayer serverplayer : this.players) {
             if (serverplayer.level().dimension() == p_11272_) {
-                serverplayer.connection.send(p_11271_);
+                list.add(serverplayer);
+            }
+        }
+
+        broadcastTo(list, p_11271_);
+    }
+
+    private static void broadcastTo(List<ServerPlayer> players, Packet<?> packet) {
+        BroadcastPacket broadcastpacket = BroadcastPacket.of(packet, players.size());
+
+        try {
+            for (ServerPlayer serverplayer : players) {
+                serverplayer.connection.send(broadcastpacket);
             }
+        } finally {
+            broadcastpacket.release();
         }
     }
 
@@ -629,6 +644,8 @@ public abstract class PlayerList {
     public void broadcast(
         @Nullable Player p_11242_, double p_11243_, double p_11244_, double p_11245_, double p_11246_, ResourceKey<Level> p_11247_, Packet<?> p_11248_
     ) {
+        List<ServerPlayer> list = Lists.newArrayList();
+
         for (int i = 0; i < this.players.size(); i++) {
             ServerPlayer serverplayer = this.players.get(i);
             if (serverplayer != p_11242_ && serverplayer.level().dimension() == p_11247_) {
@@ -636,10 +653,12 @@ public abstract class PlayerList {
                 double d1 = p_11244_ - serverplayer.getY();
                 double d2 = p_11245_ - serverplayer.getZ();
                 if (d0 * d0 + d1 * d1 + d2 * d2 < p_11246_ * p_11246_) {
-                    serverplayer.connection.send(p_11248_);
+                    list.add(serverplayer);
                 }
             }
         }
+
+        broadcastTo(list, p_11248_);
     }
 
     public void saveAll() {
@@ -27,6 +27,7 @@ public enum DataFixTypes {
     SAVED_DATA_MAP_INDEX(References.SAVED_DATA_MAP_INDEX),
     SAVED_DATA_RAIDS(References.SAVED_DATA_RAIDS),
     SAVED_DATA_RANDOM_SEQUENCES(References.SAVED_DATA_RANDOM_SEQUENCES),
+    SAVED_DATA_STRUCTURE_START_INDEX(References.SAVED_DATA_STRUCTURE_START_INDEX),
     SAVED_DATA_SCOREBOARD(References.SAVED_DATA_SCOREBOARD),
     SAVED_DATA_STRUCTURE_FEATURE_INDICES(References.SAVED_DATA_STRUCTURE_FEATURE_INDICES),
     ADVANCEMENTS(References.ADVANCEMENTS),
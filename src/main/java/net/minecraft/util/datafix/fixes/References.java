@@ -16,6 +16,7 @@ public class References {
     public static final TypeReference SAVED_DATA_MAP_INDEX = reference("saved_data/idcounts");
     public static final TypeReference SAVED_DATA_RAIDS = reference("saved_data/raids");
     public static final TypeReference SAVED_DATA_RANDOM_SEQUENCES = reference("saved_data/random_sequences");
+    public static final TypeReference SAVED_DATA_STRUCTURE_START_INDEX = reference("saved_data/structure_starts");
     public static final TypeReference SAVED_DATA_STRUCTURE_FEATURE_INDICES = reference("saved_data/structure_feature_indices");
     public static final TypeReference SAVED_DATA_SCOREBOARD = reference("saved_data/scoreboard");
     public static final TypeReference ADVANCEMENTS = reference("advancements");
@@ -317,6 +317,7 @@ public class V1460 extends NamespacedSchema {
         p_17660_.registerType(false, References.SAVED_DATA_MAP_INDEX, DSL::remainder);
         p_17660_.registerType(false, References.SAVED_DATA_RAIDS, DSL::remainder);
         p_17660_.registerType(false, References.SAVED_DATA_RANDOM_SEQUENCES, DSL::remainder);
+        p_17660_.registerType(false, References.SAVED_DATA_STRUCTURE_START_INDEX, DSL::remainder);
         p_17660_.registerType(
             false,
             References.SAVED_DATA_SCOREBOARD,
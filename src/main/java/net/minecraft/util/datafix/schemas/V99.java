@@ -286,6 +286,7 @@ public class V99 extends Schema {
         p_18307_.registerType(false, References.SAVED_DATA_MAP_INDEX, DSL::remainder);
         p_18307_.registerType(false, References.SAVED_DATA_RAIDS, DSL::remainder);
         p_18307_.registerType(false, References.SAVED_DATA_RANDOM_SEQUENCES, DSL::remainder);
+        p_18307_.registerType(false, References.SAVED_DATA_STRUCTURE_START_INDEX, DSL::remainder);
         p_18307_.registerType(
             false,
             References.SAVED_DATA_SCOREBOARD,
@@ -5,6 +5,7 @@ public enum MetricCategory {
     EVENT_LOOPS("event-loops"),
     MAIL_BOXES("mailboxes"),
     TICK_LOOP("ticking"),
+    NETWORK("network"),
     JVM("jvm"),
     CHUNK_RENDERING("chunk rendering"),
     CHUNK_RENDERING_DISPATCHING("chunk rendering dispatching"),
@@ -0,0 +1,252 @@
+package net.minecraft.util.worldupdate;
+
+import com.google.common.collect.Lists;
+import com.mojang.logging.LogUtils;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.stream.Stream;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import net.minecraft.FileUtil;
+import net.minecraft.SharedConstants;
+import net.minecraft.Util;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.storage.RegionDictionary;
+import net.minecraft.world.level.chunk.storage.RegionDictionaryTrainer;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import net.minecraft.world.level.storage.LevelStorageSource;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+
+public class RegionDictionaryConverter {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String[] STORAGE_FOLDERS = new String[]{"region", "entities", "poi"};
+    private final String levelId;
+    private final Path levelPath;
+    private final int dictionarySize;
+    private final int sampleBytes;
+    private int convertedFiles;
+    private int convertedChunks;
+
+    public RegionDictionaryConverter(String levelId, Path levelPath, int dictionarySize, int sampleBytes) {
+        this.levelId = levelId;
+        this.levelPath = levelPath;
+        this.dictionarySize = dictionarySize;
+        this.sampleBytes = sampleBytes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SharedConstants.tryDetectVersion();
+        OptionParser optionparser = new OptionParser();
+        OptionSpec<Void> optionspec = optionparser.accepts("help").forHelp();
+        OptionSpec<Integer> optionspec1 = optionparser.accepts("dictionarySize", "Size of each trained dictionary in bytes")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(RegionDictionaryTrainer.DEFAULT_DICTIONARY_SIZE);
+        OptionSpec<Integer> optionspec2 = optionparser.accepts("sampleBytes", "Amount of chunk data sampled for training, per storage folder")
+            .withRequiredArg()
+            .ofType(Integer.class)
+            .defaultsTo(RegionDictionaryTrainer.DEFAULT_SAMPLE_BYTES);
+        OptionSpec<String> optionspec3 = optionparser.nonOptions("world directories");
+        OptionSet optionset = optionparser.parse(args);
+        if (!optionset.has(optionspec) && !optionset.valuesOf(optionspec3).isEmpty()) {
+            Bootstrap.bootStrap();
+            int i = Math.min(optionset.valueOf(optionspec1), RegionDictionary.MAX_SIZE);
+            int j = optionset.valueOf(optionspec2);
+
+            for (String s : optionset.valuesOf(optionspec3)) {
+                Path path = Paths.get(s).toAbsolutePath().normalize();
+                LevelStorageSource levelstoragesource = LevelStorageSource.createDefault(path.getParent());
+
+                try (LevelStorageSource.LevelStorageAccess levelstoragesource$levelstorageaccess = levelstoragesource.createAccess(path.getFileName().toString())) {
+                    new RegionDictionaryConverter(levelstoragesource$levelstorageaccess.getLevelId(), path, i, j).convert();
+                }
+            }
+        } else {
+            optionparser.printHelpOn(System.out);
+        }
+    }
+
+    public void convert() throws IOException {
+        long i = Util.getMillis();
+
+        for (Path path : this.findStorageFolders()) {
+            this.convertFolder(path);
+        }
+
+        LOGGER.info(
+            "Converted {} chunks in {} region files of {} after {} seconds", this.convertedChunks, this.convertedFiles, this.levelId, (Util.getMillis() - i) / 1000L
+        );
+    }
+
+    private List<Path> findStorageFolders() throws IOException {
+        List<Path> list = Lists.newArrayList();
+
+        try (Stream<Path> stream = Files.walk(this.levelPath)) {
+            stream.filter(Files::isDirectory).filter(path -> {
+                String s = path.getFileName().toString();
+
+                for (String s1 : STORAGE_FOLDERS) {
+                    if (s1.equals(s)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }).forEach(list::add);
+        }
+
+        return list;
+    }
+
+    private ResourceKey<Level> dimensionFor(Path folder) {
+        Path path = this.levelPath.relativize(folder.getParent());
+        if (path.getNameCount() == 1 && path.toString().equals("DIM-1")) {
+            return Level.NETHER;
+        } else if (path.getNameCount() == 1 && path.toString().equals("DIM1")) {
+            return Level.END;
+        } else if (path.getNameCount() >= 3 && path.getName(0).toString().equals("dimensions")) {
+            String s = path.subpath(2, path.getNameCount()).toString().replace(File.separatorChar, '/');
+            ResourceLocation resourcelocation = ResourceLocation.tryBuild(path.getName(1).toString(), s);
+            return resourcelocation != null ? ResourceKey.create(Registries.DIMENSION, resourcelocation) : Level.OVERWORLD;
+        } else {
+            return Level.OVERWORLD;
+        }
+    }
+
+    private void convertFolder(Path folder) throws IOException {
+        File[] afile = folder.toFile().listFiles((dir, name) -> WorldUpgrader.REGEX.matcher(name).matches());
+        if (afile != null && afile.length != 0) {
+            RegionStorageInfo regionstorageinfo = new RegionStorageInfo(this.levelId, this.dimensionFor(folder), folder.getFileName().toString());
+            RegionDictionary regiondictionary = RegionDictionary.load(folder);
+            if (regiondictionary.isEmpty()) {
+                List<byte[]> list = RegionDictionaryTrainer.collectSamples(regionstorageinfo, folder, this.sampleBytes, RandomSource.create());
+                regiondictionary = RegionDictionaryTrainer.train(list, this.dictionarySize);
+                regiondictionary.save(folder);
+            } else {
+                LOGGER.info("Reusing existing {} byte dictionary in {}", regiondictionary.size(), folder);
+            }
+
+            Path path = WorldUpgrader.resolveRecreateDirectory(folder);
+            FileUtil.createDirectoriesSafe(path);
+
+            try {
+                for (File file1 : afile) {
+                    this.convertFile(regionstorageinfo, file1.toPath(), folder, path, regiondictionary);
+                }
+            } finally {
+                FileUtils.deleteDirectory(path.toFile());
+            }
+        }
+    }
+
+    private void convertFile(RegionStorageInfo info, Path file, Path folder, Path targetFolder, RegionDictionary dictionary) throws IOException {
+        Matcher matcher = WorldUpgrader.REGEX.matcher(file.getFileName().toString());
+        matcher.matches();
+        int i = Integer.parseInt(matcher.group(1)) << 5;
+        int j = Integer.parseInt(matcher.group(2)) << 5;
+        Path path = targetFolder.resolve(file.getFileName());
+        List<ChunkPos> list = Lists.newArrayList();
+
+        try (
+            RegionFile regionfile = new RegionFile(info.withTypeSuffix("source"), file, folder, RegionFileVersion.VERSION_DICTIONARY, dictionary, false);
+            RegionFile regionfile1 = new RegionFile(info.withTypeSuffix("target"), path, targetFolder, RegionFileVersion.VERSION_DICTIONARY, dictionary, false);
+        ) {
+            if (!copyChunks(regionfile, regionfile1, i, j, list)) {
+                LOGGER.warn("Leaving {} unconverted because it contains unreadable chunks", file);
+                list = null;
+            }
+        }
+
+        if (list == null) {
+            try (Stream<Path> stream = Files.list(targetFolder)) {
+                for (Path path2 : stream.toList()) {
+                    Files.delete(path2);
+                }
+            }
+
+            return;
+        }
+
+        Files.move(path, file, StandardCopyOption.REPLACE_EXISTING);
+
+        Set<String> set = new HashSet<>();
+
+        try (Stream<Path> stream = Files.list(targetFolder)) {
+            for (Path path1 : stream.toList()) {
+                set.add(path1.getFileName().toString());
+                Files.move(path1, folder.resolve(path1.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        for (ChunkPos chunkpos1 : list) {
+            String s = "c." + chunkpos1.x + "." + chunkpos1.z + ".mcc";
+            if (!set.contains(s)) {
+                Files.deleteIfExists(folder.resolve(s));
+            }
+        }
+
+        this.convertedFiles++;
+        this.convertedChunks += list.size();
+        LOGGER.info("Converted {} chunks in {}", list.size(), file);
+    }
+
+    private static boolean copyChunks(RegionFile source, RegionFile target, int minX, int minZ, List<ChunkPos> converted) throws IOException {
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                ChunkPos chunkpos = new ChunkPos(minX + j, minZ + i);
+                if (source.hasChunk(chunkpos)) {
+                    byte[] abyte;
+                    try (DataInputStream datainputstream = source.getChunkDataInputStream(chunkpos)) {
+                        if (datainputstream == null) {
+                            LOGGER.warn("Chunk {} is unreadable", chunkpos);
+                            return false;
+                        }
+
+                        abyte = datainputstream.readAllBytes();
+                    }
+
+                    try (DataOutputStream dataoutputstream = target.getChunkDataOutputStream(chunkpos)) {
+                        dataoutputstream.write(abyte);
+                    }
+
+                    verifyRoundTrip(target, chunkpos, abyte);
+                    converted.add(chunkpos);
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static void verifyRoundTrip(RegionFile regionFile, ChunkPos pos, byte[] expected) throws IOException {
+        byte[] abyte;
+        try (DataInputStream datainputstream = regionFile.getChunkDataInputStream(pos)) {
+            abyte = datainputstream != null ? datainputstream.readAllBytes() : null;
+        }
+
+        if (!Arrays.equals(abyte, expected)) {
+            throw new IOException("Chunk " + pos + " did not survive a dictionary compression round trip");
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -193,9 +194,13 @@ public class WorldUpgrader {
                             WorldUpgrader.FileToUpgrade worldupgrader$filetoupgrade = listiterator.next();
                             boolean flag1 = true;
 
-                            for (ChunkPos chunkpos : worldupgrader$filetoupgrade.chunksToUpgrade) {
-                                flag1 = flag1 && this.processOnePosition(resourcekey, t, chunkpos);
-                                flag = true;
+                            for (List<ChunkPos> list1 : Lists.partition(worldupgrader$filetoupgrade.chunksToUpgrade, 64)) {
+                                Map<ChunkPos, CompoundTag> map = this.readChunks(t, list1);
+
+                                for (ChunkPos chunkpos : list1) {
+                                    flag1 = flag1 && this.processOnePosition(resourcekey, t, chunkpos, map);
+                                    flag = true;
+                                }
                             }
 
                             if (WorldUpgrader.this.recreateRegionFiles) {
@@ -290,11 +295,21 @@ public class WorldUpgrader {
             }
         }
 
-        private boolean processOnePosition(ResourceKey<Level> p_328452_, T p_333889_, ChunkPos p_332028_) {
+        @Nullable
+        private Map<ChunkPos, CompoundTag> readChunks(T storage, List<ChunkPos> positions) {
+            try {
+                return this.readAll(storage, positions).join();
+            } catch (CompletionException completionexception) {
+                WorldUpgrader.LOGGER.warn("Failed to bulk read {} chunks, reading them one by one", positions.size(), completionexception.getCause());
+                return null;
+            }
+        }
+
+        private boolean processOnePosition(ResourceKey<Level> p_328452_, T p_333889_, ChunkPos p_332028_, @Nullable Map<ChunkPos, CompoundTag> prefetched) {
             boolean flag = false;
 
             try {
-                flag = this.tryProcessOnePosition(p_333889_, p_332028_, p_328452_);
+                flag = this.tryProcessOnePosition(p_333889_, p_332028_, p_328452_, prefetched);
             } catch (CompletionException | ReportedException reportedexception) {
                 Throwable throwable = reportedexception.getCause();
                 if (!(throwable instanceof IOException)) {
@@ -313,7 +328,11 @@ public class WorldUpgrader {
             return flag;
         }
 
-        protected abstract boolean tryProcessOnePosition(T p_329483_, ChunkPos p_327751_, ResourceKey<Level> p_335733_);
+        protected abstract CompletableFuture<Map<ChunkPos, CompoundTag>> readAll(T storage, List<ChunkPos> positions);
+
+        protected abstract boolean tryProcessOnePosition(
+            T p_329483_, ChunkPos p_327751_, ResourceKey<Level> p_335733_, @Nullable Map<ChunkPos, CompoundTag> prefetched
+        );
 
         private void onFileFinished(RegionFile p_332836_) {
             if (WorldUpgrader.this.recreateRegionFiles) {
@@ -344,8 +363,14 @@ public class WorldUpgrader {
             super(DataFixTypes.CHUNK, "chunk", "region", WorldUpgrader.STATUS_UPGRADING_CHUNKS, WorldUpgrader.STATUS_FINISHED_CHUNKS);
         }
 
-        protected boolean tryProcessOnePosition(ChunkStorage p_330540_, ChunkPos p_331086_, ResourceKey<Level> p_327850_) {
-            CompoundTag compoundtag = p_330540_.read(p_331086_).join().orElse(null);
+        protected CompletableFuture<Map<ChunkPos, CompoundTag>> readAll(ChunkStorage storage, List<ChunkPos> positions) {
+            return storage.readAll(positions);
+        }
+
+        protected boolean tryProcessOnePosition(
+            ChunkStorage p_330540_, ChunkPos p_331086_, ResourceKey<Level> p_327850_, @Nullable Map<ChunkPos, CompoundTag> prefetched
+        ) {
+            CompoundTag compoundtag = prefetched != null ? prefetched.get(p_331086_) : p_330540_.read(p_331086_).join().orElse(null);
             if (compoundtag != null) {
                 int i = ChunkStorage.getVersion(compoundtag);
                 ChunkGenerator chunkgenerator = WorldUpgrader.this.dimensions.getOrThrow(Registries.levelToLevelStem(p_327850_)).generator();
@@ -446,8 +471,14 @@ public class WorldUpgrader {
                 : new SimpleRegionStorage(p_328549_, p_333111_, WorldUpgrader.this.dataFixer, true, this.dataFixType));
         }
 
-        protected boolean tryProcessOnePosition(SimpleRegionStorage p_327888_, ChunkPos p_328250_, ResourceKey<Level> p_329996_) {
-            CompoundTag compoundtag = p_327888_.read(p_328250_).join().orElse(null);
+        protected CompletableFuture<Map<ChunkPos, CompoundTag>> readAll(SimpleRegionStorage storage, List<ChunkPos> positions) {
+            return storage.readAll(positions);
+        }
+
+        protected boolean tryProcessOnePosition(
+            SimpleRegionStorage p_327888_, ChunkPos p_328250_, ResourceKey<Level> p_329996_, @Nullable Map<ChunkPos, CompoundTag> prefetched
+        ) {
+            CompoundTag compoundtag = prefetched != null ? prefetched.get(p_328250_) : p_327888_.read(p_328250_).join().orElse(null);
             if (compoundtag != null) {
                 int i = ChunkStorage.getVersion(compoundtag);
                 CompoundTag compoundtag1 = this.upgradeTag(p_327888_, compoundtag);
@@ -16,34 +16,39 @@ import net.minecraft.core.Registry;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.SectionPos;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.WorldGenRegion;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.level.chunk.StructureAccess;
 import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.levelgen.WorldOptions;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.levelgen.structure.StructureCheck;
 import net.minecraft.world.level.levelgen.structure.StructureCheckResult;
 import net.minecraft.world.level.levelgen.structure.StructurePiece;
 import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.StructureStartIndex;
 import net.minecraft.world.level.levelgen.structure.placement.StructurePlacement;
 
 public class StructureManager {
     private final LevelAccessor level;
     private final WorldOptions worldOptions;
     private final StructureCheck structureCheck;
+    private final StructureStartIndex startIndex;
 
-    public StructureManager(LevelAccessor p_249675_, WorldOptions p_248820_, StructureCheck p_249103_) {
+    public StructureManager(LevelAccessor p_249675_, WorldOptions p_248820_, StructureCheck p_249103_, StructureStartIndex startIndex) {
         this.level = p_249675_;
         this.worldOptions = p_248820_;
         this.structureCheck = p_249103_;
+        this.startIndex = startIndex;
     }
 
     public StructureManager forWorldGenRegion(WorldGenRegion p_220469_) {
         if (p_220469_.getLevel() != this.level) {
             throw new IllegalStateException("Using invalid structure manager (source level: " + p_220469_.getLevel() + ", region: " + p_220469_);
         } else {
-            return new StructureManager(p_220469_, this.worldOptions, this.structureCheck);
+            return new StructureManager(p_220469_, this.worldOptions, this.structureCheck, this.startIndex);
         }
     }
 
@@ -87,12 +92,30 @@ public class StructureManager {
 
     public void setStartForStructure(SectionPos p_220517_, Structure p_220518_, StructureStart p_220519_, StructureAccess p_220520_) {
         p_220520_.setStartForStructure(p_220518_, p_220519_);
+        this.registryAccess().registryOrThrow(Registries.STRUCTURE).getResourceKey(p_220518_).ifPresent(key -> this.startIndex.add(key, p_220519_));
     }
 
     public void addReferenceForStructure(SectionPos p_220508_, Structure p_220509_, long p_220510_, StructureAccess p_220511_) {
         p_220511_.addReferenceForStructure(p_220509_, p_220510_);
     }
 
+    public boolean hasIndexedStart(ChunkPos chunkPos, Structure structure) {
+        return this.registryAccess()
+            .registryOrThrow(Registries.STRUCTURE)
+            .getResourceKey(structure)
+            .map(key -> this.startIndex.contains(key, chunkPos))
+            .orElse(false);
+    }
+
+    public List<StructureStartIndex.Entry> getIndexedStructuresIntersecting(BoundingBox box, Predicate<ResourceKey<Structure>> filter) {
+        return this.startIndex.getIntersecting(box, filter);
+    }
+
+    @Nullable
+    public StructureStartIndex.Entry findNearestIndexedStructure(HolderSet<Structure> structures, BlockPos pos, int maxDistanceChunks) {
+        return this.startIndex.findNearest(key -> structures.stream().anyMatch(holder -> holder.is(key)), pos, maxDistanceChunks);
+    }
+
     public boolean shouldGenerateStructures() {
         return this.worldOptions.generateStructures();
     }
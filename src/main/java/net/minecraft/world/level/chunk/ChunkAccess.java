@@ -315,23 +315,29 @@ public abstract class ChunkAccess implements BlockGetter, BiomeManager.NoiseBiom
 
     @Override
     public final void findBlockLightSources(BiConsumer<BlockPos, BlockState> p_285269_) {
-        this.findBlocks(p_284897_ -> p_284897_.getLightEmission() != 0, p_285269_);
+        this.findBlocks(
+            section -> section.hasAny(LevelChunkSection.BlockGroup.LIGHT_EMITTER), p_284897_ -> p_284897_.getLightEmission() != 0, p_285269_
+        );
     }
 
     public void findBlocks(Predicate<BlockState> p_285343_, BiConsumer<BlockPos, BlockState> p_285030_) {
+        this.findBlocks(section -> section.maybeHas(p_285343_), p_285343_, p_285030_);
+    }
+
+    protected void findBlocks(Predicate<LevelChunkSection> sectionFilter, Predicate<BlockState> stateFilter, BiConsumer<BlockPos, BlockState> consumer) {
         BlockPos.MutableBlockPos blockpos$mutableblockpos = new BlockPos.MutableBlockPos();
 
         for (int i = this.getMinSection(); i < this.getMaxSection(); i++) {
             LevelChunkSection levelchunksection = this.getSection(this.getSectionIndexFromSectionY(i));
-            if (levelchunksection.maybeHas(p_285343_)) {
+            if (sectionFilter.test(levelchunksection)) {
                 BlockPos blockpos = SectionPos.of(this.chunkPos, i).origin();
 
                 for (int j = 0; j < 16; j++) {
                     for (int k = 0; k < 16; k++) {
                         for (int l = 0; l < 16; l++) {
                             BlockState blockstate = levelchunksection.getBlockState(l, j, k);
-                            if (p_285343_.test(blockstate)) {
-                                p_285030_.accept(blockpos$mutableblockpos.setWithOffset(blockpos, l, j, k), blockstate);
+                            if (stateFilter.test(blockstate)) {
+                                consumer.accept(blockpos$mutableblockpos.setWithOffset(blockpos, l, j, k), blockstate);
                             }
                         }
                     }
@@ -55,6 +55,7 @@ import net.minecraft.world.level.biome.BiomeManager;
 import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.biome.FeatureSorter;
 import net.minecraft.world.level.biome.MobSpawnSettings;
+import net.minecraft.world.level.chunk.status.ChunkGenerationTimings;
 import net.minecraft.world.level.chunk.status.ChunkStatus;
 import net.minecraft.world.level.levelgen.GenerationStep;
 import net.minecraft.world.level.levelgen.Heightmap;
@@ -71,6 +72,7 @@ import net.minecraft.world.level.levelgen.structure.StructureCheckResult;
 import net.minecraft.world.level.levelgen.structure.StructureSet;
 import net.minecraft.world.level.levelgen.structure.StructureSpawnOverride;
 import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.StructureStartIndex;
 import net.minecraft.world.level.levelgen.structure.placement.ConcentricRingsStructurePlacement;
 import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadStructurePlacement;
 import net.minecraft.world.level.levelgen.structure.placement.StructurePlacement;
@@ -110,10 +112,10 @@ public abstract class ChunkGenerator {
     }
 
     public CompletableFuture<ChunkAccess> createBiomes(RandomState p_223160_, Blender p_223161_, StructureManager p_223162_, ChunkAccess p_223163_) {
-        return CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("init_biomes", () -> {
+        return CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("init_biomes", ChunkGenerationTimings.time(ChunkStatus.BIOMES, () -> {
             p_223163_.fillBiomesFromNoise(this.biomeSource, p_223160_.sampler());
             return p_223163_;
-        }), Util.backgroundExecutor());
+        })), Util.backgroundExecutor());
     }
 
     public abstract void applyCarvers(
@@ -170,8 +172,38 @@ public abstract class ChunkGenerator {
             if (!list.isEmpty()) {
                 int i = SectionPos.blockToSectionCoord(p_223040_.getX());
                 int j = SectionPos.blockToSectionCoord(p_223040_.getZ());
+                int l = Integer.MAX_VALUE;
+                int i1 = 0;
+
+                for (Entry<StructurePlacement, Set<Holder<Structure>>> entry2 : list) {
+                    int j1 = ((RandomSpreadStructurePlacement)entry2.getKey()).spacing();
+                    l = Math.min(l, j1);
+                    i1 = Math.max(i1, j1);
+                }
+
+                if (!p_223042_) {
+                    StructureStartIndex.Entry structurestartindex$entry = structuremanager.findNearestIndexedStructure(p_223039_, p_223040_, p_223041_ * i1);
+                    if (structurestartindex$entry != null) {
+                        BlockPos blockpos1 = structurestartindex$entry.locatePos();
+                        double d3 = p_223040_.distSqr(blockpos1);
+                        if (d3 < d2) {
+                            for (Holder<Structure> holder1 : p_223039_) {
+                                if (holder1.is(structurestartindex$entry.structure())) {
+                                    d2 = d3;
+                                    pair2 = Pair.of(blockpos1, holder1);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }
 
                 for (int k = 0; k <= p_223041_; k++) {
+                    double d4 = (double)SectionPos.sectionToBlockCoord(Math.max(k - 1, 0) * l);
+                    if (pair2 != null && d4 * d4 > d2) {
+                        return pair2;
+                    }
+
                     boolean flag = false;
 
                     for (Entry<StructurePlacement, Set<Holder<Structure>>> entry1 : list) {
@@ -287,7 +319,11 @@ public abstract class ChunkGenerator {
         for (Holder<Structure> holder : p_223199_) {
             StructureCheckResult structurecheckresult = p_223201_.checkStructurePresence(p_223204_, holder.value(), p_223203_, p_223202_);
             if (structurecheckresult != StructureCheckResult.START_NOT_PRESENT) {
-                if (!p_223202_ && structurecheckresult == StructureCheckResult.START_PRESENT) {
+                if (!p_223202_
+                    && (
+                        structurecheckresult == StructureCheckResult.START_PRESENT
+                            || p_223201_.hasIndexedStart(p_223204_, holder.value())
+                    )) {
                     return Pair.of(p_223203_.getLocatePos(p_223204_), holder);
                 }
 
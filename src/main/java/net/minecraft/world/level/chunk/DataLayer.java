@@ -1,5 +1,8 @@
 package net.minecraft.world.level.chunk;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import javax.annotation.Nullable;
 import net.minecraft.Util;
@@ -10,10 +13,22 @@ public class DataLayer {
     public static final int LAYER_SIZE = 128;
     public static final int SIZE = 2048;
     private static final int NIBBLE_SIZE = 4;
+    private static final int WORD_COUNT = 256;
+    private static final int LAYER_WORD_COUNT = LAYER_SIZE >> 3;
+    private static final long NIBBLE_ONES = 1229782938247303441L;
+    private static final VarHandle WORDS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final byte[][] FILLED_DATA = new byte[16][];
     @Nullable
     protected byte[] data;
     private int defaultValue;
 
+    static {
+        for (int i = 0; i < 16; i++) {
+            FILLED_DATA[i] = new byte[2048];
+            Arrays.fill(FILLED_DATA[i], packFilled(i));
+        }
+    }
+
     public DataLayer() {
         this(0);
     }
@@ -95,8 +110,53 @@ public class DataLayer {
         return this.data;
     }
 
+    public byte[] getDataSnapshot() {
+        int i = this.getUniformValue();
+        return i >= 0 ? FILLED_DATA[i & 15] : this.data.clone();
+    }
+
+    private static long getWord(byte[] data, int index) {
+        return (long)WORDS.get(data, index << 3);
+    }
+
+    public int getUniformValue() {
+        return this.data == null ? this.defaultValue : getUniformValue(this.data, WORD_COUNT);
+    }
+
+    private static int getUniformValue(byte[] data, int words) {
+        int i = data[0] & 15;
+        long j = (long)i * NIBBLE_ONES;
+
+        for (int k = 0; k < words; k++) {
+            if (getWord(data, k) != j) {
+                return -1;
+            }
+        }
+
+        return i;
+    }
+
+    public DataLayer repeatFirstLayer() {
+        if (this.data == null) {
+            return new DataLayer(this.defaultValue);
+        } else {
+            int i = getUniformValue(this.data, LAYER_WORD_COUNT);
+            if (i >= 0) {
+                return new DataLayer(i);
+            } else {
+                byte[] abyte = new byte[2048];
+
+                for (int j = 0; j < LAYER_COUNT; j++) {
+                    System.arraycopy(this.data, 0, abyte, j * LAYER_SIZE, LAYER_SIZE);
+                }
+
+                return new DataLayer(abyte);
+            }
+        }
+    }
+
     public DataLayer copy() {
-        return this.data == null ? new DataLayer(this.defaultValue) : new DataLayer((byte[])this.data.clone());
+        return this.data == null ? new DataLayer(this.defaultValue) : new DataLayer(this.data.clone());
     }
 
     @Override
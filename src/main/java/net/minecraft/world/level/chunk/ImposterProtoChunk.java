@@ -218,6 +218,11 @@ public class ImposterProtoChunk extends ProtoChunk {
         this.wrapped.findBlocks(p_285465_, p_285061_);
     }
 
+    @Override
+    protected void findBlocks(Predicate<LevelChunkSection> sectionFilter, Predicate<BlockState> stateFilter, BiConsumer<BlockPos, BlockState> consumer) {
+        this.wrapped.findBlocks(sectionFilter, stateFilter, consumer);
+    }
+
     @Override
     public TickContainerAccess<Block> getBlockTicks() {
         return this.allowWrites ? this.wrapped.getBlockTicks() : BlackholeTickAccess.emptyContainer();
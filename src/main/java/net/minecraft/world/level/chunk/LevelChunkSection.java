@@ -1,9 +1,14 @@
 package net.minecraft.world.level.chunk;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Registry;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.entity.ai.village.poi.PoiTypes;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.BiomeResolver;
 import net.minecraft.world.level.biome.Biomes;
@@ -18,11 +23,22 @@ public class LevelChunkSection {
     public static final int SECTION_HEIGHT = 16;
     public static final int SECTION_SIZE = 4096;
     public static final int BIOME_CONTAINER_BITS = 2;
+    private static final VarHandle VERSION;
     private short nonEmptyBlockCount;
     private short tickingBlockCount;
     private short tickingFluidCount;
+    private final short[] groupCounts = new short[LevelChunkSection.BlockGroup.VALUES.length];
     private final PalettedContainer<BlockState> states;
-    private PalettedContainerRO<Holder<Biome>> biomes;
+    private volatile PalettedContainerRO<Holder<Biome>> biomes;
+    private int version;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(LevelChunkSection.class, "version", int.class);
+        } catch (ReflectiveOperationException reflectiveoperationexception) {
+            throw new ExceptionInInitializerError(reflectiveoperationexception);
+        }
+    }
 
     public LevelChunkSection(PalettedContainer<BlockState> p_282846_, PalettedContainerRO<Holder<Biome>> p_281695_) {
         this.states = p_282846_;
@@ -57,34 +73,57 @@ public class LevelChunkSection {
 
     public BlockState setBlockState(int p_62992_, int p_62993_, int p_62994_, BlockState p_62995_, boolean p_62996_) {
         BlockState blockstate;
-        if (p_62996_) {
-            blockstate = this.states.getAndSet(p_62992_, p_62993_, p_62994_, p_62995_);
-        } else {
-            blockstate = this.states.getAndSetUnchecked(p_62992_, p_62993_, p_62994_, p_62995_);
-        }
+        int i = this.beginWrite();
 
-        FluidState fluidstate = blockstate.getFluidState();
-        FluidState fluidstate1 = p_62995_.getFluidState();
-        if (!blockstate.isAir()) {
-            this.nonEmptyBlockCount--;
-            if (blockstate.isRandomlyTicking()) {
-                this.tickingBlockCount--;
+        try {
+            if (p_62996_) {
+                blockstate = this.states.getAndSet(p_62992_, p_62993_, p_62994_, p_62995_);
+            } else {
+                blockstate = this.states.getAndSetUnchecked(p_62992_, p_62993_, p_62994_, p_62995_);
             }
-        }
 
-        if (!fluidstate.isEmpty()) {
-            this.tickingFluidCount--;
-        }
+            FluidState fluidstate = blockstate.getFluidState();
+            FluidState fluidstate1 = p_62995_.getFluidState();
+            if (!blockstate.isAir()) {
+                this.nonEmptyBlockCount--;
+                if (blockstate.isRandomlyTicking()) {
+                    this.tickingBlockCount--;
+                }
+            }
 
-        if (!p_62995_.isAir()) {
-            this.nonEmptyBlockCount++;
-            if (p_62995_.isRandomlyTicking()) {
-                this.tickingBlockCount++;
+            if (!fluidstate.isEmpty()) {
+                this.tickingFluidCount--;
+            }
+
+            if (!p_62995_.isAir()) {
+                this.nonEmptyBlockCount++;
+                if (p_62995_.isRandomlyTicking()) {
+                    this.tickingBlockCount++;
+                }
             }
-        }
 
-        if (!fluidstate1.isEmpty()) {
-            this.tickingFluidCount++;
+            if (!fluidstate1.isEmpty()) {
+                this.tickingFluidCount++;
+            }
+
+            if (blockstate != p_62995_) {
+                int j = LevelChunkSection.BlockGroup.maskOf(blockstate);
+                int k = LevelChunkSection.BlockGroup.maskOf(p_62995_);
+                if (j != k) {
+                    for (LevelChunkSection.BlockGroup levelchunksection$blockgroup : LevelChunkSection.BlockGroup.VALUES) {
+                        int l = levelchunksection$blockgroup.ordinal();
+                        if ((j & 1 << l) != 0) {
+                            this.groupCounts[l]--;
+                        }
+
+                        if ((k & 1 << l) != 0) {
+                            this.groupCounts[l]++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            this.endWrite(i);
         }
 
         return blockstate;
@@ -106,13 +145,19 @@ public class LevelChunkSection {
         return this.tickingFluidCount > 0;
     }
 
+    public boolean hasAny(LevelChunkSection.BlockGroup group) {
+        return this.groupCounts[group.ordinal()] > 0;
+    }
+
     public void recalcBlockCounts() {
         class BlockCounter implements PalettedContainer.CountConsumer<BlockState> {
             public int nonEmptyBlockCount;
             public int tickingBlockCount;
             public int tickingFluidCount;
+            public final int[] groupCounts = new int[LevelChunkSection.BlockGroup.VALUES.length];
 
             public void accept(BlockState p_204444_, int p_204445_) {
+                LevelChunkSection.BlockGroup.addCounts(this.groupCounts, p_204444_, p_204445_);
                 FluidState fluidstate = p_204444_.getFluidState();
                 if (!p_204444_.isAir()) {
                     this.nonEmptyBlockCount += p_204445_;
@@ -135,6 +180,19 @@ public class LevelChunkSection {
         this.nonEmptyBlockCount = (short)levelchunksection$1blockcounter.nonEmptyBlockCount;
         this.tickingBlockCount = (short)levelchunksection$1blockcounter.tickingBlockCount;
         this.tickingFluidCount = (short)levelchunksection$1blockcounter.tickingFluidCount;
+        this.setGroupCounts(levelchunksection$1blockcounter.groupCounts);
+    }
+
+    private void recalcGroupCounts() {
+        int[] aint = new int[this.groupCounts.length];
+        this.states.count((state, count) -> LevelChunkSection.BlockGroup.addCounts(aint, state, count));
+        this.setGroupCounts(aint);
+    }
+
+    private void setGroupCounts(int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            this.groupCounts[i] = (short)counts[i];
+        }
     }
 
     public PalettedContainer<BlockState> getStates() {
@@ -146,8 +204,16 @@ public class LevelChunkSection {
     }
 
     public void read(FriendlyByteBuf p_63005_) {
-        this.nonEmptyBlockCount = p_63005_.readShort();
-        this.states.read(p_63005_);
+        int i = this.beginWrite();
+
+        try {
+            this.nonEmptyBlockCount = p_63005_.readShort();
+            this.states.read(p_63005_);
+            this.recalcGroupCounts();
+        } finally {
+            this.endWrite(i);
+        }
+
         PalettedContainer<Holder<Biome>> palettedcontainer = this.biomes.recreate();
         palettedcontainer.read(p_63005_);
         this.biomes = palettedcontainer;
@@ -165,6 +231,15 @@ public class LevelChunkSection {
         this.biomes.write(p_63012_);
     }
 
+    public void writeOptimistically(FriendlyByteBuf buffer) {
+        LevelChunkSection.StatesSnapshot levelchunksection$statessnapshot = this.readOptimistically(
+            () -> new LevelChunkSection.StatesSnapshot(this.nonEmptyBlockCount, this.states.copy())
+        );
+        buffer.writeShort(levelchunksection$statessnapshot.nonEmptyBlockCount());
+        levelchunksection$statessnapshot.states().write(buffer);
+        this.biomes.writeUnchecked(buffer);
+    }
+
     public int getSerializedSize() {
         return 2 + this.states.getSerializedSize() + this.biomes.getSerializedSize();
     }
@@ -173,6 +248,43 @@ public class LevelChunkSection {
         return this.states.maybeHas(p_63003_);
     }
 
+    private int beginWrite() {
+        int i = this.version;
+        VERSION.setOpaque(this, i + 1);
+        VarHandle.storeStoreFence();
+        return i;
+    }
+
+    private void endWrite(int version) {
+        VERSION.setRelease(this, version + 2);
+    }
+
+    public <T> T readOptimistically(Supplier<T> reader) {
+        while (true) {
+            int i = (int)VERSION.getAcquire(this);
+            if ((i & 1) == 0) {
+                T t;
+                try {
+                    t = reader.get();
+                } catch (RuntimeException runtimeexception) {
+                    VarHandle.loadLoadFence();
+                    if ((int)VERSION.getOpaque(this) == i) {
+                        throw runtimeexception;
+                    }
+
+                    continue;
+                }
+
+                VarHandle.loadLoadFence();
+                if ((int)VERSION.getOpaque(this) == i) {
+                    return t;
+                }
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
     public Holder<Biome> getNoiseBiome(int p_204434_, int p_204435_, int p_204436_) {
         return this.biomes.get(p_204434_, p_204435_, p_204436_);
     }
@@ -191,4 +303,75 @@ public class LevelChunkSection {
 
         this.biomes = palettedcontainer;
     }
-}
\ No newline at end of file
+
+    static record StatesSnapshot(short nonEmptyBlockCount, PalettedContainer<BlockState> states) {
+    }
+
+    public static enum BlockGroup {
+        FLUID,
+        POI,
+        REDSTONE,
+        LIGHT_EMITTER;
+
+        static final LevelChunkSection.BlockGroup[] VALUES = values();
+        @Nullable
+        private static volatile byte[] masks;
+
+        static int maskOf(BlockState state) {
+            int i = Block.BLOCK_STATE_REGISTRY.getId(state);
+            byte[] abyte = masks;
+            if (abyte == null || abyte.length != Block.BLOCK_STATE_REGISTRY.size()) {
+                abyte = createMasks();
+                masks = abyte;
+            }
+
+            return i >= 0 && i < abyte.length ? abyte[i] : computeMask(state);
+        }
+
+        static void addCounts(int[] counts, BlockState state, int count) {
+            int i = maskOf(state);
+
+            for (int j = 0; i != 0; j++) {
+                if ((i & 1) != 0) {
+                    counts[j] += count;
+                }
+
+                i >>>= 1;
+            }
+        }
+
+        private static byte[] createMasks() {
+            byte[] abyte = new byte[Block.BLOCK_STATE_REGISTRY.size()];
+
+            for (int i = 0; i < abyte.length; i++) {
+                BlockState blockstate = Block.BLOCK_STATE_REGISTRY.byId(i);
+                if (blockstate != null) {
+                    abyte[i] = (byte)computeMask(blockstate);
+                }
+            }
+
+            return abyte;
+        }
+
+        private static int computeMask(BlockState state) {
+            int i = 0;
+            if (!state.getFluidState().isEmpty()) {
+                i |= 1 << FLUID.ordinal();
+            }
+
+            if (PoiTypes.hasPoi(state)) {
+                i |= 1 << POI.ordinal();
+            }
+
+            if (state.isSignalSource() || state.hasAnalogOutputSignal()) {
+                i |= 1 << REDSTONE.ordinal();
+            }
+
+            if (state.getLightEmission() > 0) {
+                i |= 1 << LIGHT_EMITTER.ordinal();
+            }
+
+            return i;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArraySet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.ints.Int2IntMap.Entry;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -33,6 +34,7 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     private volatile PalettedContainer.Data<T> data;
     private final PalettedContainer.Strategy strategy;
     private final ThreadingDetector threadingDetector = new ThreadingDetector("PalettedContainer");
+    private boolean sharedData;
 
     public void acquire() {
         this.threadingDetector.checkAndLock();
@@ -127,6 +129,7 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     }
 
     private T getAndSet(int p_63097_, T p_63098_) {
+        this.unshareData();
         int i = this.data.palette.idFor(p_63098_);
         int j = this.data.storage.getAndSet(p_63097_, i);
         return this.data.palette.valueFor(j);
@@ -143,6 +146,7 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     }
 
     private void set(int p_63133_, T p_63134_) {
+        this.unshareData();
         int i = this.data.palette.idFor(p_63134_);
         this.data.storage.set(p_63133_, i);
     }
@@ -157,6 +161,77 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         return data.palette.valueFor(data.storage.get(p_63086_));
     }
 
+    @Override
+    public int getId(int x, int y, int z) {
+        PalettedContainer.Data<T> data = this.data;
+        int i = data.storage.get(this.strategy.getIndex(x, y, z));
+        return data.configuration.factory() == PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY ? i : this.registry.getId(data.palette.valueFor(i));
+    }
+
+    public void setId(int x, int y, int z, int id) {
+        this.set(x, y, z, this.registry.byIdOrThrow(id));
+    }
+
+    @Override
+    public void getAllIds(int[] ids) {
+        PalettedContainer.Data<T> data = this.data;
+        data.storage.unpack(ids);
+        if (data.configuration.factory() != PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY) {
+            int[] aint = data.registryIds(this.registry);
+            int i = this.strategy.size();
+
+            for (int j = 0; j < i; j++) {
+                ids[j] = aint[ids[j]];
+            }
+        }
+    }
+
+    public void setAllIds(int[] ids) {
+        this.acquire();
+
+        try {
+            int i = this.strategy.size();
+            Int2IntOpenHashMap int2intopenhashmap = new Int2IntOpenHashMap();
+            int2intopenhashmap.defaultReturnValue(-1);
+            List<T> list = new ArrayList<>();
+            int[] aint = new int[i];
+            int j = -1;
+            int k = -1;
+
+            for (int l = 0; l < i; l++) {
+                int i1 = ids[l];
+                if (i1 != j) {
+                    j = i1;
+                    k = int2intopenhashmap.get(i1);
+                    if (k == -1) {
+                        k = list.size();
+                        int2intopenhashmap.put(i1, k);
+                        list.add(this.registry.byIdOrThrow(i1));
+                    }
+                }
+
+                aint[l] = k;
+            }
+
+            PalettedContainer.Configuration<T> configuration = this.strategy.getConfiguration(this.registry, Mth.ceillog2(list.size()));
+            BitStorage bitstorage;
+            if (configuration.bits() == 0) {
+                bitstorage = new ZeroBitStorage(i);
+            } else if (configuration.factory() == PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY) {
+                bitstorage = new SimpleBitStorage(configuration.bits(), i, ids);
+            } else {
+                bitstorage = new SimpleBitStorage(configuration.bits(), i, aint);
+            }
+
+            this.data = new PalettedContainer.Data<>(
+                configuration, bitstorage, configuration.factory().create(configuration.bits(), this.registry, this, list)
+            );
+            this.sharedData = false;
+        } finally {
+            this.release();
+        }
+    }
+
     @Override
     public void getAll(Consumer<T> p_196880_) {
         Palette<T> palette = this.data.palette();
@@ -170,7 +245,8 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
 
         try {
             int i = p_63119_.readByte();
-            PalettedContainer.Data<T> data = this.createOrReuseData(this.data, i);
+            PalettedContainer.Data<T> data = this.createOrReuseData(this.sharedData ? null : this.data, i);
+            this.sharedData = false;
             data.palette.read(p_63119_);
             p_63119_.readLongArray(data.storage.getRaw());
             this.data = data;
@@ -190,6 +266,11 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         }
     }
 
+    @Override
+    public void writeUnchecked(FriendlyByteBuf buffer) {
+        this.data.write(buffer);
+    }
+
     private static <T> DataResult<PalettedContainer<T>> unpack(
         IdMap<T> p_188068_, PalettedContainer.Strategy p_188069_, PalettedContainerRO.PackedData<T> p_238258_
     ) {
@@ -284,6 +365,27 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         return new PalettedContainer<>(this.registry, this.strategy, this.data.copy());
     }
 
+    public PalettedContainer<T> snapshot() {
+        this.acquire();
+
+        PalettedContainer<T> palettedcontainer;
+        try {
+            this.sharedData = true;
+            palettedcontainer = new PalettedContainer<>(this.registry, this.strategy, this.data);
+        } finally {
+            this.release();
+        }
+
+        return palettedcontainer;
+    }
+
+    private void unshareData() {
+        if (this.sharedData) {
+            this.sharedData = false;
+            this.data = this.data.copy();
+        }
+    }
+
     @Override
     public PalettedContainer<T> recreate() {
         return new PalettedContainer<>(this.registry, this.data.palette.valueFor(0), this.strategy);
@@ -293,6 +395,15 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     public void count(PalettedContainer.CountConsumer<T> p_63100_) {
         if (this.data.palette.getSize() == 1) {
             p_63100_.accept(this.data.palette.valueFor(0), this.data.storage.getSize());
+        } else if (this.data.configuration.factory() != PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY) {
+            PalettedContainer.Data<T> data = this.data;
+            int[] aint = data.histogram();
+
+            for (int i = 0; i < aint.length; i++) {
+                if (aint[i] > 0) {
+                    p_63100_.accept(data.palette.valueFor(i), aint[i]);
+                }
+            }
         } else {
             Int2IntOpenHashMap int2intopenhashmap = new Int2IntOpenHashMap();
             this.data.storage.getAll(p_238269_ -> int2intopenhashmap.addTo(p_238269_, 1));
@@ -301,6 +412,27 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         }
     }
 
+    @Override
+    public void countIds(PalettedContainer.IdCountConsumer consumer) {
+        PalettedContainer.Data<T> data = this.data;
+        if (data.configuration.factory() == PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY) {
+            Int2IntOpenHashMap int2intopenhashmap = new Int2IntOpenHashMap();
+            data.storage.getAll(id -> int2intopenhashmap.addTo(id, 1));
+            int2intopenhashmap.int2IntEntrySet().fastForEach(entry -> consumer.accept(entry.getIntKey(), entry.getIntValue()));
+        } else if (data.palette.getSize() == 1) {
+            consumer.accept(this.registry.getId(data.palette.valueFor(0)), data.storage.getSize());
+        } else {
+            int[] aint = data.histogram();
+            int[] aint1 = data.registryIds(this.registry);
+
+            for (int i = 0; i < aint.length; i++) {
+                if (aint[i] > 0) {
+                    consumer.accept(aint1[i], aint[i]);
+                }
+            }
+        }
+    }
+
     static record Configuration<T>(Palette.Factory factory, int bits) {
         public PalettedContainer.Data<T> createData(IdMap<T> p_188092_, PaletteResize<T> p_188093_, int p_188094_) {
             BitStorage bitstorage = (BitStorage)(this.bits == 0 ? new ZeroBitStorage(p_188094_) : new SimpleBitStorage(this.bits, p_188094_));
@@ -314,6 +446,11 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         void accept(T p_63145_, int p_63146_);
     }
 
+    @FunctionalInterface
+    public interface IdCountConsumer {
+        void accept(int id, int count);
+    }
+
     static record Data<T>(PalettedContainer.Configuration<T> configuration, BitStorage storage, Palette<T> palette) {
         public void copyFrom(Palette<T> p_188112_, BitStorage p_188113_) {
             for (int i = 0; i < p_188113_.getSize(); i++) {
@@ -322,6 +459,22 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
             }
         }
 
+        int[] registryIds(IdMap<T> registry) {
+            int[] aint = new int[this.palette.getSize()];
+
+            for (int i = 0; i < aint.length; i++) {
+                aint[i] = registry.getId(this.palette.valueFor(i));
+            }
+
+            return aint;
+        }
+
+        int[] histogram() {
+            int[] aint = new int[this.palette.getSize()];
+            this.storage.getAll(id -> aint[id]++);
+            return aint;
+        }
+
         public int getSerializedSize() {
             return 1 + this.palette.getSerializedSize() + VarInt.getByteSize(this.storage.getRaw().length) + this.storage.getRaw().length * 8;
         }
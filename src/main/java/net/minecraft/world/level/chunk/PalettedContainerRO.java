@@ -12,16 +12,24 @@ import net.minecraft.network.FriendlyByteBuf;
 public interface PalettedContainerRO<T> {
     T get(int p_238291_, int p_238292_, int p_238293_);
 
+    int getId(int x, int y, int z);
+
     void getAll(Consumer<T> p_238353_);
 
+    void getAllIds(int[] ids);
+
     void write(FriendlyByteBuf p_238417_);
 
+    void writeUnchecked(FriendlyByteBuf buffer);
+
     int getSerializedSize();
 
     boolean maybeHas(Predicate<T> p_238437_);
 
     void count(PalettedContainer.CountConsumer<T> p_238355_);
 
+    void countIds(PalettedContainer.IdCountConsumer consumer);
+
     PalettedContainer<T> recreate();
 
     PalettedContainerRO.PackedData<T> pack(IdMap<T> p_238441_, PalettedContainer.Strategy p_238442_);
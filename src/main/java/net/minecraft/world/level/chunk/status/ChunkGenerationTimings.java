@@ -0,0 +1,91 @@
+package net.minecraft.world.level.chunk.status;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import net.minecraft.Util;
+
+public final class ChunkGenerationTimings {
+    private static final List<ChunkStatus> STATUSES = ChunkStatus.getStatusList();
+    private static final LongAdder[] NANOS = createCounters();
+    private static final LongAdder[] COUNTS = createCounters();
+
+    private ChunkGenerationTimings() {
+    }
+
+    private static LongAdder[] createCounters() {
+        LongAdder[] alongadder = new LongAdder[STATUSES.size()];
+
+        for (int i = 0; i < alongadder.length; i++) {
+            alongadder[i] = new LongAdder();
+        }
+
+        return alongadder;
+    }
+
+    static void record(ChunkStatus status, long nanos) {
+        int i = status.getIndex();
+        NANOS[i].add(nanos);
+        COUNTS[i].increment();
+    }
+
+    public static <T> Supplier<T> time(ChunkStatus status, Supplier<T> task) {
+        return () -> {
+            long i = Util.getNanos();
+
+            try {
+                return task.get();
+            } finally {
+                NANOS[status.getIndex()].add(Util.getNanos() - i);
+            }
+        };
+    }
+
+    public static ChunkGenerationTimings.Snapshot snapshot() {
+        long[] along = new long[STATUSES.size()];
+        long[] along1 = new long[STATUSES.size()];
+
+        for (int i = 0; i < along.length; i++) {
+            along[i] = NANOS[i].sum();
+            along1[i] = COUNTS[i].sum();
+        }
+
+        return new ChunkGenerationTimings.Snapshot(along, along1);
+    }
+
+    public static record Snapshot(long[] nanos, long[] counts) {
+        public ChunkGenerationTimings.Snapshot since(ChunkGenerationTimings.Snapshot previous) {
+            long[] along = new long[this.nanos.length];
+            long[] along1 = new long[this.counts.length];
+
+            for (int i = 0; i < along.length; i++) {
+                along[i] = this.nanos[i] - previous.nanos[i];
+                along1[i] = this.counts[i] - previous.counts[i];
+            }
+
+            return new ChunkGenerationTimings.Snapshot(along, along1);
+        }
+
+        public long totalNanos() {
+            long i = 0L;
+
+            for (long j : this.nanos) {
+                i += j;
+            }
+
+            return i;
+        }
+
+        public long nanos(ChunkStatus status) {
+            return this.nanos[status.getIndex()];
+        }
+
+        public long count(ChunkStatus status) {
+            return this.counts[status.getIndex()];
+        }
+
+        public List<ChunkStatus> statuses() {
+            return STATUSES;
+        }
+    }
+}
@@ -169,7 +169,7 @@ public class ChunkStatusTasks {
     ) {
         ChunkPos chunkpos = p_342195_.getPos();
         GenerationChunkHolder generationchunkholder = p_344754_.get(chunkpos.x, chunkpos.z);
-        return CompletableFuture.supplyAsync(() -> {
+        return CompletableFuture.supplyAsync(ChunkGenerationTimings.time(ChunkStatus.FULL, () -> {
             ProtoChunk protochunk = (ProtoChunk)p_342195_;
             ServerLevel serverlevel = p_342042_.level();
             LevelChunk levelchunk;
@@ -186,7 +186,7 @@ public class ChunkStatusTasks {
             levelchunk.registerAllBlockEntitiesAfterLevelLoad();
             levelchunk.registerTickContainerInLevel(serverlevel);
             return levelchunk;
-        }, p_341879_ -> p_342042_.mainThreadMailBox().tell(ChunkTaskPriorityQueueSorter.message(p_341879_, chunkpos.toLong(), generationchunkholder::getTicketLevel)));
+        }), p_341879_ -> p_342042_.mainThreadMailBox().tell(ChunkTaskPriorityQueueSorter.message(p_341879_, chunkpos.toLong(), generationchunkholder::getTicketLevel)));
     }
 
     private static void postLoadProtoChunk(ServerLevel p_344060_, List<CompoundTag> p_343849_) {
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
+import net.minecraft.Util;
 import net.minecraft.server.level.GenerationChunkHolder;
 import net.minecraft.util.StaticCache2D;
 import net.minecraft.util.profiling.jfr.JvmProfiler;
@@ -20,13 +21,17 @@ public record ChunkStep(ChunkStatus targetStatus, ChunkDependencies directDepend
         if (p_344017_.getPersistedStatus().isBefore(this.targetStatus)) {
             ProfiledDuration profiledduration = JvmProfiler.INSTANCE
                 .onChunkGenerate(p_344017_.getPos(), p_344687_.level().dimension(), this.targetStatus.getName());
-            return this.task.doWork(p_344687_, this, p_343159_, p_344017_).thenApply(p_345132_ -> this.completeChunkGeneration(p_345132_, profiledduration));
+            long i = Util.getNanos();
+            CompletableFuture<ChunkAccess> completablefuture = this.task.doWork(p_344687_, this, p_343159_, p_344017_);
+            long j = Util.getNanos() - i;
+            return completablefuture.thenApply(p_345132_ -> this.completeChunkGeneration(p_345132_, profiledduration, j));
         } else {
             return this.task.doWork(p_344687_, this, p_343159_, p_344017_);
         }
     }
 
-    private ChunkAccess completeChunkGeneration(ChunkAccess p_342706_, @Nullable ProfiledDuration p_343538_) {
+    private ChunkAccess completeChunkGeneration(ChunkAccess p_342706_, @Nullable ProfiledDuration p_343538_, long workNanos) {
+        ChunkGenerationTimings.record(this.targetStatus, workNanos);
         if (p_342706_ instanceof ProtoChunk protochunk && protochunk.getPersistedStatus().isBefore(this.targetStatus)) {
             protochunk.setPersistedStatus(this.targetStatus);
         }
@@ -25,7 +25,6 @@ import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.LongArrayTag;
 import net.minecraft.nbt.NbtException;
 import net.minecraft.nbt.NbtOps;
-import net.minecraft.nbt.NbtUtils;
 import net.minecraft.nbt.ShortTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
@@ -67,7 +66,7 @@ import net.minecraft.world.ticks.ProtoChunkTicks;
 import org.slf4j.Logger;
 
 public class ChunkSerializer {
-    private static final Codec<PalettedContainer<BlockState>> BLOCK_STATE_CODEC = PalettedContainer.codecRW(
+    static final Codec<PalettedContainer<BlockState>> BLOCK_STATE_CODEC = PalettedContainer.codecRW(
         Block.BLOCK_STATE_REGISTRY, BlockState.CODEC, PalettedContainer.Strategy.SECTION_STATES, Blocks.AIR.defaultBlockState()
     );
     private static final Logger LOGGER = LogUtils.getLogger();
@@ -272,130 +271,14 @@ public class ChunkSerializer {
         LOGGER.error("Recoverable errors when loading section [{}, {}, {}]: {}", p_188240_.x, p_188241_, p_188240_.z, p_188242_);
     }
 
-    private static Codec<PalettedContainerRO<Holder<Biome>>> makeBiomeCodec(Registry<Biome> p_188261_) {
+    static Codec<PalettedContainerRO<Holder<Biome>>> makeBiomeCodec(Registry<Biome> p_188261_) {
         return PalettedContainer.codecRO(
             p_188261_.asHolderIdMap(), p_188261_.holderByNameCodec(), PalettedContainer.Strategy.SECTION_BIOMES, p_188261_.getHolderOrThrow(Biomes.PLAINS)
         );
     }
 
     public static CompoundTag write(ServerLevel p_63455_, ChunkAccess p_63456_) {
-        ChunkPos chunkpos = p_63456_.getPos();
-        CompoundTag compoundtag = NbtUtils.addCurrentDataVersion(new CompoundTag());
-        compoundtag.putInt("xPos", chunkpos.x);
-        compoundtag.putInt("yPos", p_63456_.getMinSection());
-        compoundtag.putInt("zPos", chunkpos.z);
-        compoundtag.putLong("LastUpdate", p_63455_.getGameTime());
-        compoundtag.putLong("InhabitedTime", p_63456_.getInhabitedTime());
-        compoundtag.putString("Status", BuiltInRegistries.CHUNK_STATUS.getKey(p_63456_.getPersistedStatus()).toString());
-        BlendingData blendingdata = p_63456_.getBlendingData();
-        if (blendingdata != null) {
-            BlendingData.CODEC
-                .encodeStart(NbtOps.INSTANCE, blendingdata)
-                .resultOrPartial(LOGGER::error)
-                .ifPresent(p_196909_ -> compoundtag.put("blending_data", p_196909_));
-        }
-
-        BelowZeroRetrogen belowzeroretrogen = p_63456_.getBelowZeroRetrogen();
-        if (belowzeroretrogen != null) {
-            BelowZeroRetrogen.CODEC
-                .encodeStart(NbtOps.INSTANCE, belowzeroretrogen)
-                .resultOrPartial(LOGGER::error)
-                .ifPresent(p_188279_ -> compoundtag.put("below_zero_retrogen", p_188279_));
-        }
-
-        UpgradeData upgradedata = p_63456_.getUpgradeData();
-        if (!upgradedata.isEmpty()) {
-            compoundtag.put("UpgradeData", upgradedata.write());
-        }
-
-        LevelChunkSection[] alevelchunksection = p_63456_.getSections();
-        ListTag listtag = new ListTag();
-        LevelLightEngine levellightengine = p_63455_.getChunkSource().getLightEngine();
-        Registry<Biome> registry = p_63455_.registryAccess().registryOrThrow(Registries.BIOME);
-        Codec<PalettedContainerRO<Holder<Biome>>> codec = makeBiomeCodec(registry);
-        boolean flag = p_63456_.isLightCorrect();
-
-        for (int i = levellightengine.getMinLightSection(); i < levellightengine.getMaxLightSection(); i++) {
-            int j = p_63456_.getSectionIndexFromSectionY(i);
-            boolean flag1 = j >= 0 && j < alevelchunksection.length;
-            DataLayer datalayer = levellightengine.getLayerListener(LightLayer.BLOCK).getDataLayerData(SectionPos.of(chunkpos, i));
-            DataLayer datalayer1 = levellightengine.getLayerListener(LightLayer.SKY).getDataLayerData(SectionPos.of(chunkpos, i));
-            if (flag1 || datalayer != null || datalayer1 != null) {
-                CompoundTag compoundtag1 = new CompoundTag();
-                if (flag1) {
-                    LevelChunkSection levelchunksection = alevelchunksection[j];
-                    compoundtag1.put("block_states", BLOCK_STATE_CODEC.encodeStart(NbtOps.INSTANCE, levelchunksection.getStates()).getOrThrow());
-                    compoundtag1.put("biomes", codec.encodeStart(NbtOps.INSTANCE, levelchunksection.getBiomes()).getOrThrow());
-                }
-
-                if (datalayer != null && !datalayer.isEmpty()) {
-                    compoundtag1.putByteArray("BlockLight", datalayer.getData());
-                }
-
-                if (datalayer1 != null && !datalayer1.isEmpty()) {
-                    compoundtag1.putByteArray("SkyLight", datalayer1.getData());
-                }
-
-                if (!compoundtag1.isEmpty()) {
-                    compoundtag1.putByte("Y", (byte)i);
-                    listtag.add(compoundtag1);
-                }
-            }
-        }
-
-        compoundtag.put("sections", listtag);
-        if (flag) {
-            compoundtag.putBoolean("isLightOn", true);
-        }
-
-        ListTag listtag1 = new ListTag();
-
-        for (BlockPos blockpos : p_63456_.getBlockEntitiesPos()) {
-            CompoundTag compoundtag3 = p_63456_.getBlockEntityNbtForSaving(blockpos, p_63455_.registryAccess());
-            if (compoundtag3 != null) {
-                listtag1.add(compoundtag3);
-            }
-        }
-
-        compoundtag.put("block_entities", listtag1);
-        if (p_63456_.getPersistedStatus().getChunkType() == ChunkType.PROTOCHUNK) {
-            ProtoChunk protochunk = (ProtoChunk)p_63456_;
-            ListTag listtag2 = new ListTag();
-            listtag2.addAll(protochunk.getEntities());
-            compoundtag.put("entities", listtag2);
-            CompoundTag compoundtag4 = new CompoundTag();
-
-            for (GenerationStep.Carving generationstep$carving : GenerationStep.Carving.values()) {
-                CarvingMask carvingmask = protochunk.getCarvingMask(generationstep$carving);
-                if (carvingmask != null) {
-                    compoundtag4.putLongArray(generationstep$carving.toString(), carvingmask.toArray());
-                }
-            }
-
-            compoundtag.put("CarvingMasks", compoundtag4);
-        }
-
-        saveTicks(p_63455_, compoundtag, p_63456_.getTicksForSerialization());
-        compoundtag.put("PostProcessing", packOffsets(p_63456_.getPostProcessing()));
-        CompoundTag compoundtag2 = new CompoundTag();
-
-        for (Entry<Heightmap.Types, Heightmap> entry : p_63456_.getHeightmaps()) {
-            if (p_63456_.getPersistedStatus().heightmapsAfter().contains(entry.getKey())) {
-                compoundtag2.put(entry.getKey().getSerializationKey(), new LongArrayTag(entry.getValue().getRawData()));
-            }
-        }
-
-        compoundtag.put("Heightmaps", compoundtag2);
-        compoundtag.put(
-            "structures", packStructureData(StructurePieceSerializationContext.fromLevel(p_63455_), chunkpos, p_63456_.getAllStarts(), p_63456_.getAllReferences())
-        );
-        return compoundtag;
-    }
-
-    private static void saveTicks(ServerLevel p_188236_, CompoundTag p_188237_, ChunkAccess.TicksToSave p_188238_) {
-        long i = p_188236_.getLevelData().getGameTime();
-        p_188237_.put("block_ticks", p_188238_.blocks().save(i, p_258987_ -> BuiltInRegistries.BLOCK.getKey(p_258987_).toString()));
-        p_188237_.put("fluid_ticks", p_188238_.fluids().save(i, p_258989_ -> BuiltInRegistries.FLUID.getKey(p_258989_).toString()));
+        return SerializableChunkData.copyOf(p_63455_, p_63456_).write();
     }
 
     public static ChunkType getChunkTypeFromTag(@Nullable CompoundTag p_63486_) {
@@ -435,7 +318,7 @@ public class ChunkSerializer {
         return listtag.isEmpty() ? null : listtag;
     }
 
-    private static CompoundTag packStructureData(
+    static CompoundTag packStructureData(
         StructurePieceSerializationContext p_188250_, ChunkPos p_188251_, Map<Structure, StructureStart> p_188252_, Map<Structure, LongSet> p_188253_
     ) {
         CompoundTag compoundtag = new CompoundTag();
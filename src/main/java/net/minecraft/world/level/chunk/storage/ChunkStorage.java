@@ -4,6 +4,8 @@ import com.mojang.datafixers.DataFixer;
 import com.mojang.serialization.MapCodec;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
@@ -104,11 +106,20 @@ public class ChunkStorage implements AutoCloseable {
         return this.worker.loadAsync(p_223455_);
     }
 
+    public CompletableFuture<Map<ChunkPos, CompoundTag>> readAll(Collection<ChunkPos> positions) {
+        return this.worker.loadAllAsync(positions);
+    }
+
     public CompletableFuture<Void> write(ChunkPos p_63503_, CompoundTag p_63504_) {
         this.handleLegacyStructureIndex(p_63503_);
         return this.worker.store(p_63503_, p_63504_);
     }
 
+    public CompletableFuture<Void> write(ChunkPos pos, CompletableFuture<CompoundTag> serialization) {
+        this.handleLegacyStructureIndex(pos);
+        return this.worker.store(pos, serialization);
+    }
+
     protected void handleLegacyStructureIndex(ChunkPos p_328966_) {
         if (this.legacyStructureHandler != null) {
             this.legacyStructureHandler.removeIndex(p_328966_.toLong());
@@ -1,17 +1,26 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.mojang.datafixers.util.Either;
 import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -22,7 +31,12 @@ import net.minecraft.nbt.IntTag;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.nbt.visitors.CollectFields;
 import net.minecraft.nbt.visitors.FieldSelector;
+import net.minecraft.util.Mth;
 import net.minecraft.util.Unit;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
 import net.minecraft.util.thread.ProcessorHandle;
 import net.minecraft.util.thread.ProcessorMailbox;
 import net.minecraft.util.thread.StrictQueue;
@@ -31,18 +45,35 @@ import org.slf4j.Logger;
 
 public class IOWorker implements ChunkScanAccess, AutoCloseable {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private final AtomicBoolean shutdownRequested = new AtomicBoolean();
-    private final ProcessorMailbox<StrictQueue.IntRunnable> mailbox;
-    private final RegionFileStorage storage;
-    private final Map<ChunkPos, IOWorker.PendingStore> pendingWrites = Maps.newLinkedHashMap();
+    public static final int MAX_SHARDS = 64;
+    private static volatile int shardCount = 1;
+    final AtomicBoolean shutdownRequested = new AtomicBoolean();
+    private final RegionStorageInfo info;
+    private final IOWorker.Shard[] shards;
     private final Long2ObjectLinkedOpenHashMap<CompletableFuture<BitSet>> regionCacheForBlender = new Long2ObjectLinkedOpenHashMap<>();
     private static final int REGION_CACHE_SIZE = 1024;
 
     protected IOWorker(RegionStorageInfo p_335181_, Path p_196930_, boolean p_196931_) {
-        this.storage = new RegionFileStorage(p_335181_, p_196930_, p_196931_);
-        this.mailbox = new ProcessorMailbox<>(
-            new StrictQueue.FixedPriorityQueue(IOWorker.Priority.values().length), Util.ioPool(), "IOWorker-" + p_335181_.type()
-        );
+        this.info = p_335181_;
+        int i = shardCount;
+        this.shards = new IOWorker.Shard[i];
+        int k = Math.max(RegionFileStorage.getMaxCachedFiles() / i, 1);
+        long l = Math.max(RegionFileStorage.getMaxCachedBytes() / (long)i, 1L);
+
+        for (int j = 0; j < i; j++) {
+            String s = p_335181_.dimension().location().toDebugFileName() + "-" + p_335181_.type() + (i == 1 ? "" : "-" + j);
+            this.shards[j] = new IOWorker.Shard("IOWorker-" + s, new RegionFileStorage(p_335181_, p_196930_, p_196931_, s, k, l));
+        }
+    }
+
+    public static void configureShards(int count) {
+        shardCount = Mth.clamp(count, 1, 64);
+    }
+
+    private IOWorker.Shard getShard(ChunkPos pos) {
+        return this.shards.length == 1
+            ? this.shards[0]
+            : this.shards[(int)Math.floorMod(HashCommon.mix(ChunkPos.asLong(pos.getRegionX(), pos.getRegionZ())), (long)this.shards.length)];
     }
 
     public boolean isOldChunkAround(ChunkPos p_223472_, int p_223473_) {
@@ -127,126 +158,87 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
     }
 
     public CompletableFuture<Void> store(ChunkPos p_63539_, @Nullable CompoundTag p_63540_) {
-        return this.<CompletableFuture<Void>>submitTask(() -> {
-            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(p_63539_, p_223488_ -> new IOWorker.PendingStore(p_63540_));
-            ioworker$pendingstore.data = p_63540_;
-            return Either.left(ioworker$pendingstore.result);
-        }).thenCompose(Function.identity());
+        return this.getShard(p_63539_).store(p_63539_, p_63540_);
     }
 
-    public CompletableFuture<Optional<CompoundTag>> loadAsync(ChunkPos p_156588_) {
-        return this.submitTask(() -> {
-            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(p_156588_);
-            if (ioworker$pendingstore != null) {
-                return Either.left(Optional.ofNullable(ioworker$pendingstore.copyData()));
-            } else {
-                try {
-                    CompoundTag compoundtag = this.storage.read(p_156588_);
-                    return Either.left(Optional.ofNullable(compoundtag));
-                } catch (Exception exception) {
-                    LOGGER.warn("Failed to read chunk {}", p_156588_, exception);
-                    return Either.right(exception);
-                }
-            }
-        });
+    public CompletableFuture<Void> store(ChunkPos pos, CompletableFuture<CompoundTag> serialization) {
+        return this.getShard(pos).store(pos, serialization);
     }
 
-    public CompletableFuture<Void> synchronize(boolean p_182499_) {
-        CompletableFuture<Void> completablefuture = this.<CompletableFuture<Void>>submitTask(
-                () -> Either.left(
-                        CompletableFuture.allOf(this.pendingWrites.values().stream().map(p_223475_ -> p_223475_.result).toArray(CompletableFuture[]::new))
-                    )
-            )
-            .thenCompose(Function.identity());
-        return p_182499_ ? completablefuture.thenCompose(p_182494_ -> this.submitTask(() -> {
-                try {
-                    this.storage.flush();
-                    return Either.left(null);
-                } catch (Exception exception) {
-                    LOGGER.warn("Failed to synchronize chunks", (Throwable)exception);
-                    return Either.right(exception);
-                }
-            })) : completablefuture.thenCompose(p_223477_ -> this.submitTask(() -> Either.left(null)));
+    public CompletableFuture<Optional<CompoundTag>> loadAsync(ChunkPos p_156588_) {
+        return this.getShard(p_156588_).loadAsync(p_156588_);
     }
 
-    @Override
-    public CompletableFuture<Void> scanChunk(ChunkPos p_196939_, StreamTagVisitor p_196940_) {
-        return this.submitTask(() -> {
-            try {
-                IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(p_196939_);
-                if (ioworker$pendingstore != null) {
-                    if (ioworker$pendingstore.data != null) {
-                        ioworker$pendingstore.data.acceptAsRoot(p_196940_);
-                    }
-                } else {
-                    this.storage.scanChunk(p_196939_, p_196940_);
-                }
+    public CompletableFuture<Map<ChunkPos, CompoundTag>> loadAllAsync(Collection<ChunkPos> positions) {
+        if (this.shards.length == 1) {
+            return this.shards[0].loadAllAsync(List.copyOf(positions));
+        } else {
+            Map<IOWorker.Shard, List<ChunkPos>> map = new LinkedHashMap<>();
 
-                return Either.left(null);
-            } catch (Exception exception) {
-                LOGGER.warn("Failed to bulk scan chunk {}", p_196939_, exception);
-                return Either.right(exception);
+            for (ChunkPos chunkpos : positions) {
+                map.computeIfAbsent(this.getShard(chunkpos), shard -> new ArrayList<>()).add(chunkpos);
             }
-        });
-    }
 
-    private <T> CompletableFuture<T> submitTask(Supplier<Either<T, Exception>> p_63546_) {
-        return this.mailbox.askEither(p_223483_ -> new StrictQueue.IntRunnable(IOWorker.Priority.FOREGROUND.ordinal(), () -> {
-                if (!this.shutdownRequested.get()) {
-                    p_223483_.tell(p_63546_.get());
-                }
+            List<CompletableFuture<Map<ChunkPos, CompoundTag>>> list = new ArrayList<>(map.size());
+            map.forEach((shard, chunks) -> list.add(shard.loadAllAsync(chunks)));
+            return CompletableFuture.allOf(list.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+                Map<ChunkPos, CompoundTag> map1 = new LinkedHashMap<>();
 
-                this.tellStorePending();
-            }));
-    }
+                for (CompletableFuture<Map<ChunkPos, CompoundTag>> completablefuture : list) {
+                    map1.putAll(completablefuture.join());
+                }
 
-    private void storePendingChunk() {
-        if (!this.pendingWrites.isEmpty()) {
-            Iterator<Entry<ChunkPos, IOWorker.PendingStore>> iterator = this.pendingWrites.entrySet().iterator();
-            Entry<ChunkPos, IOWorker.PendingStore> entry = iterator.next();
-            iterator.remove();
-            this.runStore(entry.getKey(), entry.getValue());
-            this.tellStorePending();
+                return map1;
+            });
         }
     }
 
-    private void tellStorePending() {
-        this.mailbox.tell(new StrictQueue.IntRunnable(IOWorker.Priority.BACKGROUND.ordinal(), this::storePendingChunk));
-    }
+    public CompletableFuture<Void> synchronize(boolean p_182499_) {
+        if (this.shards.length == 1) {
+            return this.shards[0].synchronize(p_182499_);
+        } else {
+            CompletableFuture<?>[] completablefutures = new CompletableFuture<?>[this.shards.length];
+
+            for (int i = 0; i < this.shards.length; i++) {
+                completablefutures[i] = this.shards[i].synchronize(p_182499_);
+            }
 
-    private void runStore(ChunkPos p_63536_, IOWorker.PendingStore p_63537_) {
-        try {
-            this.storage.write(p_63536_, p_63537_.data);
-            p_63537_.result.complete(null);
-        } catch (Exception exception) {
-            LOGGER.error("Failed to store chunk {}", p_63536_, exception);
-            p_63537_.result.completeExceptionally(exception);
+            return CompletableFuture.allOf(completablefutures);
         }
     }
 
+    @Override
+    public CompletableFuture<Void> scanChunk(ChunkPos p_196939_, StreamTagVisitor p_196940_) {
+        return this.getShard(p_196939_).scanChunk(p_196939_, p_196940_);
+    }
+
     @Override
     public void close() throws IOException {
         if (this.shutdownRequested.compareAndSet(false, true)) {
-            this.mailbox
-                .ask(p_223467_ -> new StrictQueue.IntRunnable(IOWorker.Priority.SHUTDOWN.ordinal(), () -> p_223467_.tell(Unit.INSTANCE)))
-                .join();
-            this.mailbox.close();
+            List<CompletableFuture<Unit>> list = new ArrayList<>(this.shards.length);
 
-            try {
-                this.storage.close();
-            } catch (Exception exception) {
-                LOGGER.error("Failed to close storage", (Throwable)exception);
+            for (IOWorker.Shard ioworker$shard : this.shards) {
+                list.add(ioworker$shard.requestShutdown());
+            }
+
+            CompletableFuture.allOf(list.toArray(CompletableFuture[]::new)).join();
+
+            for (IOWorker.Shard ioworker$shard1 : this.shards) {
+                ioworker$shard1.close();
             }
         }
     }
 
     public RegionStorageInfo storageInfo() {
-        return this.storage.info();
+        return this.info;
     }
 
     static class PendingStore {
         @Nullable
         CompoundTag data;
+        boolean hasData;
+        @Nullable
+        CompletableFuture<CompoundTag> serialization;
         final CompletableFuture<Void> result = new CompletableFuture<>();
 
         public PendingStore(@Nullable CompoundTag p_63568_) {
@@ -265,4 +257,242 @@ public class IOWorker implements ChunkScanAccess, AutoCloseable {
         BACKGROUND,
         SHUTDOWN;
     }
+
+    class Shard implements ProfilerMeasured {
+        private final String name;
+        private final ProcessorMailbox<StrictQueue.IntRunnable> mailbox;
+        private final RegionFileStorage storage;
+        private final Map<ChunkPos, IOWorker.PendingStore> pendingWrites = Maps.newLinkedHashMap();
+        private final Set<ChunkPos> readyWrites = new LinkedHashSet<>();
+        private volatile double queueLatencyMs;
+        private volatile double taskTimeMs;
+        private volatile int pendingWriteCount;
+
+        Shard(String name, RegionFileStorage storage) {
+            this.name = name;
+            this.storage = storage;
+            this.mailbox = new ProcessorMailbox<>(new StrictQueue.FixedPriorityQueue(IOWorker.Priority.values().length), Util.ioPool(), name);
+            MetricsRegistry.INSTANCE.add(this);
+        }
+
+        public CompletableFuture<Void> store(ChunkPos p_63539_, @Nullable CompoundTag p_63540_) {
+            return this.<CompletableFuture<Void>>submitTask(() -> {
+                IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(p_63539_, p_223488_ -> new IOWorker.PendingStore(p_63540_));
+                ioworker$pendingstore.data = p_63540_;
+                ioworker$pendingstore.hasData = true;
+                ioworker$pendingstore.serialization = null;
+                this.readyWrites.add(p_63539_);
+                return Either.left(ioworker$pendingstore.result);
+            }).thenCompose(Function.identity());
+        }
+
+        public CompletableFuture<Void> store(ChunkPos pos, CompletableFuture<CompoundTag> serialization) {
+            return this.<CompletableFuture<Void>>submitTask(() -> {
+                IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.computeIfAbsent(pos, p_223488_ -> new IOWorker.PendingStore(null));
+                ioworker$pendingstore.serialization = serialization;
+                this.readyWrites.remove(pos);
+                serialization.whenComplete(
+                    (tag, throwable) -> this.mailbox.tell(new StrictQueue.IntRunnable(IOWorker.Priority.FOREGROUND.ordinal(), () -> {
+                            this.getPendingStore(pos);
+                            this.tellStorePending();
+                        }))
+                );
+                return Either.left(serialization.thenCompose(tag -> ioworker$pendingstore.result));
+            }).thenCompose(Function.identity());
+        }
+
+        @Nullable
+        private IOWorker.PendingStore getPendingStore(ChunkPos pos) {
+            IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(pos);
+            if (ioworker$pendingstore != null && ioworker$pendingstore.serialization != null && ioworker$pendingstore.serialization.isDone()) {
+                CompletableFuture<CompoundTag> completablefuture = ioworker$pendingstore.serialization;
+                ioworker$pendingstore.serialization = null;
+
+                try {
+                    ioworker$pendingstore.data = completablefuture.join();
+                    ioworker$pendingstore.hasData = true;
+                } catch (CompletionException | CancellationException exception) {
+                    IOWorker.LOGGER.warn("Failed to serialize chunk {}", pos, exception);
+                    if (!ioworker$pendingstore.hasData) {
+                        this.pendingWrites.remove(pos);
+                        ioworker$pendingstore.result.complete(null);
+                        return null;
+                    }
+                }
+
+                this.readyWrites.add(pos);
+            }
+
+            return ioworker$pendingstore;
+        }
+
+        public CompletableFuture<Optional<CompoundTag>> loadAsync(ChunkPos p_156588_) {
+            return this.<CompletableFuture<Optional<CompoundTag>>>submitTask(() -> {
+                IOWorker.PendingStore ioworker$pendingstore = this.getPendingStore(p_156588_);
+                if (ioworker$pendingstore != null) {
+                    return ioworker$pendingstore.serialization != null
+                        ? Either.left(ioworker$pendingstore.serialization.handle((tag, throwable) -> null).thenCompose(ignored -> this.loadAsync(p_156588_)))
+                        : Either.left(CompletableFuture.completedFuture(Optional.ofNullable(ioworker$pendingstore.copyData())));
+                } else {
+                    try {
+                        CompoundTag compoundtag = this.storage.read(p_156588_);
+                        return Either.left(CompletableFuture.completedFuture(Optional.ofNullable(compoundtag)));
+                    } catch (Exception exception) {
+                        IOWorker.LOGGER.warn("Failed to read chunk {}", p_156588_, exception);
+                        return Either.right(exception);
+                    }
+                }
+            }).thenCompose(Function.identity());
+        }
+
+        public CompletableFuture<Map<ChunkPos, CompoundTag>> loadAllAsync(List<ChunkPos> positions) {
+            return this.<CompletableFuture<Map<ChunkPos, CompoundTag>>>submitTask(() -> {
+                List<CompletableFuture<?>> list1 = new ArrayList<>();
+
+                for (ChunkPos chunkpos1 : positions) {
+                    IOWorker.PendingStore ioworker$pendingstore1 = this.getPendingStore(chunkpos1);
+                    if (ioworker$pendingstore1 != null && ioworker$pendingstore1.serialization != null) {
+                        list1.add(ioworker$pendingstore1.serialization.handle((tag, throwable) -> null));
+                    }
+                }
+
+                if (!list1.isEmpty()) {
+                    return Either.left(CompletableFuture.allOf(list1.toArray(CompletableFuture[]::new)).thenCompose(ignored -> this.loadAllAsync(positions)));
+                }
+
+                Map<ChunkPos, CompoundTag> map = new LinkedHashMap<>();
+                List<ChunkPos> list = new ArrayList<>(positions.size());
+
+                for (ChunkPos chunkpos : positions) {
+                    IOWorker.PendingStore ioworker$pendingstore = this.pendingWrites.get(chunkpos);
+                    if (ioworker$pendingstore != null) {
+                        CompoundTag compoundtag = ioworker$pendingstore.copyData();
+                        if (compoundtag != null) {
+                            map.put(chunkpos, compoundtag);
+                        }
+                    } else {
+                        list.add(chunkpos);
+                    }
+                }
+
+                try {
+                    this.storage.readChunks(list, map::put);
+                    return Either.left(CompletableFuture.completedFuture(map));
+                } catch (Exception exception) {
+                    IOWorker.LOGGER.warn("Failed to bulk read {} chunks", list.size(), exception);
+                    return Either.right(exception);
+                }
+            }).thenCompose(Function.identity());
+        }
+
+        public CompletableFuture<Void> synchronize(boolean p_182499_) {
+            CompletableFuture<Void> completablefuture = this.<CompletableFuture<Void>>submitTask(
+                    () -> Either.left(
+                            CompletableFuture.allOf(this.pendingWrites.values().stream().map(p_223475_ -> p_223475_.result).toArray(CompletableFuture[]::new))
+                        )
+                )
+                .thenCompose(Function.identity());
+            return p_182499_ ? completablefuture.thenCompose(p_182494_ -> this.submitTask(() -> {
+                    try {
+                        this.storage.flush();
+                        return Either.left(null);
+                    } catch (Exception exception) {
+                        IOWorker.LOGGER.warn("Failed to synchronize chunks", (Throwable)exception);
+                        return Either.right(exception);
+                    }
+                })) : completablefuture.thenCompose(p_223477_ -> this.submitTask(() -> Either.left(null)));
+        }
+
+        public CompletableFuture<Void> scanChunk(ChunkPos p_196939_, StreamTagVisitor p_196940_) {
+            return this.submitTask(() -> {
+                try {
+                    IOWorker.PendingStore ioworker$pendingstore = this.getPendingStore(p_196939_);
+                    if (ioworker$pendingstore != null && ioworker$pendingstore.hasData) {
+                        if (ioworker$pendingstore.data != null) {
+                            ioworker$pendingstore.data.acceptAsRoot(p_196940_);
+                        }
+                    } else {
+                        this.storage.scanChunk(p_196939_, p_196940_);
+                    }
+
+                    return Either.left(null);
+                } catch (Exception exception) {
+                    IOWorker.LOGGER.warn("Failed to bulk scan chunk {}", p_196939_, exception);
+                    return Either.right(exception);
+                }
+            });
+        }
+
+        private <T> CompletableFuture<T> submitTask(Supplier<Either<T, Exception>> p_63546_) {
+            long i = Util.getNanos();
+            return this.mailbox.askEither(p_223483_ -> new StrictQueue.IntRunnable(IOWorker.Priority.FOREGROUND.ordinal(), () -> {
+                    long j = Util.getNanos();
+                    if (!IOWorker.this.shutdownRequested.get()) {
+                        p_223483_.tell(p_63546_.get());
+                    }
+
+                    this.recordTask(i, j);
+                    this.tellStorePending();
+                }));
+        }
+
+        private void storePendingChunk() {
+            Iterator<ChunkPos> iterator = this.readyWrites.iterator();
+            if (iterator.hasNext()) {
+                long i = Util.getNanos();
+                ChunkPos chunkpos = iterator.next();
+                iterator.remove();
+                this.runStore(chunkpos, this.pendingWrites.remove(chunkpos));
+                this.recordTaskTime(i);
+                this.tellStorePending();
+            }
+        }
+
+        private void tellStorePending() {
+            this.mailbox.tell(new StrictQueue.IntRunnable(IOWorker.Priority.BACKGROUND.ordinal(), this::storePendingChunk));
+        }
+
+        private void runStore(ChunkPos p_63536_, IOWorker.PendingStore p_63537_) {
+            try {
+                this.storage.write(p_63536_, p_63537_.data);
+                p_63537_.result.complete(null);
+            } catch (Exception exception) {
+                IOWorker.LOGGER.error("Failed to store chunk {}", p_63536_, exception);
+                p_63537_.result.completeExceptionally(exception);
+            }
+        }
+
+        private void recordTask(long queuedAt, long startedAt) {
+            this.queueLatencyMs = this.queueLatencyMs * 0.95 + (double)(startedAt - queuedAt) / 1000000.0 * 0.05;
+            this.recordTaskTime(startedAt);
+        }
+
+        private void recordTaskTime(long startedAt) {
+            this.taskTimeMs = this.taskTimeMs * 0.95 + (double)(Util.getNanos() - startedAt) / 1000000.0 * 0.05;
+            this.pendingWriteCount = this.pendingWrites.size();
+        }
+
+        CompletableFuture<Unit> requestShutdown() {
+            return this.mailbox.ask(p_223467_ -> new StrictQueue.IntRunnable(IOWorker.Priority.SHUTDOWN.ordinal(), () -> p_223467_.tell(Unit.INSTANCE)));
+        }
+
+        void close() {
+            this.mailbox.close();
+
+            try {
+                this.storage.close();
+            } catch (Exception exception) {
+                IOWorker.LOGGER.error("Failed to close storage", (Throwable)exception);
+            }
+        }
+
+        @Override
+        public List<MetricSampler> profiledMetrics() {
+            return ImmutableList.of(
+                MetricSampler.create(this.name + "-queue-latency", MetricCategory.MAIL_BOXES, () -> this.queueLatencyMs),
+                MetricSampler.create(this.name + "-task-time", MetricCategory.MAIL_BOXES, () -> this.taskTimeMs),
+                MetricSampler.create(this.name + "-pending-writes", MetricCategory.MAIL_BOXES, () -> (double)this.pendingWriteCount)
+            );
+        }
+    }
 }
\ No newline at end of file
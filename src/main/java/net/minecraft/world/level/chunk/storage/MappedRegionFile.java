@@ -0,0 +1,229 @@
+package net.minecraft.world.level.chunk.storage;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import javax.annotation.Nullable;
+import net.minecraft.world.level.ChunkPos;
+
+public class MappedRegionFile extends RegionFile {
+    private static final int LOCK_STRIPES = 64;
+    private static final long MAX_MAPPED_BYTES = 2147483647L;
+    private static final long MAPPING_STEP = 1048576L;
+    private final StampedLock[] locks = new StampedLock[LOCK_STRIPES];
+    private final Object mappingLock = new Object();
+    private final boolean sync;
+    @Nullable
+    private volatile MappedByteBuffer sectors;
+
+    public MappedRegionFile(RegionStorageInfo p_333062_, Path p_63633_, Path p_63634_, boolean p_63636_) throws IOException {
+        this(p_333062_, p_63633_, p_63634_, RegionFileVersion.getSelected(), RegionDictionary.EMPTY, p_63636_);
+    }
+
+    public MappedRegionFile(
+        RegionStorageInfo p_335896_, Path p_196950_, Path p_196951_, RegionFileVersion p_331589_, RegionDictionary dictionary, boolean p_196952_
+    ) throws IOException {
+        this(p_335896_, p_196950_, p_196951_, p_331589_, dictionary, p_196952_, null);
+    }
+
+    public MappedRegionFile(
+        RegionStorageInfo p_335896_,
+        Path p_196950_,
+        Path p_196951_,
+        RegionFileVersion p_331589_,
+        RegionDictionary dictionary,
+        boolean p_196952_,
+        @Nullable RegionFile.HeaderSnapshot warmHeader
+    ) throws IOException {
+        super(p_335896_, p_196950_, p_196951_, p_331589_, dictionary, p_196952_, true, warmHeader);
+        this.sync = p_196952_;
+
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new StampedLock();
+        }
+    }
+
+    private StampedLock getLock(int index) {
+        return this.locks[HashCommon.mix(index) & LOCK_STRIPES - 1];
+    }
+
+    @Nullable
+    @Override
+    public DataInputStream getChunkDataInputStream(ChunkPos pos) throws IOException {
+        StampedLock stampedlock = this.getLock(getOffsetIndex(pos));
+        MappedRegionFile.ReadLease mappedregionfile$readlease = new MappedRegionFile.ReadLease(stampedlock, stampedlock.readLock());
+        DataInputStream datainputstream = null;
+
+        try {
+            int i = this.getOffset(pos);
+            if (i == 0) {
+                return null;
+            }
+
+            long j = (long)getSectorNumber(i) * 4096L;
+            long k = j + (long)getNumSectors(i) * 4096L;
+            ByteBuffer bytebuffer = this.getSectors(j, k);
+            if (bytebuffer == null) {
+                mappedregionfile$readlease.release();
+                return super.getChunkDataInputStream(pos);
+            }
+
+            datainputstream = this.createChunkInputStream(pos, bytebuffer, (int)(k - j), mappedregionfile$readlease);
+        } finally {
+            if (datainputstream == null || !mappedregionfile$readlease.claimed) {
+                mappedregionfile$readlease.release();
+            }
+        }
+
+        return datainputstream;
+    }
+
+    @Override
+    public void readChunks(Collection<ChunkPos> positions, RegionFile.ChunkStreamConsumer consumer) throws IOException {
+        for (ChunkPos chunkpos : this.sortBySector(positions)) {
+            try (DataInputStream datainputstream = this.getChunkDataInputStream(chunkpos)) {
+                if (datainputstream != null) {
+                    consumer.accept(chunkpos, datainputstream);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private ByteBuffer getSectors(long start, long end) throws IOException {
+        MappedByteBuffer mappedbytebuffer = this.sectors;
+        if (mappedbytebuffer == null || (long)mappedbytebuffer.capacity() < end) {
+            synchronized (this.mappingLock) {
+                mappedbytebuffer = this.sectors;
+                if (mappedbytebuffer == null || (long)mappedbytebuffer.capacity() < end) {
+                    long i = Math.min(this.file.size() / MAPPING_STEP * MAPPING_STEP, MAX_MAPPED_BYTES);
+                    if (i < end) {
+                        return null;
+                    }
+
+                    mappedbytebuffer = this.file.map(FileChannel.MapMode.READ_ONLY, 0L, i);
+                    this.sectors = mappedbytebuffer;
+                }
+            }
+        }
+
+        return mappedbytebuffer.slice((int)start, (int)(end - start));
+    }
+
+    @Override
+    int swapOffset(int index, int offset) throws IOException {
+        StampedLock stampedlock = this.getLock(index);
+        long i = stampedlock.writeLock();
+
+        try {
+            return super.swapOffset(index, offset);
+        } finally {
+            stampedlock.unlockWrite(i);
+        }
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        MappedByteBuffer mappedbytebuffer = this.sectors;
+        return mappedbytebuffer != null ? super.estimateMemoryUsage() + (long)mappedbytebuffer.capacity() : super.estimateMemoryUsage();
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        if (this.sync) {
+            ((MappedByteBuffer)this.header).force();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ((MappedByteBuffer)this.header).force();
+        super.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            ((MappedByteBuffer)this.header).force();
+        } finally {
+            super.close();
+        }
+    }
+
+    static class ReadLease implements RegionFile.StreamFactory {
+        private final StampedLock lock;
+        private final long stamp;
+        boolean claimed;
+        private boolean released;
+
+        ReadLease(StampedLock lock, long stamp) {
+            this.lock = lock;
+            this.stamp = stamp;
+        }
+
+        @Override
+        public InputStream create(ByteBuffer buffer, int length) {
+            this.claimed = true;
+            return new MappedRegionFile.SectorInputStream(buffer.slice(buffer.position(), length), this);
+        }
+
+        synchronized void release() {
+            if (!this.released) {
+                this.released = true;
+                this.lock.unlockRead(this.stamp);
+            }
+        }
+    }
+
+    static class SectorInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private final MappedRegionFile.ReadLease lease;
+
+        SectorInputStream(ByteBuffer buffer, MappedRegionFile.ReadLease lease) {
+            this.buffer = buffer;
+            this.lease = lease;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? Byte.toUnsignedInt(this.buffer.get()) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            } else if (!this.buffer.hasRemaining()) {
+                return -1;
+            } else {
+                int i = Math.min(length, this.buffer.remaining());
+                this.buffer.get(bytes, offset, i);
+                return i;
+            }
+        }
+
+        @Override
+        public long skip(long count) {
+            int i = (int)Math.max(0L, Math.min(count, (long)this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + i);
+            return (long)i;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            this.lease.release();
+        }
+    }
+}
@@ -32,6 +32,16 @@ public class RegionBitmap {
         }
     }
 
+    public RegionBitmap copy() {
+        RegionBitmap regionbitmap = new RegionBitmap();
+        regionbitmap.used.or(this.used);
+        return regionbitmap;
+    }
+
+    public long estimateMemoryUsage() {
+        return (long)(this.used.size() >> 3) + 32L;
+    }
+
     @VisibleForTesting
     public IntSet getUsed() {
         return this.used.stream().collect(IntArraySet::new, IntCollection::add, IntCollection::addAll);
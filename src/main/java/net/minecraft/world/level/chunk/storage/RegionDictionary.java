@@ -0,0 +1,76 @@
+package net.minecraft.world.level.chunk.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import net.minecraft.FileUtil;
+
+public final class RegionDictionary {
+    public static final String FILE_NAME = "compression.dict";
+    public static final int MAX_SIZE = 1048576;
+    public static final RegionDictionary EMPTY = new RegionDictionary(new byte[0]);
+    private final byte[] bytes;
+    private final int id;
+    @Nullable
+    private volatile int[] hashTable;
+
+    public RegionDictionary(byte[] bytes) {
+        if (bytes.length > MAX_SIZE) {
+            throw new IllegalArgumentException("Dictionary is too large: " + bytes.length + " > " + MAX_SIZE);
+        } else {
+            this.bytes = bytes;
+            this.id = computeId(bytes);
+        }
+    }
+
+    private static int computeId(byte[] bytes) {
+        if (bytes.length == 0) {
+            return 0;
+        } else {
+            CRC32 crc32 = new CRC32();
+            crc32.update(bytes);
+            return (int)crc32.getValue();
+        }
+    }
+
+    public static RegionDictionary load(Path folder) throws IOException {
+        Path path = folder.resolve(FILE_NAME);
+        return Files.isRegularFile(path) ? new RegionDictionary(Files.readAllBytes(path)) : EMPTY;
+    }
+
+    public void save(Path folder) throws IOException {
+        FileUtil.createDirectoriesSafe(folder);
+        Path path = Files.createTempFile(folder, "dict", null);
+        Files.write(path, this.bytes);
+        Files.move(path, folder.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public boolean isEmpty() {
+        return this.bytes.length == 0;
+    }
+
+    public int size() {
+        return this.bytes.length;
+    }
+
+    public int id() {
+        return this.id;
+    }
+
+    byte[] bytes() {
+        return this.bytes;
+    }
+
+    int[] hashTable() {
+        int[] aint = this.hashTable;
+        if (aint == null) {
+            aint = RegionDictionaryCompressor.buildHashTable(this.bytes);
+            this.hashTable = aint;
+        }
+
+        return aint;
+    }
+}
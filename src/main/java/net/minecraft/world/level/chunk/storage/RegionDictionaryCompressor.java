@@ -0,0 +1,299 @@
+package net.minecraft.world.level.chunk.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+public class RegionDictionaryCompressor {
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_OFFSET = 16777215;
+    private static final int HASH_SIZE = 65536;
+    private static final ThreadLocal<int[]> HASH_TABLE = ThreadLocal.withInitial(() -> new int[HASH_SIZE]);
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_UNCOMPRESSED_SIZE = 268435456;
+
+    public static InputStream wrap(InputStream input, RegionDictionary dictionary) throws IOException {
+        byte[] abyte;
+        try {
+            abyte = input.readAllBytes();
+        } finally {
+            input.close();
+        }
+
+        if (abyte.length < HEADER_SIZE) {
+            throw new IOException("Dictionary compressed stream is truncated: " + abyte.length + " bytes");
+        } else {
+            int i = readIntBigEndian(abyte, 0);
+            int j = readIntBigEndian(abyte, 4);
+            if (i == 0) {
+                dictionary = RegionDictionary.EMPTY;
+            }
+
+            if (i != dictionary.id()) {
+                throw new IOException(
+                    "Stream was compressed with dictionary " + Integer.toHexString(i) + ", but the available dictionary is " + Integer.toHexString(dictionary.id())
+                );
+            } else if (j < 0 || j > MAX_UNCOMPRESSED_SIZE) {
+                throw new IOException("Invalid uncompressed size " + j);
+            } else {
+                byte[] abyte1 = dictionary.bytes();
+                byte[] abyte2 = new byte[abyte1.length + j];
+                System.arraycopy(abyte1, 0, abyte2, 0, abyte1.length);
+                decompress(abyte, HEADER_SIZE, abyte.length, abyte2, abyte1.length);
+                return new ByteArrayInputStream(abyte2, abyte1.length, j);
+            }
+        }
+    }
+
+    public static OutputStream wrap(OutputStream output, RegionDictionary dictionary) {
+        return new RegionDictionaryCompressor.CompressingOutputStream(output, dictionary);
+    }
+
+    static int maxCompressedLength(int length) {
+        return length + (length >> 4) + 64;
+    }
+
+    static int[] buildHashTable(byte[] dictionary) {
+        int[] aint = new int[HASH_SIZE];
+
+        for (int i = 0; i + MIN_MATCH <= dictionary.length; i++) {
+            aint[hash(readInt(dictionary, i))] = i + 1;
+        }
+
+        return aint;
+    }
+
+    static int compress(byte[] window, int start, int end, int[] dictionaryHashTable, byte[] output, int outputOffset) {
+        int[] aint = HASH_TABLE.get();
+        System.arraycopy(dictionaryHashTable, 0, aint, 0, HASH_SIZE);
+        int j = start;
+        int k = start;
+        int l = outputOffset;
+        int i1 = end - MIN_MATCH;
+
+        while (k <= i1) {
+            int j1 = readInt(window, k);
+            int k1 = hash(j1);
+            int l1 = aint[k1] - 1;
+            aint[k1] = k + 1;
+            if (l1 >= 0 && k - l1 <= MAX_OFFSET && readInt(window, l1) == j1) {
+                int i2 = MIN_MATCH;
+
+                while (k + i2 < end && window[l1 + i2] == window[k + i2]) {
+                    i2++;
+                }
+
+                while (k > j && l1 > 0 && window[k - 1] == window[l1 - 1]) {
+                    k--;
+                    l1--;
+                    i2++;
+                }
+
+                l = writeSequence(window, j, k - j, k - l1, i2, output, l);
+                k += i2;
+                j = k;
+                if (k - 2 <= i1) {
+                    aint[hash(readInt(window, k - 2))] = k - 1;
+                }
+            } else {
+                k++;
+            }
+        }
+
+        return writeLiterals(window, j, end - j, output, l) - outputOffset;
+    }
+
+    static void decompress(byte[] input, int start, int end, byte[] window, int windowOffset) throws IOException {
+        int i = start;
+        int j = windowOffset;
+
+        while (i < end) {
+            int k = input[i++] & 255;
+            int l = k >>> 4;
+            if (l == 15) {
+                int i1;
+                do {
+                    if (i >= end) {
+                        throw new IOException("Malformed dictionary compressed stream: truncated literal length");
+                    }
+
+                    i1 = input[i++] & 255;
+                    l += i1;
+                } while (i1 == 255 && l <= window.length);
+            }
+
+            if (l > end - i || l > window.length - j) {
+                throw new IOException("Malformed dictionary compressed stream: literals out of bounds");
+            }
+
+            System.arraycopy(input, i, window, j, l);
+            i += l;
+            j += l;
+            if (i >= end) {
+                break;
+            }
+
+            if (end - i < 3) {
+                throw new IOException("Malformed dictionary compressed stream: truncated match offset");
+            }
+
+            int j1 = input[i] & 255 | (input[i + 1] & 255) << 8 | (input[i + 2] & 255) << 16;
+            i += 3;
+            int k1 = k & 15;
+            if (k1 == 15) {
+                int l1;
+                do {
+                    if (i >= end) {
+                        throw new IOException("Malformed dictionary compressed stream: truncated match length");
+                    }
+
+                    l1 = input[i++] & 255;
+                    k1 += l1;
+                } while (l1 == 255 && k1 <= window.length);
+            }
+
+            k1 += MIN_MATCH;
+            int i2 = j - j1;
+            if (j1 == 0 || i2 < 0 || k1 > window.length - j) {
+                throw new IOException("Malformed dictionary compressed stream: match out of bounds");
+            }
+
+            if (j1 >= k1) {
+                System.arraycopy(window, i2, window, j, k1);
+            } else {
+                for (int j2 = 0; j2 < k1; j2++) {
+                    window[j + j2] = window[i2 + j2];
+                }
+            }
+
+            j += k1;
+        }
+
+        if (j != window.length) {
+            throw new IOException("Dictionary compressed stream is truncated: expected " + (window.length - windowOffset) + " bytes but got " + (j - windowOffset));
+        }
+    }
+
+    private static int writeSequence(byte[] window, int literalStart, int literalLength, int offset, int matchLength, byte[] output, int outputOffset) {
+        int i = matchLength - MIN_MATCH;
+        int j = outputOffset;
+        output[j++] = (byte)(Math.min(literalLength, 15) << 4 | Math.min(i, 15));
+        if (literalLength >= 15) {
+            j = writeLength(literalLength - 15, output, j);
+        }
+
+        System.arraycopy(window, literalStart, output, j, literalLength);
+        j += literalLength;
+        output[j++] = (byte)offset;
+        output[j++] = (byte)(offset >>> 8);
+        output[j++] = (byte)(offset >>> 16);
+        if (i >= 15) {
+            j = writeLength(i - 15, output, j);
+        }
+
+        return j;
+    }
+
+    private static int writeLiterals(byte[] window, int literalStart, int literalLength, byte[] output, int outputOffset) {
+        int i = outputOffset;
+        output[i++] = (byte)(Math.min(literalLength, 15) << 4);
+        if (literalLength >= 15) {
+            i = writeLength(literalLength - 15, output, i);
+        }
+
+        System.arraycopy(window, literalStart, output, i, literalLength);
+        return i + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] output, int outputOffset) {
+        int i = outputOffset;
+
+        while (length >= 255) {
+            output[i++] = -1;
+            length -= 255;
+        }
+
+        output[i++] = (byte)length;
+        return i;
+    }
+
+    private static int hash(int value) {
+        return value * -1640531535 >>> 16;
+    }
+
+    private static int readInt(byte[] bytes, int index) {
+        return bytes[index] & 255 | (bytes[index + 1] & 255) << 8 | (bytes[index + 2] & 255) << 16 | (bytes[index + 3] & 255) << 24;
+    }
+
+    private static int readIntBigEndian(byte[] bytes, int index) {
+        return (bytes[index] & 255) << 24 | (bytes[index + 1] & 255) << 16 | (bytes[index + 2] & 255) << 8 | bytes[index + 3] & 255;
+    }
+
+    private static void writeIntBigEndian(byte[] bytes, int index, int value) {
+        bytes[index] = (byte)(value >>> 24);
+        bytes[index + 1] = (byte)(value >>> 16);
+        bytes[index + 2] = (byte)(value >>> 8);
+        bytes[index + 3] = (byte)value;
+    }
+
+    static class CompressingOutputStream extends OutputStream {
+        private final OutputStream output;
+        private final RegionDictionary dictionary;
+        private final int start;
+        private byte[] buf;
+        private int count;
+        private boolean closed;
+
+        CompressingOutputStream(OutputStream output, RegionDictionary dictionary) {
+            this.output = output;
+            this.dictionary = dictionary;
+            this.start = dictionary.size();
+            this.buf = Arrays.copyOf(dictionary.bytes(), this.start + 8192);
+            this.count = this.start;
+        }
+
+        private void ensureCapacity(int additional) throws IOException {
+            if (this.count - this.start > MAX_UNCOMPRESSED_SIZE - additional) {
+                throw new IOException("Stream is too large for dictionary compression");
+            } else {
+                int i = this.count + additional;
+                if (i > this.buf.length) {
+                    this.buf = Arrays.copyOf(this.buf, Math.max(i, this.buf.length * 2));
+                }
+            }
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            this.ensureCapacity(1);
+            this.buf[this.count++] = (byte)value;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            this.ensureCapacity(length);
+            System.arraycopy(bytes, offset, this.buf, this.count, length);
+            this.count += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!this.closed) {
+                this.closed = true;
+
+                try {
+                    int i = this.count - this.start;
+                    byte[] abyte = new byte[HEADER_SIZE + RegionDictionaryCompressor.maxCompressedLength(i)];
+                    writeIntBigEndian(abyte, 0, this.dictionary.id());
+                    writeIntBigEndian(abyte, 4, i);
+                    int j = RegionDictionaryCompressor.compress(this.buf, this.start, this.count, this.dictionary.hashTable(), abyte, HEADER_SIZE);
+                    this.output.write(abyte, 0, HEADER_SIZE + j);
+                } finally {
+                    this.output.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.google.common.collect.Lists;
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.minecraft.Util;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
+
+public class RegionDictionaryTrainer {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Pattern REGION_FILE = Pattern.compile("^r\\.(-?[0-9]+)\\.(-?[0-9]+)\\.mca$");
+    public static final int DEFAULT_DICTIONARY_SIZE = 65536;
+    public static final int DEFAULT_SAMPLE_BYTES = 16777216;
+    private static final int SAMPLES_PER_REGION = 16;
+    private static final int KMER_SIZE = 8;
+    private static final int SEGMENT_SIZE = 128;
+    private static final int TABLE_BITS = 22;
+
+    public static List<byte[]> collectSamples(RegionStorageInfo info, Path folder, int maxSampleBytes, RandomSource random) throws IOException {
+        File[] afile = folder.toFile().listFiles((dir, name) -> REGION_FILE.matcher(name).matches());
+        List<byte[]> list = Lists.newArrayList();
+        if (afile == null) {
+            return list;
+        } else {
+            RegionDictionary regiondictionary = RegionDictionary.load(folder);
+            List<File> list1 = Util.shuffledCopy(afile, random);
+            long i = 0L;
+
+            for (File file1 : list1) {
+                if (i >= (long)maxSampleBytes) {
+                    break;
+                }
+
+                Matcher matcher = REGION_FILE.matcher(file1.getName());
+                matcher.matches();
+                int j = Integer.parseInt(matcher.group(1)) << 5;
+                int k = Integer.parseInt(matcher.group(2)) << 5;
+
+                try (RegionFile regionfile = new RegionFile(info, file1.toPath(), folder, RegionFileVersion.getSelected(), regiondictionary, false)) {
+                    IntArrayList intarraylist = new IntArrayList();
+
+                    for (int l = 0; l < 1024; l++) {
+                        if (regionfile.hasChunk(new ChunkPos(j + (l & 31), k + (l >> 5)))) {
+                            intarraylist.add(l);
+                        }
+                    }
+
+                    Util.shuffle(intarraylist, random);
+
+                    for (int i1 = 0; i1 < Math.min(SAMPLES_PER_REGION, intarraylist.size()) && i < (long)maxSampleBytes; i1++) {
+                        int j1 = intarraylist.getInt(i1);
+
+                        try (DataInputStream datainputstream = regionfile.getChunkDataInputStream(new ChunkPos(j + (j1 & 31), k + (j1 >> 5)))) {
+                            if (datainputstream != null) {
+                                byte[] abyte = datainputstream.readAllBytes();
+                                list.add(abyte);
+                                i += (long)abyte.length;
+                            }
+                        } catch (IOException ioexception) {
+                            LOGGER.warn("Failed to sample chunk from region file {}", file1, ioexception);
+                        }
+                    }
+                }
+            }
+
+            LOGGER.info("Collected {} samples ({} bytes) from {}", list.size(), i, folder);
+            return list;
+        }
+    }
+
+    public static RegionDictionary train(List<byte[]> samples, int dictionarySize) {
+        int[] aint = new int[1 << TABLE_BITS];
+        int[] aint1 = new int[1 << TABLE_BITS];
+
+        for (int i = 0; i < samples.size(); i++) {
+            byte[] abyte = samples.get(i);
+
+            for (int j = 0; j + KMER_SIZE <= abyte.length; j++) {
+                int k = kmerHash(abyte, j);
+                if (aint1[k] != i + 1) {
+                    aint1[k] = i + 1;
+                    aint[k]++;
+                }
+            }
+        }
+
+        BitSet bitset = new BitSet(1 << TABLE_BITS);
+        IntOpenHashSet intopenhashset = new IntOpenHashSet();
+        PriorityQueue<RegionDictionaryTrainer.Segment> priorityqueue = new PriorityQueue<>(
+            Comparator.comparingLong(RegionDictionaryTrainer.Segment::score).reversed()
+        );
+
+        for (int l = 0; l < samples.size(); l++) {
+            byte[] abyte1 = samples.get(l);
+
+            for (int i1 = 0; i1 + SEGMENT_SIZE <= abyte1.length; i1 += SEGMENT_SIZE / 2) {
+                long j1 = score(abyte1, i1, aint, bitset, intopenhashset);
+                if (j1 > 0L) {
+                    priorityqueue.add(new RegionDictionaryTrainer.Segment(l, i1, j1));
+                }
+            }
+        }
+
+        List<RegionDictionaryTrainer.Segment> list = Lists.newArrayList();
+        int k1 = 0;
+
+        while (k1 < dictionarySize && !priorityqueue.isEmpty()) {
+            RegionDictionaryTrainer.Segment regiondictionarytrainer$segment = priorityqueue.poll();
+            byte[] abyte2 = samples.get(regiondictionarytrainer$segment.sample);
+            long l1 = score(abyte2, regiondictionarytrainer$segment.start, aint, bitset, intopenhashset);
+            if (l1 == regiondictionarytrainer$segment.score) {
+                for (int i2 = regiondictionarytrainer$segment.start; i2 + KMER_SIZE <= regiondictionarytrainer$segment.start + SEGMENT_SIZE; i2++) {
+                    bitset.set(kmerHash(abyte2, i2));
+                }
+
+                list.add(regiondictionarytrainer$segment);
+                k1 += SEGMENT_SIZE;
+            } else if (l1 > 0L) {
+                priorityqueue.add(new RegionDictionaryTrainer.Segment(regiondictionarytrainer$segment.sample, regiondictionarytrainer$segment.start, l1));
+            }
+        }
+
+        ByteArrayOutputStream bytearrayoutputstream = new ByteArrayOutputStream(k1);
+
+        for (int j2 = list.size() - 1; j2 >= 0; j2--) {
+            RegionDictionaryTrainer.Segment regiondictionarytrainer$segment1 = list.get(j2);
+            bytearrayoutputstream.write(samples.get(regiondictionarytrainer$segment1.sample), regiondictionarytrainer$segment1.start, SEGMENT_SIZE);
+        }
+
+        byte[] abyte3 = bytearrayoutputstream.toByteArray();
+        int k2 = Math.max(0, abyte3.length - dictionarySize);
+        LOGGER.info("Trained {} byte dictionary from {} samples", abyte3.length - k2, samples.size());
+        return new RegionDictionary(Arrays.copyOfRange(abyte3, k2, abyte3.length));
+    }
+
+    private static long score(byte[] bytes, int start, int[] counts, BitSet covered, IntOpenHashSet seen) {
+        seen.clear();
+        long i = 0L;
+
+        for (int j = start; j + KMER_SIZE <= start + SEGMENT_SIZE; j++) {
+            int k = kmerHash(bytes, j);
+            if (counts[k] > 1 && !covered.get(k) && seen.add(k)) {
+                i += (long)counts[k];
+            }
+        }
+
+        return i;
+    }
+
+    private static int kmerHash(byte[] bytes, int index) {
+        long i = 0L;
+
+        for (int j = 0; j < KMER_SIZE; j++) {
+            i = i << 8 | (long)(bytes[index + j] & 255);
+        }
+
+        return (int)(HashCommon.mix(i) >>> 64 - TABLE_BITS);
+    }
+
+    static record Segment(int sample, int start, long score) {
+    }
+}
@@ -15,6 +15,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import javax.annotation.Nullable;
 import net.minecraft.Util;
 import net.minecraft.resources.ResourceLocation;
@@ -34,33 +39,64 @@ public class RegionFile implements AutoCloseable {
     private static final int EXTERNAL_STREAM_FLAG = 128;
     private static final int EXTERNAL_CHUNK_THRESHOLD = 256;
     private static final int CHUNK_NOT_PRESENT = 0;
+    private static final int MAX_BULK_READ_GAP_SECTORS = 16;
+    private static final int MAX_BULK_READ_SECTORS = 2048;
     final RegionStorageInfo info;
     private final Path path;
-    private final FileChannel file;
+    final FileChannel file;
     private final Path externalFileDir;
     final RegionFileVersion version;
-    private final ByteBuffer header = ByteBuffer.allocateDirect(8192);
+    private final RegionDictionary dictionary;
+    final ByteBuffer header;
     private final IntBuffer offsets;
     private final IntBuffer timestamps;
     @VisibleForTesting
-    protected final RegionBitmap usedSectors = new RegionBitmap();
+    protected final RegionBitmap usedSectors;
 
     public RegionFile(RegionStorageInfo p_333062_, Path p_63633_, Path p_63634_, boolean p_63636_) throws IOException {
         this(p_333062_, p_63633_, p_63634_, RegionFileVersion.getSelected(), p_63636_);
     }
 
     public RegionFile(RegionStorageInfo p_335896_, Path p_196950_, Path p_196951_, RegionFileVersion p_331589_, boolean p_196952_) throws IOException {
+        this(p_335896_, p_196950_, p_196951_, p_331589_, RegionDictionary.EMPTY, p_196952_);
+    }
+
+    public RegionFile(
+        RegionStorageInfo p_335896_, Path p_196950_, Path p_196951_, RegionFileVersion p_331589_, RegionDictionary dictionary, boolean p_196952_
+    ) throws IOException {
+        this(p_335896_, p_196950_, p_196951_, p_331589_, dictionary, p_196952_, false, null);
+    }
+
+    public RegionFile(
+        RegionStorageInfo p_335896_,
+        Path p_196950_,
+        Path p_196951_,
+        RegionFileVersion p_331589_,
+        RegionDictionary dictionary,
+        boolean p_196952_,
+        @Nullable RegionFile.HeaderSnapshot warmHeader
+    ) throws IOException {
+        this(p_335896_, p_196950_, p_196951_, p_331589_, dictionary, p_196952_, false, warmHeader);
+    }
+
+    protected RegionFile(
+        RegionStorageInfo p_335896_,
+        Path p_196950_,
+        Path p_196951_,
+        RegionFileVersion p_331589_,
+        RegionDictionary dictionary,
+        boolean p_196952_,
+        boolean mapHeader,
+        @Nullable RegionFile.HeaderSnapshot warmHeader
+    ) throws IOException {
         this.info = p_335896_;
         this.path = p_196950_;
         this.version = p_331589_;
+        this.dictionary = dictionary;
         if (!Files.isDirectory(p_196951_)) {
             throw new IllegalArgumentException("Expected directory, got " + p_196951_.toAbsolutePath());
         } else {
             this.externalFileDir = p_196951_;
-            this.offsets = this.header.asIntBuffer();
-            this.offsets.limit(1024);
-            this.header.position(4096);
-            this.timestamps = this.header.asIntBuffer();
             if (p_196952_) {
                 this.file = FileChannel.open(
                     p_196950_, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DSYNC
@@ -69,10 +105,33 @@ public class RegionFile implements AutoCloseable {
                 this.file = FileChannel.open(p_196950_, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
             }
 
-            this.usedSectors.force(0, 2);
+            int i;
+            if (mapHeader) {
+                long size = warmHeader != null ? 8192L : this.file.size();
+                this.header = this.file.map(FileChannel.MapMode.READ_WRITE, 0L, 8192L);
+                i = size == 0L ? -1 : (int)Math.min(size, 8192L);
+            } else if (warmHeader != null) {
+                this.header = ByteBuffer.allocateDirect(8192);
+                this.header.put(0, warmHeader.header);
+                i = -1;
+            } else {
+                this.header = ByteBuffer.allocateDirect(8192);
+                i = this.file.read(this.header, 0L);
+            }
+
             this.header.position(0);
-            int i = this.file.read(this.header, 0L);
-            if (i != -1) {
+            this.offsets = this.header.asIntBuffer();
+            this.offsets.limit(1024);
+            this.header.position(4096);
+            this.timestamps = this.header.asIntBuffer();
+            if (warmHeader != null) {
+                this.usedSectors = warmHeader.usedSectors.copy();
+            } else {
+                this.usedSectors = new RegionBitmap();
+                this.usedSectors.force(0, 2);
+            }
+
+            if (i != -1 && warmHeader == null) {
                 if (i != 8192) {
                     LOGGER.warn("Region file {} has truncated header: {}", p_196950_, i);
                 }
@@ -123,33 +182,101 @@ public class RegionFile implements AutoCloseable {
             ByteBuffer bytebuffer = ByteBuffer.allocate(l);
             this.file.read(bytebuffer, (long)(j * 4096));
             bytebuffer.flip();
-            if (bytebuffer.remaining() < 5) {
-                LOGGER.error("Chunk {} header is truncated: expected {} but read {}", p_63646_, l, bytebuffer.remaining());
+            return this.createChunkInputStream(p_63646_, bytebuffer, l, RegionFile::createStream);
+        }
+    }
+
+    public synchronized void readChunks(Collection<ChunkPos> positions, RegionFile.ChunkStreamConsumer consumer) throws IOException {
+        List<ChunkPos> list = this.sortBySector(positions);
+        int i = 0;
+
+        while (i < list.size()) {
+            int j = this.getOffset(list.get(i));
+            int k = getSectorNumber(j);
+            int l = k + getNumSectors(j);
+            int i1 = i + 1;
+
+            while (i1 < list.size()) {
+                int j1 = this.getOffset(list.get(i1));
+                int k1 = getSectorNumber(j1);
+                int l1 = Math.max(l, k1 + getNumSectors(j1));
+                if (k1 - l > MAX_BULK_READ_GAP_SECTORS || l1 - k > MAX_BULK_READ_SECTORS) {
+                    break;
+                }
+
+                l = l1;
+                i1++;
+            }
+
+            ByteBuffer bytebuffer = ByteBuffer.allocate((l - k) * 4096);
+
+            while (bytebuffer.hasRemaining()) {
+                if (this.file.read(bytebuffer, (long)k * 4096L + (long)bytebuffer.position()) <= 0) {
+                    break;
+                }
+            }
+
+            bytebuffer.flip();
+
+            for (int i2 = i; i2 < i1; i2++) {
+                ChunkPos chunkpos = list.get(i2);
+                int j2 = this.getOffset(chunkpos);
+                int k2 = Math.min((getSectorNumber(j2) - k) * 4096, bytebuffer.limit());
+                int l2 = getNumSectors(j2) * 4096;
+                ByteBuffer bytebuffer1 = bytebuffer.slice(k2, Math.min(l2, bytebuffer.limit() - k2));
+
+                try (DataInputStream datainputstream = this.createChunkInputStream(chunkpos, bytebuffer1, l2, RegionFile::createSliceStream)) {
+                    if (datainputstream != null) {
+                        consumer.accept(chunkpos, datainputstream);
+                    }
+                }
+            }
+
+            i = i1;
+        }
+    }
+
+    protected List<ChunkPos> sortBySector(Collection<ChunkPos> positions) {
+        List<ChunkPos> list = new ArrayList<>(positions.size());
+
+        for (ChunkPos chunkpos : positions) {
+            if (this.getOffset(chunkpos) != 0) {
+                list.add(chunkpos);
+            }
+        }
+
+        list.sort(Comparator.comparingInt(pos -> getSectorNumber(this.getOffset(pos))));
+        return list;
+    }
+
+    @Nullable
+    DataInputStream createChunkInputStream(ChunkPos pos, ByteBuffer sectors, int expectedBytes, RegionFile.StreamFactory streamFactory) throws IOException {
+        if (sectors.remaining() < 5) {
+            LOGGER.error("Chunk {} header is truncated: expected {} but read {}", pos, expectedBytes, sectors.remaining());
+            return null;
+        } else {
+            int i1 = sectors.getInt();
+            byte b0 = sectors.get();
+            if (i1 == 0) {
+                LOGGER.warn("Chunk {} is allocated, but stream is missing", pos);
                 return null;
             } else {
-                int i1 = bytebuffer.getInt();
-                byte b0 = bytebuffer.get();
-                if (i1 == 0) {
-                    LOGGER.warn("Chunk {} is allocated, but stream is missing", p_63646_);
+                int j1 = i1 - 1;
+                if (isExternalStreamChunk(b0)) {
+                    if (j1 != 0) {
+                        LOGGER.warn("Chunk has both internal and external streams");
+                    }
+
+                    return this.createExternalChunkInputStream(pos, getExternalChunkVersion(b0));
+                } else if (j1 > sectors.remaining()) {
+                    LOGGER.error("Chunk {} stream is truncated: expected {} but read {}", pos, j1, sectors.remaining());
+                    return null;
+                } else if (j1 < 0) {
+                    LOGGER.error("Declared size {} of chunk {} is negative", i1, pos);
                     return null;
                 } else {
-                    int j1 = i1 - 1;
-                    if (isExternalStreamChunk(b0)) {
-                        if (j1 != 0) {
-                            LOGGER.warn("Chunk has both internal and external streams");
-                        }
-
-                        return this.createExternalChunkInputStream(p_63646_, getExternalChunkVersion(b0));
-                    } else if (j1 > bytebuffer.remaining()) {
-                        LOGGER.error("Chunk {} stream is truncated: expected {} but read {}", p_63646_, j1, bytebuffer.remaining());
-                        return null;
-                    } else if (j1 < 0) {
-                        LOGGER.error("Declared size {} of chunk {} is negative", i1, p_63646_);
-                        return null;
-                    } else {
-                        JvmProfiler.INSTANCE.onRegionFileRead(this.info, p_63646_, this.version, j1);
-                        return this.createChunkInputStream(p_63646_, b0, createStream(bytebuffer, j1));
-                    }
+                    JvmProfiler.INSTANCE.onRegionFileRead(this.info, pos, this.version, j1);
+                    return this.createChunkInputStream(pos, b0, streamFactory.create(sectors, j1));
                 }
             }
         }
@@ -184,7 +311,7 @@ public class RegionFile implements AutoCloseable {
             LOGGER.error("Chunk {} has invalid chunk stream version {}", p_63651_, p_63652_);
             return null;
         } else {
-            return new DataInputStream(regionfileversion.wrap(p_63653_));
+            return new DataInputStream(regionfileversion.wrap(p_63653_, this.dictionary));
         }
     }
 
@@ -199,19 +326,23 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
-    private static ByteArrayInputStream createStream(ByteBuffer p_63660_, int p_63661_) {
+    private static InputStream createStream(ByteBuffer p_63660_, int p_63661_) {
         return new ByteArrayInputStream(p_63660_.array(), p_63660_.position(), p_63661_);
     }
 
+    private static InputStream createSliceStream(ByteBuffer buffer, int length) {
+        return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+    }
+
     private int packSectorOffset(int p_63643_, int p_63644_) {
         return p_63643_ << 8 | p_63644_;
     }
 
-    private static int getNumSectors(int p_63641_) {
+    static int getNumSectors(int p_63641_) {
         return p_63641_ & 0xFF;
     }
 
-    private static int getSectorNumber(int p_63672_) {
+    static int getSectorNumber(int p_63672_) {
         return p_63672_ >> 8 & 16777215;
     }
 
@@ -268,30 +399,26 @@ public class RegionFile implements AutoCloseable {
     }
 
     public DataOutputStream getChunkDataOutputStream(ChunkPos p_63679_) throws IOException {
-        return new DataOutputStream(this.version.wrap(new RegionFile.ChunkBuffer(p_63679_)));
+        return new DataOutputStream(this.version.wrap(new RegionFile.ChunkBuffer(p_63679_), this.dictionary));
     }
 
     public void flush() throws IOException {
         this.file.force(true);
     }
 
-    public void clear(ChunkPos p_156614_) throws IOException {
+    public synchronized void clear(ChunkPos p_156614_) throws IOException {
         int i = getOffsetIndex(p_156614_);
-        int j = this.offsets.get(i);
-        if (j != 0) {
-            this.offsets.put(i, 0);
-            this.timestamps.put(i, getTimestamp());
-            this.writeHeader();
+        if (this.offsets.get(i) != 0) {
+            int j = this.swapOffset(i, 0);
             Files.deleteIfExists(this.getExternalChunkPath(p_156614_));
-            this.usedSectors.free(getSectorNumber(j), getNumSectors(j));
+            if (j != 0) {
+                this.usedSectors.free(getSectorNumber(j), getNumSectors(j));
+            }
         }
     }
 
     protected synchronized void write(ChunkPos p_63655_, ByteBuffer p_63656_) throws IOException {
         int i = getOffsetIndex(p_63655_);
-        int j = this.offsets.get(i);
-        int k = getSectorNumber(j);
-        int l = getNumSectors(j);
         int i1 = p_63656_.remaining();
         int j1 = sizeToSectors(i1);
         int k1;
@@ -310,15 +437,21 @@ public class RegionFile implements AutoCloseable {
             this.file.write(p_63656_, (long)(k1 * 4096));
         }
 
-        this.offsets.put(i, this.packSectorOffset(k1, j1));
-        this.timestamps.put(i, getTimestamp());
-        this.writeHeader();
+        int j = this.swapOffset(i, this.packSectorOffset(k1, j1));
         regionfile$commitop.run();
-        if (k != 0) {
-            this.usedSectors.free(k, l);
+        if (j != 0) {
+            this.usedSectors.free(getSectorNumber(j), getNumSectors(j));
         }
     }
 
+    int swapOffset(int index, int offset) throws IOException {
+        int i = this.offsets.get(index);
+        this.offsets.put(index, offset);
+        this.timestamps.put(index, getTimestamp());
+        this.writeHeader();
+        return i;
+    }
+
     private ByteBuffer createExternalStub() {
         ByteBuffer bytebuffer = ByteBuffer.allocate(5);
         bytebuffer.putInt(1);
@@ -338,12 +471,12 @@ public class RegionFile implements AutoCloseable {
         return () -> Files.move(path, p_63663_, StandardCopyOption.REPLACE_EXISTING);
     }
 
-    private void writeHeader() throws IOException {
+    protected void writeHeader() throws IOException {
         this.header.position(0);
         this.file.write(this.header, 0L);
     }
 
-    private int getOffset(ChunkPos p_63687_) {
+    int getOffset(ChunkPos p_63687_) {
         return this.offsets.get(getOffsetIndex(p_63687_));
     }
 
@@ -351,10 +484,20 @@ public class RegionFile implements AutoCloseable {
         return this.getOffset(p_63683_) != 0;
     }
 
-    private static int getOffsetIndex(ChunkPos p_63689_) {
+    static int getOffsetIndex(ChunkPos p_63689_) {
         return p_63689_.getRegionLocalX() + p_63689_.getRegionLocalZ() * 32;
     }
 
+    public RegionFile.HeaderSnapshot snapshotHeader() {
+        byte[] abyte = new byte[8192];
+        this.header.get(0, abyte);
+        return new RegionFile.HeaderSnapshot(abyte, this.usedSectors.copy());
+    }
+
+    public long estimateMemoryUsage() {
+        return 8192L + this.usedSectors.estimateMemoryUsage() + 256L;
+    }
+
     @Override
     public void close() throws IOException {
         try {
@@ -401,7 +544,52 @@ public class RegionFile implements AutoCloseable {
         }
     }
 
+    public static final class HeaderSnapshot {
+        final byte[] header;
+        final RegionBitmap usedSectors;
+        private volatile long fileSize = -1L;
+        private volatile long lastModified;
+
+        HeaderSnapshot(byte[] header, RegionBitmap usedSectors) {
+            this.header = header;
+            this.usedSectors = usedSectors;
+        }
+
+        void seal(Path path) throws IOException {
+            BasicFileAttributes basicfileattributes = Files.readAttributes(path, BasicFileAttributes.class);
+            this.lastModified = basicfileattributes.lastModifiedTime().toMillis();
+            this.fileSize = basicfileattributes.size();
+        }
+
+        boolean matches(Path path) {
+            if (this.fileSize == -1L) {
+                return false;
+            } else {
+                try {
+                    BasicFileAttributes basicfileattributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    return basicfileattributes.size() == this.fileSize && basicfileattributes.lastModifiedTime().toMillis() == this.lastModified;
+                } catch (IOException ioexception) {
+                    return false;
+                }
+            }
+        }
+
+        long estimateMemoryUsage() {
+            return (long)this.header.length + this.usedSectors.estimateMemoryUsage() + 64L;
+        }
+    }
+
     interface CommitOp {
         void run() throws IOException;
     }
+
+    @FunctionalInterface
+    public interface ChunkStreamConsumer {
+        void accept(ChunkPos pos, DataInputStream stream) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface StreamFactory {
+        InputStream create(ByteBuffer buffer, int length) throws IOException;
+    }
 }
\ No newline at end of file
@@ -1,51 +1,211 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.mojang.logging.LogUtils;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
 import net.minecraft.FileUtil;
+import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtAccounter;
 import net.minecraft.nbt.NbtIo;
 import net.minecraft.nbt.StreamTagVisitor;
 import net.minecraft.util.ExceptionCollector;
+import net.minecraft.util.profiling.metrics.MetricCategory;
+import net.minecraft.util.profiling.metrics.MetricSampler;
+import net.minecraft.util.profiling.metrics.MetricsRegistry;
+import net.minecraft.util.profiling.metrics.ProfilerMeasured;
 import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
 
-public final class RegionFileStorage implements AutoCloseable {
+public final class RegionFileStorage implements AutoCloseable, ProfilerMeasured {
+    private static final Logger LOGGER = LogUtils.getLogger();
     public static final String ANVIL_EXTENSION = ".mca";
-    private static final int MAX_CACHE_SIZE = 256;
+    private static final int WARM_HEADERS_PER_HANDLE = 4;
+    private static volatile boolean useMappedFiles;
+    private static volatile int maxCachedFiles = 256;
+    private static volatile long maxCachedBytes = Long.MAX_VALUE;
+    private final int maxCacheSize;
+    private final long maxCacheBytes;
     private final Long2ObjectLinkedOpenHashMap<RegionFile> regionCache = new Long2ObjectLinkedOpenHashMap<>();
+    private final Long2ObjectLinkedOpenHashMap<RegionFile.HeaderSnapshot> warmHeaders = new Long2ObjectLinkedOpenHashMap<>();
+    private final Map<Long, CompletableFuture<Void>> pendingCloses = new ConcurrentHashMap<>();
     private final RegionStorageInfo info;
+    private final String name;
     private final Path folder;
     private final boolean sync;
+    @Nullable
+    private RegionDictionary dictionary;
+    private long cachedBytes;
+    private volatile int publishedOpenFiles;
+    private volatile long publishedCachedBytes;
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long warmHits;
+    private volatile long evictions;
 
     RegionFileStorage(RegionStorageInfo p_330451_, Path p_196954_, boolean p_196955_) {
+        this(
+            p_330451_,
+            p_196954_,
+            p_196955_,
+            p_330451_.dimension().location().toDebugFileName() + "-" + p_330451_.type(),
+            maxCachedFiles,
+            maxCachedBytes
+        );
+    }
+
+    RegionFileStorage(RegionStorageInfo p_330451_, Path p_196954_, boolean p_196955_, String name, int maxCacheSize, long maxCacheBytes) {
+        this.maxCacheSize = Math.max(maxCacheSize, 1);
+        this.maxCacheBytes = Math.max(maxCacheBytes, 1L);
         this.folder = p_196954_;
         this.sync = p_196955_;
         this.info = p_330451_;
+        this.name = name;
+        MetricsRegistry.INSTANCE.add(this);
     }
 
     private RegionFile getRegionFile(ChunkPos p_63712_) throws IOException {
         long i = ChunkPos.asLong(p_63712_.getRegionX(), p_63712_.getRegionZ());
         RegionFile regionfile = this.regionCache.getAndMoveToFirst(i);
         if (regionfile != null) {
+            this.hits++;
             return regionfile;
         } else {
-            if (this.regionCache.size() >= 256) {
-                this.regionCache.removeLast().close();
+            this.misses++;
+            CompletableFuture<Void> completablefuture = this.pendingCloses.remove(i);
+            if (completablefuture != null) {
+                completablefuture.exceptionally(p_326415_ -> null).join();
             }
 
             FileUtil.createDirectoriesSafe(this.folder);
+            if (this.dictionary == null) {
+                this.dictionary = RegionDictionary.load(this.folder);
+            }
+
             Path path = this.folder.resolve("r." + p_63712_.getRegionX() + "." + p_63712_.getRegionZ() + ".mca");
-            RegionFile regionfile1 = new RegionFile(this.info, path, this.folder, this.sync);
+            RegionFile.HeaderSnapshot regionfile$headersnapshot = this.warmHeaders.remove(i);
+            if (regionfile$headersnapshot != null) {
+                if (regionfile$headersnapshot.matches(path)) {
+                    this.warmHits++;
+                } else {
+                    regionfile$headersnapshot = null;
+                }
+            }
+
+            RegionFileVersion regionfileversion = RegionFileVersion.getSelected();
+            RegionFile regionfile1 = useMappedFiles
+                ? new MappedRegionFile(this.info, path, this.folder, regionfileversion, this.dictionary, this.sync, regionfile$headersnapshot)
+                : new RegionFile(this.info, path, this.folder, regionfileversion, this.dictionary, this.sync, regionfile$headersnapshot);
             this.regionCache.putAndMoveToFirst(i, regionfile1);
+            this.cachedBytes = this.measureCachedBytes();
+            this.trimCache();
+            this.publishStats();
             return regionfile1;
         }
     }
 
+    private long measureCachedBytes() {
+        long i = 0L;
+
+        for (RegionFile regionfile : this.regionCache.values()) {
+            i += regionfile.estimateMemoryUsage();
+        }
+
+        for (RegionFile.HeaderSnapshot regionfile$headersnapshot : this.warmHeaders.values()) {
+            i += regionfile$headersnapshot.estimateMemoryUsage();
+        }
+
+        return i;
+    }
+
+    private void trimCache() {
+        while (true) {
+            if (!this.warmHeaders.isEmpty()
+                && (this.warmHeaders.size() > this.maxCacheSize * WARM_HEADERS_PER_HANDLE || this.cachedBytes > this.maxCacheBytes)) {
+                this.cachedBytes = this.cachedBytes - this.warmHeaders.removeLast().estimateMemoryUsage();
+            } else {
+                if (this.regionCache.size() <= 1 || this.regionCache.size() <= this.maxCacheSize && this.cachedBytes <= this.maxCacheBytes) {
+                    return;
+                }
+
+                this.evict(this.regionCache.lastLongKey());
+            }
+        }
+    }
+
+    private void evict(long pos) {
+        RegionFile regionfile = this.regionCache.remove(pos);
+        this.evictions++;
+        RegionFile.HeaderSnapshot regionfile$headersnapshot = regionfile.snapshotHeader();
+        this.warmHeaders.putAndMoveToFirst(pos, regionfile$headersnapshot);
+        this.cachedBytes = this.cachedBytes - regionfile.estimateMemoryUsage() + regionfile$headersnapshot.estimateMemoryUsage();
+
+        CompletableFuture<Void> completablefuture = CompletableFuture.runAsync(() -> {
+            try {
+                regionfile.close();
+                regionfile$headersnapshot.seal(regionfile.getPath());
+            } catch (IOException ioexception) {
+                LOGGER.error("Failed to close evicted region file {}", regionfile.getPath(), ioexception);
+                throw new UncheckedIOException(ioexception);
+            }
+        }, Util.ioPool());
+        this.pendingCloses.put(pos, completablefuture);
+        completablefuture.whenComplete((p_326416_, p_326417_) -> this.pendingCloses.remove(pos, completablefuture));
+    }
+
+    private void publishStats() {
+        this.publishedOpenFiles = this.regionCache.size();
+        this.publishedCachedBytes = this.cachedBytes;
+    }
+
+    public static void configureMappedFiles(boolean useMapped) {
+        useMappedFiles = useMapped;
+    }
+
+    public static void configureCache(int maxFiles, long maxBytes) {
+        maxCachedFiles = Math.max(maxFiles, 1);
+        maxCachedBytes = maxBytes > 0L ? maxBytes : Long.MAX_VALUE;
+    }
+
+    public static int getMaxCachedFiles() {
+        return maxCachedFiles;
+    }
+
+    public static long getMaxCachedBytes() {
+        return maxCachedBytes;
+    }
+
+    private double getHitRate() {
+        long i = this.hits;
+        long j = i + this.misses;
+        return j == 0L ? 1.0 : (double)i / (double)j;
+    }
+
+    @Override
+    public List<MetricSampler> profiledMetrics() {
+        return List.of(
+            MetricSampler.create(this.name + "-region-cache-hit-rate", MetricCategory.MAIL_BOXES, this::getHitRate),
+            MetricSampler.create(this.name + "-region-cache-warm-hits", MetricCategory.MAIL_BOXES, () -> (double)this.warmHits),
+            MetricSampler.create(this.name + "-region-cache-evictions", MetricCategory.MAIL_BOXES, () -> (double)this.evictions),
+            MetricSampler.create(this.name + "-region-cache-open-files", MetricCategory.MAIL_BOXES, () -> (double)this.publishedOpenFiles),
+            MetricSampler.create(this.name + "-region-cache-bytes", MetricCategory.MAIL_BOXES, () -> (double)this.publishedCachedBytes)
+        );
+    }
+
     @Nullable
     public CompoundTag read(ChunkPos p_63707_) throws IOException {
         RegionFile regionfile = this.getRegionFile(p_63707_);
@@ -62,6 +222,29 @@ public final class RegionFileStorage implements AutoCloseable {
         return compoundtag;
     }
 
+    public void readChunks(Collection<ChunkPos> positions, BiConsumer<ChunkPos, CompoundTag> consumer) throws IOException {
+        Long2ObjectMap<List<ChunkPos>> long2objectmap = new Long2ObjectLinkedOpenHashMap<>();
+
+        for (ChunkPos chunkpos : positions) {
+            long2objectmap.computeIfAbsent(ChunkPos.asLong(chunkpos.getRegionX(), chunkpos.getRegionZ()), region -> new ArrayList<>()).add(chunkpos);
+        }
+
+        for (List<ChunkPos> list : long2objectmap.values()) {
+            RegionFile regionfile = this.getRegionFile(list.get(0));
+            regionfile.readChunks(list, (pos, stream) -> {
+                CompoundTag compoundtag;
+                try {
+                    compoundtag = NbtIo.read(stream);
+                } catch (IOException ioexception) {
+                    LOGGER.error("Failed to read chunk {} from {}", pos, regionfile.getPath(), ioexception);
+                    return;
+                }
+
+                consumer.accept(pos, compoundtag);
+            });
+        }
+    }
+
     public void scanChunk(ChunkPos p_196957_, StreamTagVisitor p_196958_) throws IOException {
         RegionFile regionfile = this.getRegionFile(p_196957_);
 
@@ -83,9 +266,24 @@ public final class RegionFileStorage implements AutoCloseable {
         }
     }
 
+    private void awaitPendingCloses(ExceptionCollector<IOException> exceptions) {
+        for (CompletableFuture<Void> completablefuture : List.copyOf(this.pendingCloses.values())) {
+            try {
+                completablefuture.join();
+            } catch (CompletionException completionexception) {
+                if (completionexception.getCause() instanceof UncheckedIOException uncheckedioexception) {
+                    exceptions.add(uncheckedioexception.getCause());
+                } else {
+                    throw completionexception;
+                }
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         ExceptionCollector<IOException> exceptioncollector = new ExceptionCollector<>();
+        this.awaitPendingCloses(exceptioncollector);
 
         for (RegionFile regionfile : this.regionCache.values()) {
             try {
@@ -99,9 +297,18 @@ public final class RegionFileStorage implements AutoCloseable {
     }
 
     public void flush() throws IOException {
+        ExceptionCollector<IOException> exceptioncollector = new ExceptionCollector<>();
+        this.awaitPendingCloses(exceptioncollector);
+
         for (RegionFile regionfile : this.regionCache.values()) {
-            regionfile.flush();
+            try {
+                regionfile.flush();
+            } catch (IOException ioexception) {
+                exceptioncollector.add(ioexception);
+            }
         }
+
+        exceptioncollector.throwIfPresent();
     }
 
     public RegionStorageInfo info() {
@@ -48,6 +48,7 @@ public class RegionFileVersion {
             p_327421_ -> new BufferedOutputStream(new LZ4BlockOutputStream(p_327421_))
         )
     );
+    public static final RegionFileVersion VERSION_DICTIONARY = register(new RegionFileVersion.DictionaryVersion(5, "dictionary"));
     public static final RegionFileVersion VERSION_CUSTOM = register(new RegionFileVersion(127, null, p_327423_ -> {
         throw new UnsupportedOperationException();
     }, p_327424_ -> {
@@ -115,6 +116,35 @@ public class RegionFileVersion {
         return this.inputWrapper.wrap(p_63761_);
     }
 
+    public OutputStream wrap(OutputStream output, RegionDictionary dictionary) throws IOException {
+        return this.wrap(output);
+    }
+
+    public InputStream wrap(InputStream input, RegionDictionary dictionary) throws IOException {
+        return this.wrap(input);
+    }
+
+    static class DictionaryVersion extends RegionFileVersion {
+        DictionaryVersion(int id, String optionName) {
+            super(
+                id,
+                optionName,
+                input -> RegionDictionaryCompressor.wrap(input, RegionDictionary.EMPTY),
+                output -> RegionDictionaryCompressor.wrap(output, RegionDictionary.EMPTY)
+            );
+        }
+
+        @Override
+        public OutputStream wrap(OutputStream output, RegionDictionary dictionary) {
+            return RegionDictionaryCompressor.wrap(output, dictionary);
+        }
+
+        @Override
+        public InputStream wrap(InputStream input, RegionDictionary dictionary) throws IOException {
+            return RegionDictionaryCompressor.wrap(input, dictionary);
+        }
+    }
+
     @FunctionalInterface
     interface StreamWrapper<O> {
         O wrap(O p_63771_) throws IOException;
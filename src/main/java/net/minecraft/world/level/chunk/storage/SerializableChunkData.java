@@ -0,0 +1,282 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.logging.LogUtils;
+import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.CarvingMask;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.PalettedContainerRO;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.UpgradeData;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.chunk.status.ChunkType;
+import net.minecraft.world.level.levelgen.BelowZeroRetrogen;
+import net.minecraft.world.level.levelgen.GenerationStep;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.blending.BlendingData;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.ticks.SavedTick;
+import org.slf4j.Logger;
+
+public record SerializableChunkData(
+    ChunkPos chunkPos,
+    int minSectionY,
+    long lastUpdateTime,
+    long inhabitedTime,
+    ChunkStatus chunkStatus,
+    @Nullable BlendingData blendingData,
+    @Nullable BelowZeroRetrogen belowZeroRetrogen,
+    @Nullable CompoundTag upgradeData,
+    Registry<Biome> biomeRegistry,
+    List<SerializableChunkData.SectionData> sectionData,
+    boolean lightCorrect,
+    List<CompoundTag> blockEntities,
+    @Nullable List<CompoundTag> entities,
+    @Nullable Map<GenerationStep.Carving, long[]> carvingMasks,
+    List<SavedTick<Block>> blockTicks,
+    List<SavedTick<Fluid>> fluidTicks,
+    ListTag postProcessing,
+    Map<Heightmap.Types, long[]> heightmaps,
+    StructurePieceSerializationContext structureContext,
+    Map<Structure, StructureStart> structureStarts,
+    Map<Structure, LongSet> structureReferences
+) {
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static SerializableChunkData copyOf(ServerLevel level, ChunkAccess chunk) {
+        ChunkPos chunkpos = chunk.getPos();
+        long i = level.getGameTime();
+        UpgradeData upgradedata = chunk.getUpgradeData();
+        LevelChunkSection[] alevelchunksection = chunk.getSections();
+        LevelLightEngine levellightengine = level.getChunkSource().getLightEngine();
+        List<SerializableChunkData.SectionData> list = new ArrayList<>(levellightengine.getLightSectionCount());
+
+        for (int j = levellightengine.getMinLightSection(); j < levellightengine.getMaxLightSection(); j++) {
+            int k = chunk.getSectionIndexFromSectionY(j);
+            boolean flag = k >= 0 && k < alevelchunksection.length;
+            DataLayer datalayer = levellightengine.getLayerListener(LightLayer.BLOCK).getDataLayerData(SectionPos.of(chunkpos, j));
+            DataLayer datalayer1 = levellightengine.getLayerListener(LightLayer.SKY).getDataLayerData(SectionPos.of(chunkpos, j));
+            byte[] abyte = datalayer != null && !datalayer.isEmpty() ? datalayer.getDataSnapshot() : null;
+            byte[] abyte1 = datalayer1 != null && !datalayer1.isEmpty() ? datalayer1.getDataSnapshot() : null;
+            if (flag || abyte != null || abyte1 != null) {
+                PalettedContainer<BlockState> palettedcontainer = null;
+                PalettedContainerRO<Holder<Biome>> palettedcontainerro = null;
+                if (flag) {
+                    LevelChunkSection levelchunksection = alevelchunksection[k];
+                    palettedcontainer = levelchunksection.getStates().snapshot();
+                    palettedcontainerro = levelchunksection.getBiomes();
+                }
+
+                list.add(new SerializableChunkData.SectionData(j, palettedcontainer, palettedcontainerro, abyte, abyte1));
+            }
+        }
+
+        List<CompoundTag> list1 = new ArrayList<>(chunk.getBlockEntitiesPos().size());
+
+        for (BlockPos blockpos : chunk.getBlockEntitiesPos()) {
+            CompoundTag compoundtag = chunk.getBlockEntityNbtForSaving(blockpos, level.registryAccess());
+            if (compoundtag != null) {
+                list1.add(compoundtag);
+            }
+        }
+
+        List<CompoundTag> list2 = null;
+        Map<GenerationStep.Carving, long[]> map = null;
+        if (chunk.getPersistedStatus().getChunkType() == ChunkType.PROTOCHUNK) {
+            ProtoChunk protochunk = (ProtoChunk)chunk;
+            list2 = new ArrayList<>(protochunk.getEntities());
+            map = new EnumMap<>(GenerationStep.Carving.class);
+
+            for (GenerationStep.Carving generationstep$carving : GenerationStep.Carving.values()) {
+                CarvingMask carvingmask = protochunk.getCarvingMask(generationstep$carving);
+                if (carvingmask != null) {
+                    map.put(generationstep$carving, carvingmask.toArray());
+                }
+            }
+        }
+
+        long l = level.getLevelData().getGameTime();
+        ChunkAccess.TicksToSave chunkaccess$tickstosave = chunk.getTicksForSerialization();
+        Map<Heightmap.Types, long[]> map1 = new EnumMap<>(Heightmap.Types.class);
+
+        for (Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+            if (chunk.getPersistedStatus().heightmapsAfter().contains(entry.getKey())) {
+                map1.put(entry.getKey(), entry.getValue().getRawData().clone());
+            }
+        }
+
+        Map<Structure, LongSet> map2 = new HashMap<>();
+
+        for (Entry<Structure, LongSet> entry1 : chunk.getAllReferences().entrySet()) {
+            map2.put(entry1.getKey(), new LongOpenHashSet(entry1.getValue()));
+        }
+
+        return new SerializableChunkData(
+            chunkpos,
+            chunk.getMinSection(),
+            i,
+            chunk.getInhabitedTime(),
+            chunk.getPersistedStatus(),
+            chunk.getBlendingData(),
+            chunk.getBelowZeroRetrogen(),
+            upgradedata.isEmpty() ? null : upgradedata.write(),
+            level.registryAccess().registryOrThrow(Registries.BIOME),
+            list,
+            chunk.isLightCorrect(),
+            list1,
+            list2,
+            map,
+            chunkaccess$tickstosave.blocks().pack(l),
+            chunkaccess$tickstosave.fluids().pack(l),
+            ChunkSerializer.packOffsets(chunk.getPostProcessing()),
+            map1,
+            StructurePieceSerializationContext.fromLevel(level),
+            Map.copyOf(chunk.getAllStarts()),
+            map2
+        );
+    }
+
+    public CompoundTag write() {
+        CompoundTag compoundtag = NbtUtils.addCurrentDataVersion(new CompoundTag());
+        compoundtag.putInt("xPos", this.chunkPos.x);
+        compoundtag.putInt("yPos", this.minSectionY);
+        compoundtag.putInt("zPos", this.chunkPos.z);
+        compoundtag.putLong("LastUpdate", this.lastUpdateTime);
+        compoundtag.putLong("InhabitedTime", this.inhabitedTime);
+        compoundtag.putString("Status", BuiltInRegistries.CHUNK_STATUS.getKey(this.chunkStatus).toString());
+        if (this.blendingData != null) {
+            BlendingData.CODEC
+                .encodeStart(NbtOps.INSTANCE, this.blendingData)
+                .resultOrPartial(LOGGER::error)
+                .ifPresent(p_196909_ -> compoundtag.put("blending_data", p_196909_));
+        }
+
+        if (this.belowZeroRetrogen != null) {
+            BelowZeroRetrogen.CODEC
+                .encodeStart(NbtOps.INSTANCE, this.belowZeroRetrogen)
+                .resultOrPartial(LOGGER::error)
+                .ifPresent(p_188279_ -> compoundtag.put("below_zero_retrogen", p_188279_));
+        }
+
+        if (this.upgradeData != null) {
+            compoundtag.put("UpgradeData", this.upgradeData);
+        }
+
+        ListTag listtag = new ListTag();
+        Codec<PalettedContainerRO<Holder<Biome>>> codec = ChunkSerializer.makeBiomeCodec(this.biomeRegistry);
+
+        for (SerializableChunkData.SectionData serializablechunkdata$sectiondata : this.sectionData) {
+            CompoundTag compoundtag1 = new CompoundTag();
+            if (serializablechunkdata$sectiondata.states != null) {
+                compoundtag1.put("block_states", ChunkSerializer.BLOCK_STATE_CODEC.encodeStart(NbtOps.INSTANCE, serializablechunkdata$sectiondata.states).getOrThrow());
+                compoundtag1.put("biomes", codec.encodeStart(NbtOps.INSTANCE, serializablechunkdata$sectiondata.biomes).getOrThrow());
+            }
+
+            if (serializablechunkdata$sectiondata.blockLight != null) {
+                compoundtag1.putByteArray("BlockLight", serializablechunkdata$sectiondata.blockLight);
+            }
+
+            if (serializablechunkdata$sectiondata.skyLight != null) {
+                compoundtag1.putByteArray("SkyLight", serializablechunkdata$sectiondata.skyLight);
+            }
+
+            if (!compoundtag1.isEmpty()) {
+                compoundtag1.putByte("Y", (byte)serializablechunkdata$sectiondata.y);
+                listtag.add(compoundtag1);
+            }
+        }
+
+        compoundtag.put("sections", listtag);
+        if (this.lightCorrect) {
+            compoundtag.putBoolean("isLightOn", true);
+        }
+
+        ListTag listtag1 = new ListTag();
+        listtag1.addAll(this.blockEntities);
+        compoundtag.put("block_entities", listtag1);
+        if (this.chunkStatus.getChunkType() == ChunkType.PROTOCHUNK) {
+            ListTag listtag2 = new ListTag();
+            if (this.entities != null) {
+                listtag2.addAll(this.entities);
+            }
+
+            compoundtag.put("entities", listtag2);
+            CompoundTag compoundtag2 = new CompoundTag();
+            if (this.carvingMasks != null) {
+                for (Entry<GenerationStep.Carving, long[]> entry : this.carvingMasks.entrySet()) {
+                    compoundtag2.putLongArray(entry.getKey().toString(), entry.getValue());
+                }
+            }
+
+            compoundtag.put("CarvingMasks", compoundtag2);
+        }
+
+        compoundtag.put("block_ticks", saveTicks(this.blockTicks, p_258987_ -> BuiltInRegistries.BLOCK.getKey(p_258987_).toString()));
+        compoundtag.put("fluid_ticks", saveTicks(this.fluidTicks, p_258989_ -> BuiltInRegistries.FLUID.getKey(p_258989_).toString()));
+        compoundtag.put("PostProcessing", this.postProcessing);
+        CompoundTag compoundtag3 = new CompoundTag();
+
+        for (Entry<Heightmap.Types, long[]> entry1 : this.heightmaps.entrySet()) {
+            compoundtag3.put(entry1.getKey().getSerializationKey(), new LongArrayTag(entry1.getValue()));
+        }
+
+        compoundtag.put("Heightmaps", compoundtag3);
+        compoundtag.put(
+            "structures", ChunkSerializer.packStructureData(this.structureContext, this.chunkPos, this.structureStarts, this.structureReferences)
+        );
+        return compoundtag;
+    }
+
+    private static <T> Tag saveTicks(List<SavedTick<T>> ticks, Function<T, String> idGetter) {
+        ListTag listtag = new ListTag();
+
+        for (SavedTick<T> savedtick : ticks) {
+            listtag.add(savedtick.save(idGetter));
+        }
+
+        return listtag;
+    }
+
+    public static record SectionData(
+        int y,
+        @Nullable PalettedContainer<BlockState> states,
+        @Nullable PalettedContainerRO<Holder<Biome>> biomes,
+        @Nullable byte[] blockLight,
+        @Nullable byte[] skyLight
+    ) {
+    }
+}
@@ -4,6 +4,8 @@ import com.mojang.datafixers.DataFixer;
 import com.mojang.serialization.Dynamic;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
@@ -28,6 +30,10 @@ public class SimpleRegionStorage implements AutoCloseable {
         return this.worker.loadAsync(p_328805_);
     }
 
+    public CompletableFuture<Map<ChunkPos, CompoundTag>> readAll(Collection<ChunkPos> positions) {
+        return this.worker.loadAllAsync(positions);
+    }
+
     public CompletableFuture<Void> write(ChunkPos p_328507_, @Nullable CompoundTag p_328699_) {
         return this.worker.store(p_328507_, p_328699_);
     }
@@ -1,6 +1,8 @@
 package net.minecraft.world.level.levelgen;
 
+import it.unimi.dsi.fastutil.HashCommon;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.annotation.Nullable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
@@ -11,6 +13,7 @@ import net.minecraft.world.level.biome.OverworldBiomeBuilder;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.levelgen.blending.Blender;
 import org.apache.commons.lang3.mutable.MutableDouble;
 
 public interface Aquifer {
@@ -21,9 +24,10 @@ public interface Aquifer {
         PositionalRandomFactory p_223884_,
         int p_223885_,
         int p_223886_,
-        Aquifer.FluidPicker p_223887_
+        Aquifer.FluidPicker p_223887_,
+        @Nullable Aquifer.CellCache cellCache
     ) {
-        return new Aquifer.NoiseBasedAquifer(p_223881_, p_223882_, p_223883_, p_223884_, p_223885_, p_223886_, p_223887_);
+        return new Aquifer.NoiseBasedAquifer(p_223881_, p_223882_, p_223883_, p_223884_, p_223885_, p_223886_, p_223887_, cellCache);
     }
 
     static Aquifer createDisabled(final Aquifer.FluidPicker p_188375_) {
@@ -48,6 +52,48 @@ public interface Aquifer {
 
     boolean shouldScheduleFluidUpdate();
 
+    public static final class CellCache {
+        private static final int SIZE_BITS = 16;
+        private static final int MASK = (1 << SIZE_BITS) - 1;
+        private final Aquifer.FluidPicker fluidPicker;
+        private final AtomicReferenceArray<Aquifer.CellCache.Entry> locations = new AtomicReferenceArray<>(1 << SIZE_BITS);
+        private final AtomicReferenceArray<Aquifer.CellCache.Entry> statuses = new AtomicReferenceArray<>(1 << SIZE_BITS);
+
+        public CellCache(Aquifer.FluidPicker fluidPicker) {
+            this.fluidPicker = fluidPicker;
+        }
+
+        public Aquifer.FluidPicker fluidPicker() {
+            return this.fluidPicker;
+        }
+
+        private static int slot(long cell) {
+            return (int)HashCommon.mix(cell) & MASK;
+        }
+
+        long getLocation(long cell) {
+            Aquifer.CellCache.Entry aquifer$cellcache$entry = this.locations.get(slot(cell));
+            return aquifer$cellcache$entry != null && aquifer$cellcache$entry.cell == cell ? aquifer$cellcache$entry.location : Long.MAX_VALUE;
+        }
+
+        void putLocation(long cell, long location) {
+            this.locations.set(slot(cell), new Aquifer.CellCache.Entry(cell, location, null));
+        }
+
+        @Nullable
+        Aquifer.FluidStatus getStatus(long cell) {
+            Aquifer.CellCache.Entry aquifer$cellcache$entry = this.statuses.get(slot(cell));
+            return aquifer$cellcache$entry != null && aquifer$cellcache$entry.cell == cell ? aquifer$cellcache$entry.status : null;
+        }
+
+        void putStatus(long cell, Aquifer.FluidStatus status) {
+            this.statuses.set(slot(cell), new Aquifer.CellCache.Entry(cell, 0L, status));
+        }
+
+        static record Entry(long cell, long location, @Nullable Aquifer.FluidStatus status) {
+        }
+    }
+
     public interface FluidPicker {
         Aquifer.FluidStatus computeFluid(int p_188397_, int p_188398_, int p_188399_);
     }
@@ -95,6 +141,8 @@ public interface Aquifer {
         private final int minGridZ;
         private final int gridSizeX;
         private final int gridSizeZ;
+        @Nullable
+        private final Aquifer.CellCache cellCache;
         private static final int[][] SURFACE_SAMPLING_OFFSETS_IN_CHUNKS = new int[][]{
             {0, 0}, {-2, -1}, {-1, -1}, {0, -1}, {1, -1}, {-3, 0}, {-2, 0}, {-1, 0}, {1, 0}, {-2, 1}, {-1, 1}, {0, 1}, {1, 1}
         };
@@ -106,9 +154,11 @@ public interface Aquifer {
             PositionalRandomFactory p_223894_,
             int p_223895_,
             int p_223896_,
-            Aquifer.FluidPicker p_223897_
+            Aquifer.FluidPicker p_223897_,
+            @Nullable Aquifer.CellCache cellCache
         ) {
             this.noiseChunk = p_223891_;
+            this.cellCache = cellCache != null && cellCache.fluidPicker() == p_223897_ && p_223891_.getBlender() == Blender.empty() ? cellCache : null;
             this.barrierNoise = p_223893_.barrierNoise();
             this.fluidLevelFloodednessNoise = p_223893_.fluidLevelFloodednessNoise();
             this.fluidLevelSpreadNoise = p_223893_.fluidLevelSpreadNoise();
@@ -176,10 +226,7 @@ public interface Aquifer {
                                 if (i5 != Long.MAX_VALUE) {
                                     l4 = i5;
                                 } else {
-                                    RandomSource randomsource = this.positionalRandomFactory.at(l3, i4, j4);
-                                    l4 = BlockPos.asLong(
-                                        l3 * 16 + randomsource.nextInt(10), i4 * 12 + randomsource.nextInt(9), j4 * 16 + randomsource.nextInt(10)
-                                    );
+                                    l4 = this.computeAquiferLocation(l3, i4, j4);
                                     this.aquiferLocationCache[k4] = l4;
                                 }
 
@@ -334,6 +381,24 @@ public interface Aquifer {
             return Math.floorDiv(p_158048_, 16);
         }
 
+        private long computeAquiferLocation(int gridX, int gridY, int gridZ) {
+            long i = BlockPos.asLong(gridX, gridY, gridZ);
+            if (this.cellCache != null) {
+                long j = this.cellCache.getLocation(i);
+                if (j != Long.MAX_VALUE) {
+                    return j;
+                }
+            }
+
+            RandomSource randomsource = this.positionalRandomFactory.at(gridX, gridY, gridZ);
+            long k = BlockPos.asLong(gridX * 16 + randomsource.nextInt(10), gridY * 12 + randomsource.nextInt(9), gridZ * 16 + randomsource.nextInt(10));
+            if (this.cellCache != null) {
+                this.cellCache.putLocation(i, k);
+            }
+
+            return k;
+        }
+
         private Aquifer.FluidStatus getAquiferStatus(long p_188446_) {
             int i = BlockPos.getX(p_188446_);
             int j = BlockPos.getY(p_188446_);
@@ -346,7 +411,15 @@ public interface Aquifer {
             if (aquifer$fluidstatus != null) {
                 return aquifer$fluidstatus;
             } else {
-                Aquifer.FluidStatus aquifer$fluidstatus1 = this.computeFluid(i, j, k);
+                long l1 = BlockPos.asLong(l, i1, j1);
+                Aquifer.FluidStatus aquifer$fluidstatus1 = this.cellCache != null ? this.cellCache.getStatus(l1) : null;
+                if (aquifer$fluidstatus1 == null) {
+                    aquifer$fluidstatus1 = this.computeFluid(i, j, k);
+                    if (this.cellCache != null) {
+                        this.cellCache.putStatus(l1, aquifer$fluidstatus1);
+                    }
+                }
+
                 this.aquiferCache[k1] = aquifer$fluidstatus1;
                 return aquifer$fluidstatus1;
             }
@@ -0,0 +1,214 @@
+package net.minecraft.world.level.levelgen;
+
+import com.mojang.logging.LogUtils;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.Util;
+import net.minecraft.util.RandomSource;
+import org.slf4j.Logger;
+
+public final class DensityFunctionCompiler {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final DensityFunction.FunctionContext CONSTANT_CONTEXT = new DensityFunction.SinglePointContext(0, 0, 0);
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+    private static final String[] ROUTER_FIELDS = new String[]{
+        "barrier",
+        "fluid_level_floodedness",
+        "fluid_level_spread",
+        "lava",
+        "temperature",
+        "vegetation",
+        "continents",
+        "erosion",
+        "depth",
+        "ridges",
+        "initial_density_without_jaggedness",
+        "final_density",
+        "vein_toggle",
+        "vein_ridged",
+        "vein_gap"
+    };
+    private static final long VERIFY_SEED = 3463582351L;
+    private static final int VERIFY_SAMPLES = 512;
+    private static final int VERIFY_HORIZONTAL_RANGE = 100000;
+    private static final int VERIFY_MIN_Y = -64;
+    private static final int VERIFY_MAX_Y = 320;
+    private static volatile boolean enabled = true;
+    private final Map<DensityFunction, DensityFunction> interned = new HashMap<>();
+
+    private DensityFunctionCompiler() {
+    }
+
+    public static void configure(boolean compile) {
+        enabled = compile;
+    }
+
+    public static NoiseRouter compile(NoiseRouter router) {
+        if (!enabled) {
+            return router;
+        } else {
+            NoiseRouter noiserouter = router.mapAll(new DensityFunctionCompiler()::optimize);
+            return verify(router, noiserouter) ? noiserouter : router;
+        }
+    }
+
+    private DensityFunction optimize(DensityFunction function) {
+        DensityFunction densityfunction = fold(function);
+        DensityFunction densityfunction1 = this.interned.putIfAbsent(densityfunction, densityfunction);
+        return densityfunction1 != null ? densityfunction1 : densityfunction;
+    }
+
+    private static DensityFunction fold(DensityFunction function) {
+        if (function instanceof DensityFunctions.HolderHolder densityfunctions$holderholder && densityfunctions$holderholder.function().isBound()) {
+            return densityfunctions$holderholder.function().value();
+        } else if (function instanceof DensityFunctions.PureTransformer densityfunctions$puretransformer
+            && densityfunctions$puretransformer.input() instanceof DensityFunctions.Constant densityfunctions$constant) {
+            return new DensityFunctions.Constant(densityfunctions$puretransformer.transform(densityfunctions$constant.value()));
+        } else if (function instanceof DensityFunctions.MulOrAdd densityfunctions$muloradd && isIdentity(densityfunctions$muloradd)) {
+            return densityfunctions$muloradd.input();
+        } else if (function instanceof DensityFunctions.Ap2 densityfunctions$ap2
+            && densityfunctions$ap2.argument1() instanceof DensityFunctions.Constant
+            && densityfunctions$ap2.argument2() instanceof DensityFunctions.Constant) {
+            return new DensityFunctions.Constant(densityfunctions$ap2.compute(CONSTANT_CONTEXT));
+        } else if (function instanceof DensityFunctions.Ap2 densityfunctions$ap21 && hasMulOrAddForm(densityfunctions$ap21)) {
+            return DensityFunctions.TwoArgumentSimpleFunction.create(densityfunctions$ap21.type(), densityfunctions$ap21.argument1(), densityfunctions$ap21.argument2());
+        } else if (function instanceof DensityFunctions.RangeChoice densityfunctions$rangechoice
+            && densityfunctions$rangechoice.input() instanceof DensityFunctions.Constant densityfunctions$constant1) {
+            double d0 = densityfunctions$constant1.value();
+            return d0 >= densityfunctions$rangechoice.minInclusive() && d0 < densityfunctions$rangechoice.maxExclusive()
+                ? densityfunctions$rangechoice.whenInRange()
+                : densityfunctions$rangechoice.whenOutOfRange();
+        } else {
+            return function;
+        }
+    }
+
+    private static boolean isIdentity(DensityFunctions.MulOrAdd function) {
+        return switch (function.specificType()) {
+            case MUL -> function.argument() == 1.0;
+            case ADD -> Double.doubleToRawLongBits(function.argument()) == NEGATIVE_ZERO_BITS;
+        };
+    }
+
+    private static boolean hasMulOrAddForm(DensityFunctions.Ap2 function) {
+        return switch (function.type()) {
+            case ADD -> function.argument1() instanceof DensityFunctions.Constant || function.argument2() instanceof DensityFunctions.Constant;
+            case MUL -> function.argument1() instanceof DensityFunctions.Constant densityfunctions$constant && densityfunctions$constant.value() != 0.0;
+            case MIN, MAX -> false;
+        };
+    }
+
+    private static boolean verify(NoiseRouter interpreted, NoiseRouter compiled) {
+        DensityFunction[] adensityfunction = functions(interpreted);
+        DensityFunction[] adensityfunction1 = functions(compiled);
+        DensityFunctionCompiler.SamplePoints densityfunctioncompiler$samplepoints = DensityFunctionCompiler.SamplePoints.create(RandomSource.create(VERIFY_SEED));
+        double[] adouble = new double[VERIFY_SAMPLES];
+        double[] adouble1 = new double[VERIFY_SAMPLES];
+
+        for (int i = 0; i < adensityfunction.length; i++) {
+            if (adensityfunction[i] != adensityfunction1[i]) {
+                for (int j = 0; j < VERIFY_SAMPLES; j++) {
+                    DensityFunction.FunctionContext densityfunction$functioncontext = densityfunctioncompiler$samplepoints.forIndex(j);
+                    adouble[j] = adensityfunction[i].compute(densityfunction$functioncontext);
+                    adouble1[j] = adensityfunction1[i].compute(densityfunction$functioncontext);
+                }
+
+                if (!matches(ROUTER_FIELDS[i], "compute", densityfunctioncompiler$samplepoints, adouble, adouble1)) {
+                    return false;
+                }
+
+                adensityfunction[i].fillArray(adouble, densityfunctioncompiler$samplepoints);
+                adensityfunction1[i].fillArray(adouble1, densityfunctioncompiler$samplepoints);
+                if (!matches(ROUTER_FIELDS[i], "fillArray", densityfunctioncompiler$samplepoints, adouble, adouble1)) {
+                    return false;
+                }
+            }
+        }
+
+        long k = timeFill(adensityfunction, densityfunctioncompiler$samplepoints, adouble);
+        long l = timeFill(adensityfunction1, densityfunctioncompiler$samplepoints, adouble1);
+        LOGGER.info(
+            "Compiled noise router matches the interpreter on {} samples per function ({} us interpreted, {} us compiled)", VERIFY_SAMPLES, k / 1000L, l / 1000L
+        );
+        return true;
+    }
+
+    private static boolean matches(String field, String method, DensityFunctionCompiler.SamplePoints points, double[] expected, double[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            if (Double.doubleToRawLongBits(expected[i]) != Double.doubleToRawLongBits(actual[i])) {
+                DensityFunction.FunctionContext densityfunction$functioncontext = points.forIndex(i);
+                LOGGER.warn(
+                    "Compiled {} differs from the interpreter in {} at {} {} {}: {} != {}, falling back to the interpreter",
+                    field,
+                    method,
+                    densityfunction$functioncontext.blockX(),
+                    densityfunction$functioncontext.blockY(),
+                    densityfunction$functioncontext.blockZ(),
+                    actual[i],
+                    expected[i]
+                );
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long timeFill(DensityFunction[] functions, DensityFunction.ContextProvider points, double[] values) {
+        long i = Util.getNanos();
+
+        for (DensityFunction densityfunction : functions) {
+            densityfunction.fillArray(values, points);
+        }
+
+        return Util.getNanos() - i;
+    }
+
+    private static DensityFunction[] functions(NoiseRouter router) {
+        return new DensityFunction[]{
+            router.barrierNoise(),
+            router.fluidLevelFloodednessNoise(),
+            router.fluidLevelSpreadNoise(),
+            router.lavaNoise(),
+            router.temperature(),
+            router.vegetation(),
+            router.continents(),
+            router.erosion(),
+            router.depth(),
+            router.ridges(),
+            router.initialDensityWithoutJaggedness(),
+            router.finalDensity(),
+            router.veinToggle(),
+            router.veinRidged(),
+            router.veinGap()
+        };
+    }
+
+    static record SamplePoints(DensityFunction.FunctionContext[] contexts) implements DensityFunction.ContextProvider {
+        static DensityFunctionCompiler.SamplePoints create(RandomSource random) {
+            DensityFunction.FunctionContext[] adensityfunction$functioncontext = new DensityFunction.FunctionContext[VERIFY_SAMPLES];
+
+            for (int i = 0; i < VERIFY_SAMPLES; i++) {
+                adensityfunction$functioncontext[i] = new DensityFunction.SinglePointContext(
+                    random.nextIntBetweenInclusive(-VERIFY_HORIZONTAL_RANGE, VERIFY_HORIZONTAL_RANGE),
+                    random.nextIntBetweenInclusive(VERIFY_MIN_Y, VERIFY_MAX_Y),
+                    random.nextIntBetweenInclusive(-VERIFY_HORIZONTAL_RANGE, VERIFY_HORIZONTAL_RANGE)
+                );
+            }
+
+            return new DensityFunctionCompiler.SamplePoints(adensityfunction$functioncontext);
+        }
+
+        @Override
+        public DensityFunction.FunctionContext forIndex(int index) {
+            return this.contexts[index];
+        }
+
+        @Override
+        public void fillAllDirectly(double[] values, DensityFunction function) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = function.compute(this.contexts[i]);
+            }
+        }
+    }
+}
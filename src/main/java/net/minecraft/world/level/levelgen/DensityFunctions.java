@@ -25,10 +25,12 @@ import net.minecraft.util.VisibleForDebug;
 import net.minecraft.world.level.dimension.DimensionType;
 import net.minecraft.world.level.levelgen.synth.BlendedNoise;
 import net.minecraft.world.level.levelgen.synth.NormalNoise;
+import net.minecraft.world.level.levelgen.synth.SampleBuffers;
 import net.minecraft.world.level.levelgen.synth.SimplexNoise;
 import org.slf4j.Logger;
 
 public final class DensityFunctions {
+    private static final ThreadLocal<SampleBuffers> NOISE_COORDINATES = SampleBuffers.perThread(3);
     private static final Codec<DensityFunction> CODEC = BuiltInRegistries.DENSITY_FUNCTION_TYPE
         .byNameCodec()
         .dispatch(p_327452_ -> p_327452_.codec().codec(), Function.identity());
@@ -880,7 +882,20 @@ public final class DensityFunctions {
 
         @Override
         public void fillArray(double[] p_224079_, DensityFunction.ContextProvider p_224080_) {
-            p_224080_.fillAllDirectly(p_224079_, this);
+            int i = p_224079_.length;
+            SampleBuffers samplebuffers = NOISE_COORDINATES.get();
+            double[] adouble = samplebuffers.get(0, i);
+            double[] adouble1 = samplebuffers.get(1, i);
+            double[] adouble2 = samplebuffers.get(2, i);
+
+            for (int j = 0; j < i; j++) {
+                DensityFunction.FunctionContext densityfunction$functioncontext = p_224080_.forIndex(j);
+                adouble[j] = (double)densityfunction$functioncontext.blockX() * this.xzScale;
+                adouble1[j] = (double)densityfunction$functioncontext.blockY() * this.yScale;
+                adouble2[j] = (double)densityfunction$functioncontext.blockZ() * this.xzScale;
+            }
+
+            this.noise.getValues(adouble, adouble1, adouble2, p_224079_, i);
         }
 
         @Override
@@ -1119,7 +1134,20 @@ public final class DensityFunctions {
 
         @Override
         public void fillArray(double[] p_208956_, DensityFunction.ContextProvider p_208957_) {
-            p_208957_.fillAllDirectly(p_208956_, this);
+            int i = p_208956_.length;
+            SampleBuffers samplebuffers = NOISE_COORDINATES.get();
+            double[] adouble = samplebuffers.get(0, i);
+            double[] adouble1 = samplebuffers.get(1, i);
+            double[] adouble2 = samplebuffers.get(2, i);
+
+            for (int j = 0; j < i; j++) {
+                DensityFunction.FunctionContext densityfunction$functioncontext = p_208957_.forIndex(j);
+                adouble[j] = (double)densityfunction$functioncontext.blockX() * this.xzScale + this.shiftX.compute(densityfunction$functioncontext);
+                adouble1[j] = (double)densityfunction$functioncontext.blockY() * this.yScale + this.shiftY.compute(densityfunction$functioncontext);
+                adouble2[j] = (double)densityfunction$functioncontext.blockZ() * this.xzScale + this.shiftZ.compute(densityfunction$functioncontext);
+            }
+
+            this.noise.getValues(adouble, adouble1, adouble2, p_208956_, i);
         }
 
         @Override
@@ -143,7 +143,14 @@ public class NoiseChunk implements DensityFunction.ContextProvider, DensityFunct
             int k1 = SectionPos.blockToSectionCoord(p_224345_);
             int l1 = SectionPos.blockToSectionCoord(p_224346_);
             this.aquifer = Aquifer.create(
-                this, new ChunkPos(k1, l1), noiserouter1, p_224344_.aquiferRandom(), p_224347_.minY(), p_224347_.height(), p_224350_
+                this,
+                new ChunkPos(k1, l1),
+                noiserouter1,
+                p_224344_.aquiferRandom(),
+                p_224347_.minY(),
+                p_224347_.height(),
+                p_224350_,
+                p_224344_.aquiferCellCache(p_224350_)
             );
         }
 
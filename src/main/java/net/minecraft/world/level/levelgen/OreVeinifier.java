@@ -24,8 +24,12 @@ public final class OreVeinifier {
     ) {
         BlockState blockstate = null;
         return p_209666_ -> {
-            double d0 = p_209668_.compute(p_209666_);
             int i = p_209666_.blockY();
+            if (i < OreVeinifier.VeinType.IRON.minY || i > OreVeinifier.VeinType.COPPER.maxY) {
+                return blockstate;
+            }
+
+            double d0 = p_209668_.compute(p_209666_);
             OreVeinifier.VeinType oreveinifier$veintype = d0 > 0.0 ? OreVeinifier.VeinType.COPPER : OreVeinifier.VeinType.IRON;
             double d1 = Math.abs(d0);
             int j = oreveinifier$veintype.maxY - i;
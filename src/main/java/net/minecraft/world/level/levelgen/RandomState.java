@@ -3,6 +3,8 @@ package net.minecraft.world.level.levelgen;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
 import net.minecraft.core.Holder;
 import net.minecraft.core.HolderGetter;
 import net.minecraft.core.registries.Registries;
@@ -23,6 +25,7 @@ public final class RandomState {
     private final PositionalRandomFactory oreRandom;
     private final Map<ResourceKey<NormalNoise.NoiseParameters>, NormalNoise> noiseIntances;
     private final Map<ResourceLocation, PositionalRandomFactory> positionalRandoms;
+    private final AtomicReference<Aquifer.CellCache> aquiferCellCache = new AtomicReference<>();
 
     public static RandomState create(HolderGetter.Provider p_255935_, ResourceKey<NoiseGeneratorSettings> p_256314_, long p_256595_) {
         return create(p_255935_.lookupOrThrow(Registries.NOISE_SETTINGS).getOrThrow(p_256314_).value(), p_255935_.lookupOrThrow(Registries.NOISE), p_256595_);
@@ -92,7 +95,7 @@ public final class RandomState {
             }
         }
 
-        this.router = p_255668_.noiseRouter().mapAll(new NoiseWiringHelper());
+        this.router = DensityFunctionCompiler.compile(p_255668_.noiseRouter().mapAll(new NoiseWiringHelper()));
         DensityFunction.Visitor densityfunction$visitor = new DensityFunction.Visitor() {
             private final Map<DensityFunction, DensityFunction> wrapped = new HashMap<>();
 
@@ -144,6 +147,17 @@ public final class RandomState {
         return this.aquiferRandom;
     }
 
+    @Nullable
+    public Aquifer.CellCache aquiferCellCache(Aquifer.FluidPicker fluidPicker) {
+        Aquifer.CellCache aquifer$cellcache = this.aquiferCellCache.get();
+        if (aquifer$cellcache == null) {
+            this.aquiferCellCache.compareAndSet(null, new Aquifer.CellCache(fluidPicker));
+            aquifer$cellcache = this.aquiferCellCache.get();
+        }
+
+        return aquifer$cellcache.fluidPicker() == fluidPicker ? aquifer$cellcache : null;
+    }
+
     public PositionalRandomFactory oreRandom() {
         return this.oreRandom;
     }
@@ -0,0 +1,271 @@
+package net.minecraft.world.level.levelgen.structure;
+
+import com.mojang.datafixers.DataFixer;
+import com.mojang.logging.LogUtils;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import net.minecraft.FileUtil;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.datafix.DataFixTypes;
+import net.minecraft.world.level.ChunkPos;
+import org.slf4j.Logger;
+
+public class StructureStartIndex {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    public static final String FOLDER_NAME = "structure_starts";
+    private static final String TAG_STARTS = "Starts";
+    private static final int CELL_SHIFT = 3;
+    private static final int CELL_SIZE_BLOCKS = 16 << CELL_SHIFT;
+    private static final int SHARD_SHIFT = 5;
+    private static final int CELLS_PER_SHARD_SHIFT = SHARD_SHIFT - CELL_SHIFT;
+    private static final int MAX_LOADED_SHARDS = 64;
+    private static final int MAX_REFERENCE_DISTANCE_CHUNKS = 8;
+    private final Path folder;
+    private final DataFixer fixerUpper;
+    private final Long2ObjectLinkedOpenHashMap<StructureStartIndex.Shard> shards = new Long2ObjectLinkedOpenHashMap<>();
+
+    public StructureStartIndex(Path folder, DataFixer fixerUpper) {
+        this.folder = folder;
+        this.fixerUpper = fixerUpper;
+    }
+
+    public synchronized void add(ResourceKey<Structure> structure, StructureStart start) {
+        ChunkPos chunkpos = start.getChunkPos();
+        StructureStartIndex.Shard structurestartindex$shard = this.getShard(chunkpos.x >> SHARD_SHIFT, chunkpos.z >> SHARD_SHIFT);
+        if (!structurestartindex$shard.contains(structure, chunkpos)) {
+            structurestartindex$shard.insert(new StructureStartIndex.Entry(structure, chunkpos, start.getBoundingBox()));
+            structurestartindex$shard.dirty = true;
+        }
+    }
+
+    public synchronized boolean contains(ResourceKey<Structure> structure, ChunkPos start) {
+        return this.getShard(start.x >> SHARD_SHIFT, start.z >> SHARD_SHIFT).contains(structure, start);
+    }
+
+    public synchronized List<StructureStartIndex.Entry> getIntersecting(BoundingBox box, Predicate<ResourceKey<Structure>> filter) {
+        List<StructureStartIndex.Entry> list = new ArrayList<>();
+        int i = SectionPos.blockToSectionCoord(box.minX()) - MAX_REFERENCE_DISTANCE_CHUNKS >> CELL_SHIFT;
+        int j = SectionPos.blockToSectionCoord(box.minZ()) - MAX_REFERENCE_DISTANCE_CHUNKS >> CELL_SHIFT;
+        int k = SectionPos.blockToSectionCoord(box.maxX()) + MAX_REFERENCE_DISTANCE_CHUNKS >> CELL_SHIFT;
+        int l = SectionPos.blockToSectionCoord(box.maxZ()) + MAX_REFERENCE_DISTANCE_CHUNKS >> CELL_SHIFT;
+
+        for (int i1 = i; i1 <= k; i1++) {
+            for (int j1 = j; j1 <= l; j1++) {
+                List<StructureStartIndex.Entry> list1 = this.getCell(i1, j1);
+                if (list1 != null) {
+                    for (StructureStartIndex.Entry structurestartindex$entry : list1) {
+                        if (structurestartindex$entry.boundingBox().intersects(box) && filter.test(structurestartindex$entry.structure())) {
+                            list.add(structurestartindex$entry);
+                        }
+                    }
+                }
+            }
+        }
+
+        return list;
+    }
+
+    @Nullable
+    public synchronized StructureStartIndex.Entry findNearest(Predicate<ResourceKey<Structure>> filter, BlockPos pos, int maxDistanceChunks) {
+        int i = SectionPos.blockToSectionCoord(pos.getX()) >> CELL_SHIFT;
+        int j = SectionPos.blockToSectionCoord(pos.getZ()) >> CELL_SHIFT;
+        int k = (maxDistanceChunks >> CELL_SHIFT) + 1;
+        long l = (long)maxDistanceChunks * 16L;
+        long i1 = l * l;
+        StructureStartIndex.Entry structurestartindex$entry = null;
+
+        for (int j1 = 0; j1 <= k; j1++) {
+            for (int k1 = -j1; k1 <= j1; k1++) {
+                boolean flag = k1 == -j1 || k1 == j1;
+
+                for (int l1 = -j1; l1 <= j1; l1++) {
+                    if (flag || l1 == -j1 || l1 == j1) {
+                        List<StructureStartIndex.Entry> list = this.getCell(i + k1, j + l1);
+                        if (list != null) {
+                            for (StructureStartIndex.Entry structurestartindex$entry1 : list) {
+                                if (filter.test(structurestartindex$entry1.structure())) {
+                                    long i2 = (long)structurestartindex$entry1.start().getMiddleBlockX() - pos.getX();
+                                    long j2 = (long)structurestartindex$entry1.start().getMiddleBlockZ() - pos.getZ();
+                                    long k2 = i2 * i2 + j2 * j2;
+                                    if (k2 <= i1) {
+                                        i1 = k2;
+                                        structurestartindex$entry = structurestartindex$entry1;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            long l2 = (long)j1 * CELL_SIZE_BLOCKS;
+            if (structurestartindex$entry != null && l2 * l2 > i1) {
+                break;
+            }
+        }
+
+        return structurestartindex$entry;
+    }
+
+    public synchronized void save() {
+        for (Long2ObjectMap.Entry<StructureStartIndex.Shard> entry : Long2ObjectMaps.fastIterable(this.shards)) {
+            StructureStartIndex.Shard structurestartindex$shard = entry.getValue();
+            if (structurestartindex$shard.dirty) {
+                long i = entry.getLongKey();
+                Path path = this.getShardFile(ChunkPos.getX(i), ChunkPos.getZ(i));
+                CompoundTag compoundtag = new CompoundTag();
+                compoundtag.put("data", structurestartindex$shard.save());
+                NbtUtils.addCurrentDataVersion(compoundtag);
+
+                try {
+                    FileUtil.createDirectoriesSafe(this.folder);
+                    NbtIo.writeCompressed(compoundtag, path);
+                    structurestartindex$shard.dirty = false;
+                } catch (IOException ioexception) {
+                    LOGGER.error("Could not save structure start index {}", path, ioexception);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private List<StructureStartIndex.Entry> getCell(int cellX, int cellZ) {
+        return this.getShard(cellX >> CELLS_PER_SHARD_SHIFT, cellZ >> CELLS_PER_SHARD_SHIFT).startsByCell.get(ChunkPos.asLong(cellX, cellZ));
+    }
+
+    private StructureStartIndex.Shard getShard(int shardX, int shardZ) {
+        long i = ChunkPos.asLong(shardX, shardZ);
+        StructureStartIndex.Shard structurestartindex$shard = this.shards.getAndMoveToLast(i);
+        if (structurestartindex$shard == null) {
+            structurestartindex$shard = this.loadShard(shardX, shardZ);
+            this.shards.putAndMoveToLast(i, structurestartindex$shard);
+            this.evictCleanShards();
+        }
+
+        return structurestartindex$shard;
+    }
+
+    private void evictCleanShards() {
+        Iterator<StructureStartIndex.Shard> iterator = this.shards.values().iterator();
+
+        while (this.shards.size() > MAX_LOADED_SHARDS && iterator.hasNext()) {
+            if (!iterator.next().dirty) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private StructureStartIndex.Shard loadShard(int shardX, int shardZ) {
+        StructureStartIndex.Shard structurestartindex$shard = new StructureStartIndex.Shard();
+        Path path = this.getShardFile(shardX, shardZ);
+        if (Files.exists(path)) {
+            try {
+                CompoundTag compoundtag = NbtIo.readCompressed(path, NbtAccounter.unlimitedHeap());
+                int i = NbtUtils.getDataVersion(compoundtag, 1343);
+                structurestartindex$shard.load(
+                    DataFixTypes.SAVED_DATA_STRUCTURE_START_INDEX.updateToCurrentVersion(this.fixerUpper, compoundtag, i).getCompound("data")
+                );
+            } catch (Exception exception) {
+                LOGGER.error("Could not load structure start index {}", path, exception);
+            }
+        }
+
+        return structurestartindex$shard;
+    }
+
+    private Path getShardFile(int shardX, int shardZ) {
+        return this.folder.resolve(shardX + "." + shardZ + ".dat");
+    }
+
+    private static long cellKey(int chunkX, int chunkZ) {
+        return ChunkPos.asLong(chunkX >> CELL_SHIFT, chunkZ >> CELL_SHIFT);
+    }
+
+    public static record Entry(ResourceKey<Structure> structure, ChunkPos start, BoundingBox boundingBox) {
+        public BlockPos locatePos() {
+            return this.start.getMiddleBlockPosition(this.boundingBox.minY());
+        }
+    }
+
+    static class Shard {
+        final List<StructureStartIndex.Entry> entries = new ArrayList<>();
+        final Long2ObjectMap<List<StructureStartIndex.Entry>> startsByCell = new Long2ObjectOpenHashMap<>();
+        boolean dirty;
+
+        void load(CompoundTag tag) {
+            ListTag listtag = tag.getList(TAG_STARTS, 10);
+
+            for (int i = 0; i < listtag.size(); i++) {
+                CompoundTag compoundtag = listtag.getCompound(i);
+                ResourceLocation resourcelocation = ResourceLocation.tryParse(compoundtag.getString("id"));
+                int[] aint = compoundtag.getIntArray("BB");
+                if (resourcelocation != null && aint.length == 6) {
+                    this.insert(
+                        new StructureStartIndex.Entry(
+                            ResourceKey.create(Registries.STRUCTURE, resourcelocation),
+                            new ChunkPos(compoundtag.getLong("Pos")),
+                            new BoundingBox(aint[0], aint[1], aint[2], aint[3], aint[4], aint[5])
+                        )
+                    );
+                }
+            }
+        }
+
+        CompoundTag save() {
+            CompoundTag compoundtag = new CompoundTag();
+            ListTag listtag = new ListTag();
+
+            for (StructureStartIndex.Entry structurestartindex$entry : this.entries) {
+                CompoundTag compoundtag1 = new CompoundTag();
+                BoundingBox boundingbox = structurestartindex$entry.boundingBox();
+                compoundtag1.putString("id", structurestartindex$entry.structure().location().toString());
+                compoundtag1.putLong("Pos", structurestartindex$entry.start().toLong());
+                compoundtag1.putIntArray(
+                    "BB",
+                    new int[]{boundingbox.minX(), boundingbox.minY(), boundingbox.minZ(), boundingbox.maxX(), boundingbox.maxY(), boundingbox.maxZ()}
+                );
+                listtag.add(compoundtag1);
+            }
+
+            compoundtag.put(TAG_STARTS, listtag);
+            return compoundtag;
+        }
+
+        void insert(StructureStartIndex.Entry entry) {
+            this.entries.add(entry);
+            this.startsByCell.computeIfAbsent(cellKey(entry.start().x, entry.start().z), cell -> new ArrayList<>()).add(entry);
+        }
+
+        boolean contains(ResourceKey<Structure> structure, ChunkPos start) {
+            List<StructureStartIndex.Entry> list = this.startsByCell.get(cellKey(start.x, start.z));
+            if (list != null) {
+                for (StructureStartIndex.Entry structurestartindex$entry : list) {
+                    if (structurestartindex$entry.start().equals(start) && structurestartindex$entry.structure().equals(structure)) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -61,6 +61,21 @@ public final class ImprovedNoise {
         return this.sampleAndLerp(i, j, k, d3, d4 - d6, d5, d4);
     }
 
+    public void noise(double[] xs, double[] ys, double[] zs, double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            double d0 = xs[i] + this.xo;
+            double d1 = ys[i] + this.yo;
+            double d2 = zs[i] + this.zo;
+            int j = Mth.floor(d0);
+            int k = Mth.floor(d1);
+            int l = Mth.floor(d2);
+            double d3 = d0 - (double)j;
+            double d4 = d1 - (double)k;
+            double d5 = d2 - (double)l;
+            values[i] = this.sampleAndLerp(j, k, l, d3, d4, d5, d4);
+        }
+    }
+
     public double noiseWithDerivative(double p_164313_, double p_164314_, double p_164315_, double[] p_164316_) {
         double d0 = p_164313_ + this.xo;
         double d1 = p_164314_ + this.yo;
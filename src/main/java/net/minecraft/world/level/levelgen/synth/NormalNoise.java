@@ -17,6 +17,7 @@ import net.minecraft.util.RandomSource;
 public class NormalNoise {
     private static final double INPUT_FACTOR = 1.0181268882175227;
     private static final double TARGET_DEVIATION = 0.3333333333333333;
+    private static final ThreadLocal<SampleBuffers> BUFFERS = SampleBuffers.perThread(4);
     private final double valueFactor;
     private final PerlinNoise first;
     private final PerlinNoise second;
@@ -80,6 +81,27 @@ public class NormalNoise {
         return (this.first.getValue(p_75381_, p_75382_, p_75383_) + this.second.getValue(d0, d1, d2)) * this.valueFactor;
     }
 
+    public void getValues(double[] xs, double[] ys, double[] zs, double[] values, int count) {
+        SampleBuffers samplebuffers = BUFFERS.get();
+        double[] adouble = samplebuffers.get(0, count);
+        double[] adouble1 = samplebuffers.get(1, count);
+        double[] adouble2 = samplebuffers.get(2, count);
+        double[] adouble3 = samplebuffers.get(3, count);
+
+        for (int i = 0; i < count; i++) {
+            adouble[i] = xs[i] * 1.0181268882175227;
+            adouble1[i] = ys[i] * 1.0181268882175227;
+            adouble2[i] = zs[i] * 1.0181268882175227;
+        }
+
+        this.first.getValues(xs, ys, zs, values, count);
+        this.second.getValues(adouble, adouble1, adouble2, adouble3, count);
+
+        for (int j = 0; j < count; j++) {
+            values[j] = (values[j] + adouble3[j]) * this.valueFactor;
+        }
+    }
+
     public NormalNoise.NoiseParameters parameters() {
         return this.parameters;
     }
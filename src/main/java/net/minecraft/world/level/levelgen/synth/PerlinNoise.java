@@ -20,6 +20,7 @@ import net.minecraft.world.level.levelgen.PositionalRandomFactory;
 
 public class PerlinNoise {
     private static final int ROUND_OFF = 33554432;
+    private static final ThreadLocal<SampleBuffers> BUFFERS = SampleBuffers.perThread(4);
     private final ImprovedNoise[] noiseLevels;
     private final int firstOctave;
     private final DoubleList amplitudes;
@@ -167,6 +168,38 @@ public class PerlinNoise {
         return d0;
     }
 
+    public void getValues(double[] xs, double[] ys, double[] zs, double[] values, int count) {
+        SampleBuffers samplebuffers = BUFFERS.get();
+        double[] adouble = samplebuffers.get(0, count);
+        double[] adouble1 = samplebuffers.get(1, count);
+        double[] adouble2 = samplebuffers.get(2, count);
+        double[] adouble3 = samplebuffers.get(3, count);
+        double d0 = this.lowestFreqInputFactor;
+        double d1 = this.lowestFreqValueFactor;
+        Arrays.fill(values, 0, count, 0.0);
+
+        for (int i = 0; i < this.noiseLevels.length; i++) {
+            ImprovedNoise improvednoise = this.noiseLevels[i];
+            if (improvednoise != null) {
+                for (int j = 0; j < count; j++) {
+                    adouble[j] = wrap(xs[j] * d0);
+                    adouble1[j] = wrap(ys[j] * d0);
+                    adouble2[j] = wrap(zs[j] * d0);
+                }
+
+                improvednoise.noise(adouble, adouble1, adouble2, adouble3, count);
+                double d2 = this.amplitudes.getDouble(i);
+
+                for (int k = 0; k < count; k++) {
+                    values[k] += d2 * adouble3[k] * d1;
+                }
+            }
+
+            d0 *= 2.0;
+            d1 /= 2.0;
+        }
+    }
+
     public double maxBrokenValue(double p_210644_) {
         return this.edgeValue(p_210644_ + 2.0);
     }
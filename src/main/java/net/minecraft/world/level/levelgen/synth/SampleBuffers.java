@@ -0,0 +1,23 @@
+package net.minecraft.world.level.levelgen.synth;
+
+public final class SampleBuffers {
+    private final double[][] buffers;
+
+    public SampleBuffers(int count) {
+        this.buffers = new double[count][0];
+    }
+
+    public static ThreadLocal<SampleBuffers> perThread(int count) {
+        return ThreadLocal.withInitial(() -> new SampleBuffers(count));
+    }
+
+    public double[] get(int index, int length) {
+        double[] adouble = this.buffers[index];
+        if (adouble.length < length) {
+            adouble = new double[length];
+            this.buffers[index] = adouble;
+        }
+
+        return adouble;
+    }
+}
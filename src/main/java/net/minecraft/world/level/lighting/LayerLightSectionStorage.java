@@ -257,6 +257,18 @@ public abstract class LayerLightSectionStorage<M extends DataLayerStorageMap<M>>
 
     protected void swapSectionMap() {
         if (!this.changedSections.isEmpty()) {
+            LongIterator longiterator1 = this.changedSections.iterator();
+
+            while (longiterator1.hasNext()) {
+                DataLayer datalayer = this.updatingSectionData.getLayer(longiterator1.nextLong());
+                if (datalayer != null && !datalayer.isDefinitelyHomogenous()) {
+                    int j = datalayer.getUniformValue();
+                    if (j > 0) {
+                        datalayer.fill(j);
+                    }
+                }
+            }
+
             M m = this.updatingSectionData.copy();
             m.disableCache();
             this.visibleSectionData = m;
@@ -1,5 +1,8 @@
 package net.minecraft.world.level.lighting;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
@@ -53,6 +56,30 @@ public class LevelLightEngine implements LightEventListener {
         return i;
     }
 
+    protected int runBlockAndSkyLightUpdatesInParallel(Executor executor) {
+        LightEngine<?, ?> lightengine = this.blockEngine;
+        LightEngine<?, ?> lightengine1 = this.skyEngine;
+        if (lightengine != null && lightengine1 != null && lightengine.hasLightWork() && lightengine1.hasLightWork()) {
+            AtomicBoolean atomicboolean = new AtomicBoolean();
+            CompletableFuture<Integer> completablefuture = CompletableFuture.supplyAsync(
+                () -> atomicboolean.compareAndSet(false, true) ? lightengine.runLightUpdates() : 0, executor
+            );
+            int i = lightengine1.runLightUpdates();
+            return atomicboolean.compareAndSet(false, true) ? i + lightengine.runLightUpdates() : i + completablefuture.join();
+        } else {
+            int j = 0;
+            if (lightengine != null) {
+                j += lightengine.runLightUpdates();
+            }
+
+            if (lightengine1 != null) {
+                j += lightengine1.runLightUpdates();
+            }
+
+            return j;
+        }
+    }
+
     @Override
     public void updateSectionStatus(SectionPos p_75827_, boolean p_75828_) {
         if (this.blockEngine != null) {
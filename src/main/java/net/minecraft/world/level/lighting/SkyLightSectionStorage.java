@@ -98,28 +98,13 @@ public class SkyLightSectionStorage extends LayerLightSectionStorage<SkyLightSec
                     j = SectionPos.offset(j, Direction.UP);
                 }
 
-                return repeatFirstLayer(datalayer1);
+                return datalayer1.repeatFirstLayer();
             } else {
                 return this.lightOnInSection(p_75883_) ? new DataLayer(15) : new DataLayer();
             }
         }
     }
 
-    private static DataLayer repeatFirstLayer(DataLayer p_182513_) {
-        if (p_182513_.isDefinitelyHomogenous()) {
-            return p_182513_.copy();
-        } else {
-            byte[] abyte = p_182513_.getData();
-            byte[] abyte1 = new byte[2048];
-
-            for (int i = 0; i < 16; i++) {
-                System.arraycopy(abyte, 0, abyte1, i * 128, 128);
-            }
-
-            return new DataLayer(abyte1);
-        }
-    }
-
     protected boolean hasLightDataAtOrBelow(int p_278270_) {
         return p_278270_ >= this.updatingSectionData.currentLowestY;
     }
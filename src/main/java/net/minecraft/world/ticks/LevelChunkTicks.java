@@ -3,6 +3,7 @@ package net.minecraft.world.ticks;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import it.unimi.dsi.fastutil.objects.ObjectOpenCustomHashSet;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -111,6 +112,20 @@ public class LevelChunkTicks<T> implements SerializableTickContainer<T>, TickCon
         return listtag;
     }
 
+    @Override
+    public List<SavedTick<T>> pack(long gameTime) {
+        List<SavedTick<T>> list = new ArrayList<>(this.count());
+        if (this.pendingTicks != null) {
+            list.addAll(this.pendingTicks);
+        }
+
+        for (ScheduledTick<T> scheduledtick : this.tickQueue) {
+            list.add(new SavedTick<>(scheduledtick.type(), scheduledtick.pos(), (int)(scheduledtick.triggerTick() - gameTime), scheduledtick.priority()));
+        }
+
+        return list;
+    }
+
     public void unpack(long p_193172_) {
         if (this.pendingTicks != null) {
             int i = -this.pendingTicks.size();
@@ -48,6 +48,11 @@ public class ProtoChunkTicks<T> implements SerializableTickContainer<T>, TickCon
         return listtag;
     }
 
+    @Override
+    public List<SavedTick<T>> pack(long gameTime) {
+        return this.scheduledTicks();
+    }
+
     public List<SavedTick<T>> scheduledTicks() {
         return List.copyOf(this.ticks);
     }
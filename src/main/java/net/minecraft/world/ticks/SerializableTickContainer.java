@@ -1,8 +1,11 @@
 package net.minecraft.world.ticks;
 
+import java.util.List;
 import java.util.function.Function;
 import net.minecraft.nbt.Tag;
 
 public interface SerializableTickContainer<T> {
     Tag save(long p_193426_, Function<T, String> p_193427_);
+
+    List<SavedTick<T>> pack(long gameTime);
 }
\ No newline at end of file